@@ -0,0 +1,58 @@
+package com.wael.capacitor.systembars;
+
+import android.app.Activity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmark: a style call plus its frame commit, on each API-level branch of the
+ * reconciler - legacy flags (28), insets controller (30) and bar background views (35).
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = { 28, 30, 35 })
+public class BarStyleBenchmark {
+
+    private static final String[] STYLES = { "LIGHT", "DARK" };
+    private static final String[] COLORS = { "#FFFFFF", "#121212" };
+    private static final int OPS = 2_000;
+
+    private BarCommandScheduler scheduler;
+    private SystemBarsManager manager;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        scheduler = new BarCommandScheduler();
+        manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+    }
+
+    @Test
+    public void setStatusBarStyle() {
+        BenchmarkRunner.run("setStatusBarStyle", OPS, i -> {
+            manager.setStatusBarStyle(STYLES[i & 1], COLORS[i & 1]);
+            scheduler.commitNow();
+        });
+    }
+
+    @Test
+    public void setNavigationBarStyle() {
+        BenchmarkRunner.run("setNavigationBarStyle", OPS, i -> {
+            manager.setNavigationBarStyle(STYLES[i & 1], COLORS[i & 1]);
+            scheduler.commitNow();
+        });
+    }
+
+    @Test
+    public void setStatusBarStyleUnchanged() {
+        // Repeated identical calls: the reconciler should find nothing to commit
+        BenchmarkRunner.run("setStatusBarStyleUnchanged", OPS, i -> {
+            manager.setStatusBarStyle("DARK", "#121212");
+            scheduler.commitNow();
+        });
+    }
+}
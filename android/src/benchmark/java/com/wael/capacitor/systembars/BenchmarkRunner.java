@@ -0,0 +1,136 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.fail;
+
+import android.os.Build;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * BenchmarkRunner - Minimal JMH-style harness for the plugin's hot paths.
+ *
+ * Runs warmup iterations, then measured iterations of a fixed number of operations, and
+ * scores the median ns/op. Each result is written to {@code benchmark.output}/<name>.json
+ * and compared with {@code benchmark.baseline}; a score more than the threshold above its
+ * baseline fails the calling test.
+ *
+ * System properties (set by the Gradle build when run with -Pbenchmark):
+ * - benchmark.output     result directory
+ * - benchmark.baseline   checked-in baseline.json
+ * - benchmark.threshold  allowed regression in percent (overrides the baseline's value)
+ * - benchmark.record     "true" to only record results (when regenerating the baseline)
+ *
+ * Names get the Robolectric SDK level appended, e.g. "setStatusBarStyle[sdk=35]".
+ */
+final class BenchmarkRunner {
+
+    interface Operation {
+        void run(int i);
+    }
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final double DEFAULT_THRESHOLD_PERCENT = 25;
+
+    // Keeps results observable so the JIT cannot drop the measured work
+    static volatile Object sink;
+
+    private BenchmarkRunner() {}
+
+    /**
+     * Measure an operation and check it against the baseline.
+     *
+     * @param opsPerIteration operations per timed iteration (large enough for ~1 ms+)
+     * @return median ns/op
+     */
+    static double run(String benchmark, int opsPerIteration, Operation operation) {
+        String name = benchmark + "[sdk=" + Build.VERSION.SDK_INT + "]";
+
+        for (int w = 0; w < WARMUP_ITERATIONS; w++) {
+            for (int i = 0; i < opsPerIteration; i++) {
+                operation.run(i);
+            }
+        }
+
+        double[] scores = new double[MEASURED_ITERATIONS];
+        for (int m = 0; m < MEASURED_ITERATIONS; m++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < opsPerIteration; i++) {
+                operation.run(i);
+            }
+            scores[m] = (System.nanoTime() - start) / (double) opsPerIteration;
+        }
+        Arrays.sort(scores);
+        double median = scores[MEASURED_ITERATIONS / 2];
+
+        System.out.printf("%s: %.1f ns/op (min %.1f, max %.1f)%n",
+                name, median, scores[0], scores[MEASURED_ITERATIONS - 1]);
+        writeResult(name, median, scores[0], scores[MEASURED_ITERATIONS - 1]);
+        checkBaseline(name, median);
+        return median;
+    }
+
+    private static void writeResult(String name, double median, double min, double max) {
+        String output = System.getProperty("benchmark.output");
+        if (output == null) return;
+
+        try {
+            File dir = new File(output);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+
+            JSONObject result = new JSONObject();
+            result.put("name", name);
+            result.put("nsPerOp", median);
+            result.put("minNsPerOp", min);
+            result.put("maxNsPerOp", max);
+            result.put("iterations", MEASURED_ITERATIONS);
+            // The JVM running the benchmark, recorded into the baseline
+            result.put("jvm", System.getProperty("java.vm.vendor") + " " + System.getProperty("java.vm.name")
+                    + " " + System.getProperty("java.runtime.version"));
+
+            File file = new File(dir, name.replaceAll("[^A-Za-z0-9_.=-]", "_") + ".json");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                writer.write(result.toString(2));
+            }
+        } catch (IOException | JSONException e) {
+            throw new IllegalStateException("Failed to write benchmark result for " + name, e);
+        }
+    }
+
+    private static void checkBaseline(String name, double median) {
+        if (Boolean.getBoolean("benchmark.record")) return;
+
+        String baselinePath = System.getProperty("benchmark.baseline");
+        if (baselinePath == null || !new File(baselinePath).isFile()) return;
+
+        try {
+            JSONObject baseline = new JSONObject(new String(
+                    Files.readAllBytes(new File(baselinePath).toPath()), StandardCharsets.UTF_8));
+            JSONObject entry = baseline.getJSONObject("benchmarks").optJSONObject(name);
+            if (entry == null) {
+                System.out.println(name + ": no baseline entry, not checked");
+                return;
+            }
+
+            double threshold = Double.parseDouble(System.getProperty("benchmark.threshold",
+                    String.valueOf(baseline.optDouble("thresholdPercent", DEFAULT_THRESHOLD_PERCENT))));
+            double limit = entry.getDouble("nsPerOp") * (1 + threshold / 100);
+            if (median > limit) {
+                fail(String.format("%s regressed: %.1f ns/op, baseline %.1f ns/op (+%.0f%% allowed)",
+                        name, median, entry.getDouble("nsPerOp"), threshold));
+            }
+        } catch (IOException | JSONException e) {
+            throw new IllegalStateException("Invalid benchmark baseline " + baselinePath, e);
+        }
+    }
+}
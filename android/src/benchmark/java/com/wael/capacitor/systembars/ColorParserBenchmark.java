@@ -0,0 +1,33 @@
+package com.wael.capacitor.systembars;
+
+import android.graphics.Color;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmark: ColorParser vs Color.parseColor on the repeated theme colors a router sends
+ * during navigation. Runs under Robolectric, which executes the real framework
+ * Color.parseColor.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ColorParserBenchmark {
+
+    private static final String[] THEME_COLORS = { "#FFFFFF", "#121212", "#1E88E5", "#80000000", "#F5F5F5" };
+    private static final int OPS = 200_000;
+
+    @Test
+    public void colorParser() {
+        ColorParser parser = new ColorParser();
+        BenchmarkRunner.run("colorParser", OPS,
+                i -> BenchmarkRunner.sink = parser.parse(THEME_COLORS[i % THEME_COLORS.length]));
+    }
+
+    @Test
+    public void frameworkParseColor() {
+        BenchmarkRunner.run("frameworkParseColor", OPS,
+                i -> BenchmarkRunner.sink = Color.parseColor(THEME_COLORS[i % THEME_COLORS.length]));
+    }
+}
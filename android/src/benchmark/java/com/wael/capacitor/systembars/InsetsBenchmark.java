@@ -0,0 +1,91 @@
+package com.wael.capacitor.systembars;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+import android.webkit.WebView;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmark: getInsets() from the published snapshot, and the base inset listener
+ * (strategy apply + snapshot + insetsChanged + CSS feed) for repeated and changing insets.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = { 28, 30, 35 })
+public class InsetsBenchmark {
+
+    private static final int OPS = 20_000;
+
+    private Activity activity;
+    private BarCommandScheduler scheduler;
+    private SystemBarsManager manager;
+    private WebView webView;
+    private WindowInsetsCompat[] insets;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        webView = new WebView(activity);
+        activity.setContentView(webView, new ViewGroup.MarginLayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        scheduler = new BarCommandScheduler();
+        manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+
+        // Portrait bars, then the same with the navigation bar hidden
+        insets = new WindowInsetsCompat[] {
+                barInsets(96, 48, true),
+                barInsets(96, 0, false),
+        };
+    }
+
+    private static WindowInsetsCompat barInsets(int top, int bottom, boolean navVisible) {
+        return new WindowInsetsCompat.Builder()
+                .setInsets(WindowInsetsCompat.Type.statusBars(), Insets.of(0, top, 0, 0))
+                .setInsets(WindowInsetsCompat.Type.navigationBars(), Insets.of(0, 0, 0, bottom))
+                .setVisible(WindowInsetsCompat.Type.navigationBars(), navVisible)
+                .build();
+    }
+
+    @Test
+    public void getInsets() {
+        manager.onInsetsDispatched(insets[0]);
+        BenchmarkRunner.run("getInsets", OPS, i -> BenchmarkRunner.sink = manager.getInsets(-1));
+    }
+
+    @Test
+    public void getInsetsUnchanged() {
+        manager.onInsetsDispatched(insets[0]);
+        long version = manager.getInsetsVersion();
+        BenchmarkRunner.run("getInsetsUnchanged", OPS, i -> BenchmarkRunner.sink = manager.getInsets(version));
+    }
+
+    @Test
+    public void insetsListenerRepeated() {
+        installListener();
+        BenchmarkRunner.run("insetsListenerRepeated", OPS,
+                i -> ViewCompat.dispatchApplyWindowInsets(webView, insets[0]));
+    }
+
+    @Test
+    public void insetsListenerChanging() {
+        installListener();
+        BenchmarkRunner.run("insetsListenerChanging", OPS,
+                i -> ViewCompat.dispatchApplyWindowInsets(webView, insets[i & 1]));
+    }
+
+    private void installListener() {
+        WebViewPaddingManager paddingManager = new WebViewPaddingManager(webView, scheduler);
+        FullscreenManager fullscreenManager = new FullscreenManager(activity, manager, paddingManager, scheduler);
+        fullscreenManager.setWebView(webView);
+        fullscreenManager.installBaseInsetsListener();
+    }
+}
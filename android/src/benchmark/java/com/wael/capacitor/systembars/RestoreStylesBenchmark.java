@@ -0,0 +1,40 @@
+package com.wael.capacitor.systembars;
+
+import com.getcapacitor.JSObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmark: merging the exitFullscreen() restore options. Runs under Robolectric for
+ * the real org.json implementation behind JSObject.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class RestoreStylesBenchmark {
+
+    private static final int OPS = 50_000;
+
+    @Test
+    public void restoreLegacyOptions() {
+        BenchmarkRunner.run("restoreLegacyOptions", OPS,
+                i -> BenchmarkRunner.sink = RestoreStyles.fromOptions(null, "DARK", "#121212"));
+    }
+
+    @Test
+    public void restorePerBarOptions() {
+        JSObject statusBar = new JSObject();
+        statusBar.put("style", "LIGHT");
+        statusBar.put("color", "#FFFFFF");
+        JSObject navigationBar = new JSObject();
+        navigationBar.put("color", "#000000");
+        JSObject restore = new JSObject();
+        restore.put("style", "DARK");
+        restore.put("statusBar", statusBar);
+        restore.put("navigationBar", navigationBar);
+
+        BenchmarkRunner.run("restorePerBarOptions", OPS,
+                i -> BenchmarkRunner.sink = RestoreStyles.fromOptions(restore, null, null));
+    }
+}
@@ -0,0 +1,172 @@
+package com.wael.capacitor.systembars;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * BarBackgroundDrawable - Both bar backgrounds drawn by one window background drawable
+ * (edge-to-edge mode, "barBackground": "drawable").
+ *
+ * The default rendering adds two Views to android.R.id.content and also paints the whole
+ * window with the status color, so every frame fills the screen behind the WebView once
+ * more. Installed as the window background instead, this drawable paints only the bands
+ * under the system bars and display cutout - top (status), bottom (navigation), and the
+ * sides in landscape - and leaves the rest to the WebView. Only an explicit window color
+ * (theme windowBackground) fills the area between the bands; with none set it stays
+ * unpainted, and the status-color fill of the default rendering is skipped.
+ *
+ * Band sizes come from the insets listener and only invalidate; no View is added and
+ * nothing is laid out.
+ *
+ * Main thread only.
+ */
+public final class BarBackgroundDrawable extends Drawable {
+
+    private final Paint paint = new Paint();
+
+    private int statusColor;
+    private int navColor;
+    // Area between the bands; transparent means not painted
+    private int fillColor = 0;
+    private int topHeight = 0;
+    private int bottomHeight = 0;
+    private int leftWidth = 0;
+    private int rightWidth = 0;
+    // Whether a side band is under the navigation bar (3-button landscape) or a cutout
+    private boolean navLeft = false;
+    private boolean navRight = false;
+    private int alpha = 0xFF;
+
+    public BarBackgroundDrawable(int initialColor) {
+        statusColor = initialColor;
+        navColor = initialColor;
+    }
+
+    public int getStatusColor() {
+        return statusColor;
+    }
+
+    public int getNavColor() {
+        return navColor;
+    }
+
+    public int getFillColor() {
+        return fillColor;
+    }
+
+    public int getTopHeight() {
+        return topHeight;
+    }
+
+    public int getBottomHeight() {
+        return bottomHeight;
+    }
+
+    public int getLeftWidth() {
+        return leftWidth;
+    }
+
+    public int getRightWidth() {
+        return rightWidth;
+    }
+
+    public void setStatusColor(int color) {
+        if (color == statusColor) return;
+        statusColor = color;
+        invalidateSelf();
+    }
+
+    public void setNavColor(int color) {
+        if (color == navColor) return;
+        navColor = color;
+        invalidateSelf();
+    }
+
+    public void setFillColor(int color) {
+        if (color == fillColor) return;
+        fillColor = color;
+        invalidateSelf();
+    }
+
+    /**
+     * Resize the bands to the system bar and cutout insets (px). A side band takes the
+     * navigation color when the navigation bar is on that side, otherwise the status
+     * color. Returns true if anything changed.
+     */
+    public boolean setBarInsets(int left, int top, int right, int bottom, boolean navLeft, boolean navRight) {
+        if (left == leftWidth && top == topHeight && right == rightWidth && bottom == bottomHeight
+                && navLeft == this.navLeft && navRight == this.navRight) {
+            return false;
+        }
+        leftWidth = left;
+        topHeight = top;
+        rightWidth = right;
+        bottomHeight = bottom;
+        this.navLeft = navLeft;
+        this.navRight = navRight;
+        invalidateSelf();
+        return true;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        Rect bounds = getBounds();
+        int top = Math.min(bounds.top + topHeight, bounds.bottom);
+        int bottom = Math.max(bounds.bottom - bottomHeight, top);
+        int left = Math.min(bounds.left + leftWidth, bounds.right);
+        int right = Math.max(bounds.right - rightWidth, left);
+
+        if (top > bounds.top) {
+            drawBand(canvas, statusColor, bounds.left, bounds.top, bounds.right, top);
+        }
+        if (bounds.bottom > bottom) {
+            drawBand(canvas, navColor, bounds.left, bottom, bounds.right, bounds.bottom);
+        }
+        // Side bands run between the top and bottom bands so no pixel is painted twice
+        if (left > bounds.left && bottom > top) {
+            drawBand(canvas, navLeft ? navColor : statusColor, bounds.left, top, left, bottom);
+        }
+        if (bounds.right > right && bottom > top) {
+            drawBand(canvas, navRight ? navColor : statusColor, right, top, bounds.right, bottom);
+        }
+        if (right > left && bottom > top) {
+            drawBand(canvas, fillColor, left, top, right, bottom);
+        }
+    }
+
+    private void drawBand(Canvas canvas, int color, int left, int top, int right, int bottom) {
+        int bandAlpha = (color >>> 24) * alpha / 0xFF;
+        if (bandAlpha == 0) return; // transparent bar: nothing to paint
+
+        paint.setColor((color & 0x00FFFFFF) | (bandAlpha << 24));
+        canvas.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (alpha == this.alpha) return;
+        this.alpha = alpha;
+        invalidateSelf();
+    }
+
+    @Override
+    public int getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        // Without an opaque fill the middle of the window is not painted
+        return PixelFormat.TRANSLUCENT;
+    }
+}
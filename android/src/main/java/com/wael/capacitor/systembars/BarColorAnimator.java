@@ -0,0 +1,143 @@
+package com.wael.capacitor.systembars;
+
+import android.animation.ValueAnimator;
+import android.view.View;
+
+/**
+ * BarColorAnimator - One shared animator for the status and navigation bar background
+ * views, or the single BarBackgroundDrawable (edge-to-edge mode).
+ *
+ * Colors are interpolated per ARGB channel with plain int math, and written with
+ * View.setBackgroundColor(), which recolors the existing ColorDrawable in place, or into
+ * the drawable's band: each frame only invalidates, never allocates and never requests
+ * layout.
+ *
+ * A new target cancels the running animation and restarts from the colors currently on
+ * screen; a bar without a new target keeps heading to its previous one.
+ *
+ * Only edge-to-edge mode has bar backgrounds to animate: API 35+, or API 30-34 with
+ * unifiedEdgeToEdge (see EdgeToEdgeMode). The legacy path writes the window bar colors
+ * directly and ignores transitions.
+ *
+ * Main thread only.
+ */
+public class BarColorAnimator implements ValueAnimator.AnimatorUpdateListener {
+
+    private static final int STATUS = 0;
+    private static final int NAV = 1;
+
+    private final View[] views = new View[2];
+    private BarBackgroundDrawable drawable;
+    private final int[] from = new int[2];
+    private final int[] to = new int[2];
+    private final int[] current = new int[2];
+
+    private final ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+
+    public BarColorAnimator() {
+        animator.addUpdateListener(this);
+    }
+
+    /**
+     * Bind the background views; both start at their current (transparent) color.
+     */
+    public void attach(View statusView, View navView, int initialColor) {
+        views[STATUS] = statusView;
+        views[NAV] = navView;
+        for (int bar = STATUS; bar <= NAV; bar++) {
+            from[bar] = to[bar] = current[bar] = initialColor;
+        }
+    }
+
+    /**
+     * Bind the single background drawable instead of views.
+     */
+    public void attach(BarBackgroundDrawable background, int initialColor) {
+        drawable = background;
+        for (int bar = STATUS; bar <= NAV; bar++) {
+            from[bar] = to[bar] = current[bar] = initialColor;
+        }
+    }
+
+    public boolean isAttached() {
+        return views[STATUS] != null || drawable != null;
+    }
+
+    public void setStatusColor(int color, BarTransition transition) {
+        setColor(STATUS, color, transition);
+    }
+
+    public void setNavColor(int color, BarTransition transition) {
+        setColor(NAV, color, transition);
+    }
+
+    /**
+     * Color currently on screen for the status bar (mid-animation value if animating).
+     */
+    public int getStatusColor() {
+        return current[STATUS];
+    }
+
+    public int getNavColor() {
+        return current[NAV];
+    }
+
+    private void setColor(int bar, int color, BarTransition transition) {
+        if (!isAttached()) return;
+
+        if (transition == null) {
+            // Immediate: pin this bar; a running animation keeps driving the other one
+            from[bar] = to[bar] = current[bar] = color;
+            write(bar, color);
+            return;
+        }
+
+        if (animator.isRunning()) {
+            animator.cancel(); // current[] keeps the last interpolated colors
+        }
+        from[STATUS] = current[STATUS];
+        from[NAV] = current[NAV];
+        to[bar] = color;
+
+        animator.setDuration(transition.getDurationMs());
+        animator.setInterpolator(transition.getInterpolator());
+        animator.start();
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        float fraction = animation.getAnimatedFraction();
+        for (int bar = STATUS; bar <= NAV; bar++) {
+            if (from[bar] == to[bar]) continue;
+            int color = lerpArgb(from[bar], to[bar], fraction);
+            if (color != current[bar]) {
+                current[bar] = color;
+                write(bar, color);
+            }
+        }
+    }
+
+    private void write(int bar, int color) {
+        if (drawable != null) {
+            if (bar == STATUS) {
+                drawable.setStatusColor(color);
+            } else {
+                drawable.setNavColor(color);
+            }
+        } else {
+            views[bar].setBackgroundColor(color);
+        }
+    }
+
+    static int lerpArgb(int start, int end, float fraction) {
+        int a = lerpChannel(start >>> 24, end >>> 24, fraction);
+        int r = lerpChannel((start >> 16) & 0xFF, (end >> 16) & 0xFF, fraction);
+        int g = lerpChannel((start >> 8) & 0xFF, (end >> 8) & 0xFF, fraction);
+        int b = lerpChannel(start & 0xFF, end & 0xFF, fraction);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int lerpChannel(int start, int end, float fraction) {
+        return start + Math.round((end - start) * fraction);
+    }
+}
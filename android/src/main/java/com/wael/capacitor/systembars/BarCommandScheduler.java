@@ -0,0 +1,390 @@
+package com.wael.capacitor.systembars;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Choreographer;
+import com.getcapacitor.JSObject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * BarCommandScheduler - Frame-aligned batching of all system bar operations.
+ *
+ * Every manager submits its UI-thread work here instead of posting its own
+ * runOnUiThread() runnable. Work is keyed by a {@link Slot}, so a later submission to
+ * the same slot replaces the earlier one (last-writer-wins). Per-bar, per-property
+ * styles and visibility share the BAR_STATE slot: SystemBarsManager merges them into
+ * its desired SystemBarsState and reconciles once. All pending slots are committed
+ * together in a single Choreographer frame callback, which means one JS call - or a burst
+ * of them during a route transition - costs at most one main-thread pass per vsync.
+ *
+ * Work submitted while a commit is running (e.g. exitFullscreen() restoring bar styles)
+ * is drained in the same commit rather than deferred to the next frame.
+ *
+ * Each slot's work runs inside a Trace section named "AndroidSystemBars:<SLOT>" and feeds
+ * {@link PerformanceStats} (queue latency, UI-thread time, coalesced submissions). The
+ * managers sharing the scheduler also share its {@link FlightRecorder}.
+ *
+ * A CommitListener passed with a submission - directly, or through runAwaitingCommit()
+ * when a manager does the submitting - learns when that work has actually been committed,
+ * with its queue latency, apply duration and any exception it threw, instead of assuming
+ * the change landed when submit() returned. The listener travels with the submission, so
+ * an earlier or later commit of the same slot cannot settle it. If a later submission
+ * replaces the work, the listener reports the replacing work, which supersedes it.
+ */
+public class BarCommandScheduler implements Choreographer.FrameCallback {
+
+    private static final String TAG = "BarCommandScheduler";
+
+    /**
+     * Submissions to the same slot collapse.
+     */
+    public enum Slot {
+        SYSTEM_UI,
+        FULLSCREEN,
+        BAR_STATE,
+        WEBVIEW_PADDING,
+        INSETS_MODE,
+        INSETS_STRATEGY,
+        SCROLL_LINKED_COLOR,
+        LIFECYCLE_REAPPLY,
+        // Submitted by the other slots' work, so it runs once at the end of their commit
+        SYSTEM_UI_FLAGS;
+
+        // Precomputed so tracing a commit allocates nothing
+        final String traceName = "AndroidSystemBars:" + name();
+    }
+
+    /**
+     * Notified on the main thread once a commit has run.
+     */
+    public interface CommitListener {
+        void onCommitted(CommitResult result);
+    }
+
+    /**
+     * Outcome of the awaited submission. Timings are 0 when it never ran: the awaiting
+     * call submitted nothing, or the work was cancelled.
+     */
+    public static final class CommitResult {
+
+        // Bridge call (submission) to the start of the slot's work
+        public final long queueLatencyNanos;
+        // Main-thread time spent running the slot's work
+        public final long applyDurationNanos;
+        // End of the commit to the next frame callback; -1 unless the next frame was awaited
+        public final long frameLatencyNanos;
+        // Thrown by the slot's work, or null
+        public final RuntimeException error;
+
+        CommitResult(long queueLatencyNanos, long applyDurationNanos, long frameLatencyNanos,
+                RuntimeException error) {
+            this.queueLatencyNanos = queueLatencyNanos;
+            this.applyDurationNanos = applyDurationNanos;
+            this.frameLatencyNanos = frameLatencyNanos;
+            this.error = error;
+        }
+
+        public JSObject toJSObject() {
+            JSObject result = new JSObject();
+            result.put("queueLatencyUs", queueLatencyNanos / 1000);
+            result.put("applyDurationUs", applyDurationNanos / 1000);
+            if (frameLatencyNanos >= 0) {
+                result.put("frameLatencyUs", frameLatencyNanos / 1000);
+            }
+            return result;
+        }
+    }
+
+    private static final class CommitWaiter {
+        final boolean nextFrame;
+        final CommitListener listener;
+
+        // Set by the commit that ran the awaited work; main thread only
+        long queueNanos;
+        long applyNanos;
+        RuntimeException error;
+
+        // The awaiting call failed and reports that itself; never notified
+        volatile boolean abandoned;
+
+        CommitWaiter(boolean nextFrame, CommitListener listener) {
+            this.nextFrame = nextFrame;
+            this.listener = listener;
+        }
+    }
+
+    private static final class Submission {
+        final Runnable work;
+        // When the slot became pending (System.nanoTime), for the commit latency histogram
+        final long queuedAt;
+        // Listeners of this work and of the work it replaced; null if none
+        ArrayList<CommitWaiter> waiters;
+
+        Submission(Runnable work, long queuedAt, ArrayList<CommitWaiter> waiters) {
+            this.work = work;
+            this.queuedAt = queuedAt;
+            this.waiters = waiters;
+        }
+
+        void addWaiter(CommitWaiter waiter) {
+            if (waiters == null) {
+                waiters = new ArrayList<>(1);
+            }
+            waiters.add(waiter);
+        }
+    }
+
+    /**
+     * The listener runAwaitingCommit() hands to the calling thread's next submission to a slot.
+     */
+    private static final class Binding {
+        final Slot slot;
+        final CommitWaiter waiter;
+        boolean attached = false;
+
+        Binding(Slot slot, CommitWaiter waiter) {
+            this.slot = slot;
+            this.waiter = waiter;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Insertion-ordered so a batch commits in submission order; guarded by lock
+    private final LinkedHashMap<Slot, Submission> pending = new LinkedHashMap<>();
+    // Listeners whose work never ran, notified at the end of the next commit; guarded by lock
+    private final ArrayList<CommitWaiter> idleWaiters = new ArrayList<>();
+    private boolean frameScheduled = false;
+
+    // Listeners of the work run by the current commit; main thread only
+    private final ArrayList<CommitWaiter> committed = new ArrayList<>();
+
+    private final ThreadLocal<Binding> binding = new ThreadLocal<>();
+
+    private final PerformanceStats stats = new PerformanceStats();
+    private final FlightRecorder recorder = new FlightRecorder();
+
+    // Choreographer is per-thread; we always want the main thread's instance
+    private volatile Choreographer choreographer;
+
+    public BarCommandScheduler() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            choreographer = Choreographer.getInstance();
+        }
+    }
+
+    /**
+     * Queue work for the next frame commit. Safe to call from any thread.
+     * Replaces any work already pending for the same slot.
+     */
+    public void submit(Slot slot, Runnable work) {
+        CommitWaiter waiter = null;
+        Binding bound = binding.get();
+        if (bound != null && bound.slot == slot && !bound.attached) {
+            bound.attached = true;
+            waiter = bound.waiter;
+        }
+        enqueue(slot, work, waiter);
+    }
+
+    /**
+     * Queue work and notify the listener once this work (or work replacing it) has been
+     * committed, and with nextFrame only at the following frame, when the frame drawing
+     * the change has been produced. Safe to call from any thread.
+     */
+    public void submit(Slot slot, Runnable work, boolean nextFrame, CommitListener listener) {
+        enqueue(slot, work, new CommitWaiter(nextFrame, listener));
+    }
+
+    /**
+     * Run submitter - a manager call that submits to slot - and attach the listener to the
+     * work it submits from this thread, as submit(slot, work, nextFrame, listener) would.
+     * If submitter queues nothing for the slot, the listener reports zero timings at the
+     * end of the next commit. If submitter throws, the listener is never notified.
+     */
+    public void runAwaitingCommit(Slot slot, boolean nextFrame, CommitListener listener, Runnable submitter) {
+        Binding bound = new Binding(slot, new CommitWaiter(nextFrame, listener));
+        Binding outer = binding.get();
+        binding.set(bound);
+        try {
+            submitter.run();
+        } catch (RuntimeException e) {
+            bound.waiter.abandoned = true;
+            throw e;
+        } finally {
+            binding.set(outer);
+        }
+
+        if (!bound.attached) {
+            boolean scheduleFrame;
+            synchronized (lock) {
+                idleWaiters.add(bound.waiter);
+                scheduleFrame = !frameScheduled;
+                frameScheduled = true;
+            }
+            if (scheduleFrame) {
+                scheduleFrame();
+            }
+        }
+    }
+
+    private void enqueue(Slot slot, Runnable work, CommitWaiter waiter) {
+        boolean scheduleFrame;
+        synchronized (lock) {
+            // remove() first so the slot moves to the end of the batch (latest intent wins ordering too)
+            Submission replaced = pending.remove(slot);
+            Submission submission;
+            if (replaced != null) {
+                stats.recordCoalescedSubmission();
+                submission = new Submission(work, replaced.queuedAt, replaced.waiters);
+            } else {
+                submission = new Submission(work, System.nanoTime(), null);
+            }
+            if (waiter != null) {
+                submission.addWaiter(waiter);
+            }
+            pending.put(slot, submission);
+            scheduleFrame = !frameScheduled;
+            frameScheduled = true;
+        }
+
+        if (scheduleFrame) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Drop pending work for a slot without running it. Its listeners report zero timings
+     * at the end of the next commit.
+     */
+    public void cancel(Slot slot) {
+        synchronized (lock) {
+            Submission cancelled = pending.remove(slot);
+            if (cancelled != null && cancelled.waiters != null) {
+                // A frame is already scheduled for the cancelled work
+                idleWaiters.addAll(cancelled.waiters);
+            }
+        }
+    }
+
+    /**
+     * Commit everything pending right now instead of at the next frame.
+     * Used during plugin load so the first frame is already drawn with the configured bars.
+     * No-op off the main thread.
+     */
+    public void commitNow() {
+        if (Looper.myLooper() != Looper.getMainLooper()) return;
+
+        Choreographer c = choreographer;
+        if (c != null) {
+            c.removeFrameCallback(this);
+        }
+        flush();
+    }
+
+    private void scheduleFrame() {
+        Choreographer c = choreographer;
+        if (c != null) {
+            // postFrameCallback is thread-safe on the main thread's Choreographer
+            c.postFrameCallback(this);
+            return;
+        }
+
+        mainHandler.post(() -> {
+            choreographer = Choreographer.getInstance();
+            choreographer.postFrameCallback(this);
+        });
+    }
+
+    public PerformanceStats getStats() {
+        return stats;
+    }
+
+    public FlightRecorder getFlightRecorder() {
+        return recorder;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        flush();
+    }
+
+    /**
+     * Commit everything pending, including work submitted by the work itself.
+     * Must run on the main thread.
+     */
+    private void flush() {
+        while (true) {
+            Slot[] slots;
+            Submission[] batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    frameScheduled = false;
+                    // Listeners whose work never ran report zero timings
+                    committed.addAll(idleWaiters);
+                    idleWaiters.clear();
+                    break;
+                }
+                slots = pending.keySet().toArray(new Slot[0]);
+                batch = pending.values().toArray(new Submission[0]);
+                pending.clear();
+            }
+
+            for (int i = 0; i < batch.length; i++) {
+                Submission submission = batch[i];
+                long start = System.nanoTime();
+                long queue = start - submission.queuedAt;
+                RuntimeException error = null;
+                stats.recordCommitLatency(queue);
+                Trace.beginSection(slots[i].traceName);
+                try {
+                    submission.work.run();
+                } catch (RuntimeException e) {
+                    // One failing operation must not drop the rest of the frame's commit
+                    Log.w(TAG, "System bar operation failed", e);
+                    recorder.record(FlightRecorder.OP_COMMIT_FAILED, FlightRecorder.BAR_NONE, slots[i].ordinal());
+                    error = e;
+                } finally {
+                    Trace.endSection();
+                    long duration = System.nanoTime() - start;
+                    stats.recordUiThreadTime(slots[i], duration);
+                    if (submission.waiters != null) {
+                        for (CommitWaiter waiter : submission.waiters) {
+                            waiter.queueNanos = queue;
+                            waiter.applyNanos = duration;
+                            waiter.error = error;
+                        }
+                        committed.addAll(submission.waiters);
+                    }
+                }
+            }
+        }
+
+        if (!committed.isEmpty()) {
+            CommitWaiter[] waiters = committed.toArray(new CommitWaiter[0]);
+            committed.clear();
+            notifyCommitted(waiters);
+        }
+    }
+
+    private void notifyCommitted(CommitWaiter[] waiters) {
+        long committedAt = System.nanoTime();
+        for (CommitWaiter waiter : waiters) {
+            if (waiter.abandoned) continue;
+
+            long queue = waiter.queueNanos;
+            long apply = waiter.applyNanos;
+            RuntimeException error = waiter.error;
+            if (waiter.nextFrame) {
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos -> waiter.listener.onCommitted(
+                        new CommitResult(queue, apply, System.nanoTime() - committedAt, error)));
+            } else {
+                waiter.listener.onCommitted(new CommitResult(queue, apply, -1, error));
+            }
+        }
+    }
+}
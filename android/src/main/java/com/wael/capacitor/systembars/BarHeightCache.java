@@ -0,0 +1,56 @@
+package com.wael.capacitor.systembars;
+
+import android.content.res.Configuration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BarHeightCache - Measured bar heights per configuration, for WebViewPaddingManager.
+ *
+ * Keyed by the configuration fields that change the bar sizes - orientation, density and
+ * window size - packed into one long, so a rotation or fold switches to another entry
+ * while unrelated changes (night mode, font scale, locale) keep hitting the current one.
+ * Least recently used entries are evicted beyond MAX_CONFIGURATIONS.
+ *
+ * Main thread only.
+ */
+final class BarHeightCache {
+
+    // A device rarely sees more than a handful of configurations (2 orientations x folded/unfolded)
+    static final int MAX_CONFIGURATIONS = 8;
+
+    // Configuration key -> {statusBarHeight, navigationBarHeight} in px
+    private final Map<Long, int[]> heights = new LinkedHashMap<Long, int[]>(
+            MAX_CONFIGURATIONS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > MAX_CONFIGURATIONS;
+        }
+    };
+
+    /**
+     * Pack the configuration fields that change the bar sizes into one cache key.
+     */
+    static long key(Configuration config) {
+        return ((long) (config.orientation & 0xFF) << 48)
+                | ((long) (config.densityDpi & 0xFFFF) << 32)
+                | ((long) (config.screenWidthDp & 0xFFFF) << 16)
+                | (config.screenHeightDp & 0xFFFF);
+    }
+
+    /**
+     * {statusBarHeight, navigationBarHeight} in px, or null if the configuration has not
+     * been measured.
+     */
+    int[] get(long key) {
+        return heights.get(key);
+    }
+
+    void put(long key, int statusBarHeight, int navigationBarHeight) {
+        heights.put(key, new int[] { statusBarHeight, navigationBarHeight });
+    }
+
+    int size() {
+        return heights.size();
+    }
+}
@@ -0,0 +1,182 @@
+package com.wael.capacitor.systembars;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * BarStateStore - Persists the last committed bar styles so they survive process death
+ * and activity recreation.
+ *
+ * Only icon appearance and colors are stored (visibility and fullscreen are transient by
+ * nature). The record is 16 bytes:
+ *
+ *   [0]      format version
+ *   [1]      status bar icons   (SystemBarsState.ICONS_*)
+ *   [2]      navigation bar icons
+ *   [3]      color mask         (SystemBarsState.FIELD_STATUS_COLOR | FIELD_NAV_COLOR
+ *                                | FIELD_WINDOW_COLOR)
+ *   [4..7]   status bar color   (ARGB, big-endian)
+ *   [8..11]  navigation bar color
+ *   [12..15] window background color
+ *
+ * Records of an older format version are ignored rather than migrated.
+ *
+ * save() is called from the reconciler on the main thread and only hands the state to a
+ * background writer; a burst of changes collapses into one write of the latest state.
+ * load() reads synchronously - it runs once in the plugin's load(), before the first frame.
+ */
+public class BarStateStore {
+
+    private static final String TAG = "BarStateStore";
+
+    private static final String FILE_NAME = "android_system_bars.state";
+    // 2: window background color
+    static final byte FORMAT_VERSION = 2;
+    static final int RECORD_SIZE = 16;
+
+    // Shared by all plugin instances (activity recreation creates a new plugin)
+    private static final Executor WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AndroidSystemBars-state");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final AtomicReference<SystemBarsState> pending = new AtomicReference<>();
+
+    // Last record on disk; skips rewriting an identical state
+    private volatile byte[] lastWritten;
+
+    public BarStateStore(Context context) {
+        this.file = new File(context.getNoBackupFilesDir(), FILE_NAME);
+    }
+
+    /**
+     * Persisted styles, or null if nothing (valid) was stored.
+     */
+    public SystemBarsState load() {
+        if (!file.isFile()) return null;
+
+        byte[] record = new byte[RECORD_SIZE];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < RECORD_SIZE) {
+                int n = in.read(record, read, RECORD_SIZE - read);
+                if (n < 0) break;
+                read += n;
+            }
+            if (read != RECORD_SIZE) return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read persisted bar state", e);
+            return null;
+        }
+
+        lastWritten = record;
+        return decode(record);
+    }
+
+    /**
+     * Persist the styles of a committed state in the background.
+     */
+    public void save(SystemBarsState state) {
+        if (pending.getAndSet(state) == null) {
+            WRITER.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        SystemBarsState state = pending.getAndSet(null);
+        if (state == null) return;
+
+        byte[] record = encode(state);
+        if (Arrays.equals(record, lastWritten)) return;
+
+        // Write-then-rename so a crash mid-write never leaves a torn record
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(record);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to persist bar state", e);
+            return;
+        }
+
+        if (temp.renameTo(file)) {
+            lastWritten = record;
+        } else {
+            Log.w(TAG, "Failed to persist bar state: rename failed");
+        }
+    }
+
+    static byte[] encode(SystemBarsState state) {
+        int colorMask = (state.hasStatusColor() ? SystemBarsState.FIELD_STATUS_COLOR : 0)
+                | (state.hasNavColor() ? SystemBarsState.FIELD_NAV_COLOR : 0)
+                | (state.hasWindowColor() ? SystemBarsState.FIELD_WINDOW_COLOR : 0);
+
+        byte[] record = new byte[RECORD_SIZE];
+        record[0] = FORMAT_VERSION;
+        record[1] = (byte) state.getStatusIcons();
+        record[2] = (byte) state.getNavIcons();
+        record[3] = (byte) colorMask;
+        putInt(record, 4, state.getStatusColor());
+        putInt(record, 8, state.getNavColor());
+        putInt(record, 12, state.getWindowColor());
+        return record;
+    }
+
+    /**
+     * Decode a record into a state carrying only styles; null if the record is invalid.
+     */
+    static SystemBarsState decode(byte[] record) {
+        if (record == null || record.length != RECORD_SIZE || record[0] != FORMAT_VERSION) {
+            return null;
+        }
+
+        int statusIcons = record[1];
+        int navIcons = record[2];
+        int colorMask = record[3] & 0xFF;
+        if (!isIcons(statusIcons) || !isIcons(navIcons)) return null;
+
+        SystemBarsState state = SystemBarsState.INITIAL
+                .withStatusIcons(statusIcons)
+                .withNavIcons(navIcons);
+        if ((colorMask & SystemBarsState.FIELD_STATUS_COLOR) != 0) {
+            state = state.withStatusColor(getInt(record, 4));
+        }
+        if ((colorMask & SystemBarsState.FIELD_NAV_COLOR) != 0) {
+            state = state.withNavColor(getInt(record, 8));
+        }
+        if ((colorMask & SystemBarsState.FIELD_WINDOW_COLOR) != 0) {
+            state = state.withWindowColor(getInt(record, 12));
+        }
+        return state;
+    }
+
+    private static boolean isIcons(int icons) {
+        return icons == SystemBarsState.ICONS_UNSET
+                || icons == SystemBarsState.ICONS_DARK
+                || icons == SystemBarsState.ICONS_LIGHT;
+    }
+
+    private static void putInt(byte[] record, int offset, int value) {
+        record[offset] = (byte) (value >>> 24);
+        record[offset + 1] = (byte) (value >>> 16);
+        record[offset + 2] = (byte) (value >>> 8);
+        record[offset + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] record, int offset) {
+        return ((record[offset] & 0xFF) << 24)
+                | ((record[offset + 1] & 0xFF) << 16)
+                | ((record[offset + 2] & 0xFF) << 8)
+                | (record[offset + 3] & 0xFF);
+    }
+}
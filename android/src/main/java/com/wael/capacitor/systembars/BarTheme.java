@@ -0,0 +1,126 @@
+package com.wael.capacitor.systembars;
+
+import org.json.JSONObject;
+
+/**
+ * BarTheme - A registered bar theme, parsed once into packed ints.
+ *
+ *   { "statusBar": { "style": "DARK", "color": "#121212" },
+ *     "navigationBar": { "style": "LIGHT", "color": "#FFFFFF" },
+ *     "windowBackground": "#121212" }
+ *
+ * Every part is optional. Icons are SystemBarsState.ICONS_* (ICONS_UNSET when no style
+ * is given), colors are ARGB ints, and {@code fields} holds the SystemBarsState.FIELD_*
+ * bits of the parts the theme sets. SystemBarsManager.applyTheme() copies these straight
+ * into the desired state, so switching themes never parses anything.
+ *
+ * Immutable; safe to share across threads.
+ */
+public final class BarTheme {
+
+    private final int statusIcons;
+    private final int navIcons;
+    private final int statusColor;
+    private final int navColor;
+    private final int windowColor;
+    private final int fields;
+
+    private BarTheme(int statusIcons, int navIcons, int statusColor, int navColor, int windowColor, int fields) {
+        this.statusIcons = statusIcons;
+        this.navIcons = navIcons;
+        this.statusColor = statusColor;
+        this.navColor = navColor;
+        this.windowColor = windowColor;
+        this.fields = fields;
+    }
+
+    /**
+     * Parse a theme definition. Throws IllegalArgumentException naming the first invalid
+     * color, so a bad theme is rejected at registration instead of at switch time.
+     */
+    public static BarTheme fromJSON(JSONObject json, ColorParser parser) {
+        int fields = 0;
+
+        int statusIcons = SystemBarsState.ICONS_UNSET;
+        int statusColor = 0;
+        JSONObject statusBar = json.optJSONObject("statusBar");
+        if (statusBar != null) {
+            String style = optString(statusBar, "style");
+            if (style != null) {
+                statusIcons = SystemBarsState.iconsForStyle(style);
+                fields |= SystemBarsState.FIELD_STATUS_ICONS;
+            }
+            String color = optString(statusBar, "color");
+            if (color != null && !color.isEmpty()) {
+                statusColor = parseColor(parser, color, "statusBar.color");
+                fields |= SystemBarsState.FIELD_STATUS_COLOR;
+            }
+        }
+
+        int navIcons = SystemBarsState.ICONS_UNSET;
+        int navColor = 0;
+        JSONObject navigationBar = json.optJSONObject("navigationBar");
+        if (navigationBar != null) {
+            String style = optString(navigationBar, "style");
+            if (style != null) {
+                navIcons = SystemBarsState.iconsForStyle(style);
+                fields |= SystemBarsState.FIELD_NAV_ICONS;
+            }
+            String color = optString(navigationBar, "color");
+            if (color != null && !color.isEmpty()) {
+                navColor = parseColor(parser, color, "navigationBar.color");
+                fields |= SystemBarsState.FIELD_NAV_COLOR;
+            }
+        }
+
+        int windowColor = 0;
+        String windowBackground = optString(json, "windowBackground");
+        if (windowBackground != null && !windowBackground.isEmpty()) {
+            windowColor = parseColor(parser, windowBackground, "windowBackground");
+            fields |= SystemBarsState.FIELD_WINDOW_COLOR;
+        }
+
+        return new BarTheme(statusIcons, navIcons, statusColor, navColor, windowColor, fields);
+    }
+
+    /**
+     * The string at key, or null if it is missing, JSON null or not a string. optString()
+     * would turn an explicit null into "null".
+     */
+    static String optString(JSONObject json, String key) {
+        Object value = json.opt(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static int parseColor(ColorParser parser, String color, String name) {
+        try {
+            return parser.parse(color);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + color, e);
+        }
+    }
+
+    public int getStatusIcons() {
+        return statusIcons;
+    }
+
+    public int getNavIcons() {
+        return navIcons;
+    }
+
+    public int getStatusColor() {
+        return statusColor;
+    }
+
+    public int getNavColor() {
+        return navColor;
+    }
+
+    public int getWindowColor() {
+        return windowColor;
+    }
+
+    public int getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,68 @@
+package com.wael.capacitor.systembars;
+
+import android.animation.TimeInterpolator;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.LinearInterpolator;
+import com.getcapacitor.JSObject;
+
+/**
+ * BarTransition - Duration + easing for an animated bar color change.
+ *
+ * Parsed from the optional {@code transition: { durationMs, easing }} option of the
+ * style APIs. Easing is one of "linear", "ease-in", "ease-out", "ease-in-out" (default).
+ */
+public final class BarTransition {
+
+    private static final long MAX_DURATION_MS = 5000;
+
+    private static final TimeInterpolator LINEAR = new LinearInterpolator();
+    private static final TimeInterpolator EASE_IN = new AccelerateInterpolator();
+    private static final TimeInterpolator EASE_OUT = new DecelerateInterpolator();
+    private static final TimeInterpolator EASE_IN_OUT = new AccelerateDecelerateInterpolator();
+
+    private final long durationMs;
+    private final TimeInterpolator interpolator;
+
+    private BarTransition(long durationMs, TimeInterpolator interpolator) {
+        this.durationMs = durationMs;
+        this.interpolator = interpolator;
+    }
+
+    /**
+     * Parse a transition option. Returns null when absent or when the duration is not
+     * positive, meaning "apply immediately".
+     */
+    public static BarTransition fromJSObject(JSObject options) {
+        if (options == null) return null;
+
+        Integer durationMs = options.getInteger("durationMs");
+        if (durationMs == null || durationMs <= 0) return null;
+
+        return new BarTransition(Math.min(durationMs, MAX_DURATION_MS),
+                interpolatorFor(options.getString("easing")));
+    }
+
+    private static TimeInterpolator interpolatorFor(String easing) {
+        if (easing == null) return EASE_IN_OUT;
+        switch (easing) {
+            case "linear":
+                return LINEAR;
+            case "ease-in":
+                return EASE_IN;
+            case "ease-out":
+                return EASE_OUT;
+            default:
+                return EASE_IN_OUT;
+        }
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public TimeInterpolator getInterpolator() {
+        return interpolator;
+    }
+}
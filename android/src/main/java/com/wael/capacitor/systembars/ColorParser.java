@@ -0,0 +1,391 @@
+package com.wael.capacitor.systembars;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ColorParser - Allocation-free CSS color parsing with a small LRU of parsed results.
+ *
+ * Replaces Color.parseColor for bar colors. Style calls and every lifecycle re-apply use
+ * the same handful of theme colors, so results are cached by the raw string; a cache hit
+ * is a single map lookup. A miss is parsed in place with charAt() - no substring, no
+ * toLowerCase(), no regex - and only the cache entry itself is allocated.
+ *
+ * Accepted formats:
+ * - #RGB, #RRGGBB, #AARRGGBB (Android channel order, as with Color.parseColor)
+ * - rgb(r, g, b), rgba(r, g, b, a) - comma or space separated, numbers or percentages,
+ *   optional "/ alpha"
+ * - hsl(h, s%, l%), hsla(h, s%, l%, a) - hue in degrees, optional "deg" suffix
+ * - CSS named colors (CSS values, e.g. gray = #808080) and "transparent"
+ *
+ * Invalid input throws IllegalArgumentException, same contract as Color.parseColor.
+ */
+public final class ColorParser {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private static final String[] NAMES = {
+            "aliceblue", "antiquewhite", "aqua", "aquamarine", "azure", "beige",
+            "bisque", "black", "blanchedalmond", "blue", "blueviolet", "brown",
+            "burlywood", "cadetblue", "chartreuse", "chocolate", "coral", "cornflowerblue",
+            "cornsilk", "crimson", "cyan", "darkblue", "darkcyan", "darkgoldenrod",
+            "darkgray", "darkgreen", "darkgrey", "darkkhaki", "darkmagenta", "darkolivegreen",
+            "darkorange", "darkorchid", "darkred", "darksalmon", "darkseagreen", "darkslateblue",
+            "darkslategray", "darkslategrey", "darkturquoise", "darkviolet", "deeppink", "deepskyblue",
+            "dimgray", "dimgrey", "dodgerblue", "firebrick", "floralwhite", "forestgreen",
+            "fuchsia", "gainsboro", "ghostwhite", "gold", "goldenrod", "gray",
+            "green", "greenyellow", "grey", "honeydew", "hotpink", "indianred",
+            "indigo", "ivory", "khaki", "lavender", "lavenderblush", "lawngreen",
+            "lemonchiffon", "lightblue", "lightcoral", "lightcyan", "lightgoldenrodyellow", "lightgray",
+            "lightgreen", "lightgrey", "lightpink", "lightsalmon", "lightseagreen", "lightskyblue",
+            "lightslategray", "lightslategrey", "lightsteelblue", "lightyellow", "lime", "limegreen",
+            "linen", "magenta", "maroon", "mediumaquamarine", "mediumblue", "mediumorchid",
+            "mediumpurple", "mediumseagreen", "mediumslateblue", "mediumspringgreen", "mediumturquoise", "mediumvioletred",
+            "midnightblue", "mintcream", "mistyrose", "moccasin", "navajowhite", "navy",
+            "oldlace", "olive", "olivedrab", "orange", "orangered", "orchid",
+            "palegoldenrod", "palegreen", "paleturquoise", "palevioletred", "papayawhip", "peachpuff",
+            "peru", "pink", "plum", "powderblue", "purple", "rebeccapurple",
+            "red", "rosybrown", "royalblue", "saddlebrown", "salmon", "sandybrown",
+            "seagreen", "seashell", "sienna", "silver", "skyblue", "slateblue",
+            "slategray", "slategrey", "snow", "springgreen", "steelblue", "tan",
+            "teal", "thistle", "tomato", "turquoise", "violet", "wheat",
+            "white", "whitesmoke", "yellow", "yellowgreen",
+    };
+
+    private static final int[] VALUES = {
+            0xFFF0F8FF, 0xFFFAEBD7, 0xFF00FFFF, 0xFF7FFFD4, 0xFFF0FFFF, 0xFFF5F5DC,
+            0xFFFFE4C4, 0xFF000000, 0xFFFFEBCD, 0xFF0000FF, 0xFF8A2BE2, 0xFFA52A2A,
+            0xFFDEB887, 0xFF5F9EA0, 0xFF7FFF00, 0xFFD2691E, 0xFFFF7F50, 0xFF6495ED,
+            0xFFFFF8DC, 0xFFDC143C, 0xFF00FFFF, 0xFF00008B, 0xFF008B8B, 0xFFB8860B,
+            0xFFA9A9A9, 0xFF006400, 0xFFA9A9A9, 0xFFBDB76B, 0xFF8B008B, 0xFF556B2F,
+            0xFFFF8C00, 0xFF9932CC, 0xFF8B0000, 0xFFE9967A, 0xFF8FBC8F, 0xFF483D8B,
+            0xFF2F4F4F, 0xFF2F4F4F, 0xFF00CED1, 0xFF9400D3, 0xFFFF1493, 0xFF00BFFF,
+            0xFF696969, 0xFF696969, 0xFF1E90FF, 0xFFB22222, 0xFFFFFAF0, 0xFF228B22,
+            0xFFFF00FF, 0xFFDCDCDC, 0xFFF8F8FF, 0xFFFFD700, 0xFFDAA520, 0xFF808080,
+            0xFF008000, 0xFFADFF2F, 0xFF808080, 0xFFF0FFF0, 0xFFFF69B4, 0xFFCD5C5C,
+            0xFF4B0082, 0xFFFFFFF0, 0xFFF0E68C, 0xFFE6E6FA, 0xFFFFF0F5, 0xFF7CFC00,
+            0xFFFFFACD, 0xFFADD8E6, 0xFFF08080, 0xFFE0FFFF, 0xFFFAFAD2, 0xFFD3D3D3,
+            0xFF90EE90, 0xFFD3D3D3, 0xFFFFB6C1, 0xFFFFA07A, 0xFF20B2AA, 0xFF87CEFA,
+            0xFF778899, 0xFF778899, 0xFFB0C4DE, 0xFFFFFFE0, 0xFF00FF00, 0xFF32CD32,
+            0xFFFAF0E6, 0xFFFF00FF, 0xFF800000, 0xFF66CDAA, 0xFF0000CD, 0xFFBA55D3,
+            0xFF9370DB, 0xFF3CB371, 0xFF7B68EE, 0xFF00FA9A, 0xFF48D1CC, 0xFFC71585,
+            0xFF191970, 0xFFF5FFFA, 0xFFFFE4E1, 0xFFFFE4B5, 0xFFFFDEAD, 0xFF000080,
+            0xFFFDF5E6, 0xFF808000, 0xFF6B8E23, 0xFFFFA500, 0xFFFF4500, 0xFFDA70D6,
+            0xFFEEE8AA, 0xFF98FB98, 0xFFAFEEEE, 0xFFDB7093, 0xFFFFEFD5, 0xFFFFDAB9,
+            0xFFCD853F, 0xFFFFC0CB, 0xFFDDA0DD, 0xFFB0E0E6, 0xFF800080, 0xFF663399,
+            0xFFFF0000, 0xFFBC8F8F, 0xFF4169E1, 0xFF8B4513, 0xFFFA8072, 0xFFF4A460,
+            0xFF2E8B57, 0xFFFFF5EE, 0xFFA0522D, 0xFFC0C0C0, 0xFF87CEEB, 0xFF6A5ACD,
+            0xFF708090, 0xFF708090, 0xFFFFFAFA, 0xFF00FF7F, 0xFF4682B4, 0xFFD2B48C,
+            0xFF008080, 0xFFD8BFD8, 0xFFFF6347, 0xFF40E0D0, 0xFFEE82EE, 0xFFF5DEB3,
+            0xFFFFFFFF, 0xFFF5F5F5, 0xFFFFFF00, 0xFF9ACD32,
+    };
+
+    // Open-addressing table of (name index + 1), keyed by a case-insensitive hash
+    private static final int NAME_TABLE_MASK = 511;
+    private static final int[] NAME_TABLE = new int[NAME_TABLE_MASK + 1];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            String name = NAMES[i];
+            int slot = hashIgnoreCase(name, 0, name.length()) & NAME_TABLE_MASK;
+            while (NAME_TABLE[slot] != 0) {
+                slot = (slot + 1) & NAME_TABLE_MASK;
+            }
+            NAME_TABLE[slot] = i + 1;
+        }
+    }
+
+    private final LinkedHashMap<String, Integer> cache;
+
+    // Scratch cursor for the parse in progress; guarded by this
+    private String src;
+    private int pos;
+    private int end;
+    private boolean lastWasPercent;
+
+    public ColorParser() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColorParser(int capacity) {
+        final int maxEntries = capacity;
+        this.cache = new LinkedHashMap<String, Integer>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Parse a color string to a packed ARGB int.
+     *
+     * @throws IllegalArgumentException if the string is not a supported color
+     */
+    public synchronized int parse(String color) {
+        if (color == null) {
+            throw new IllegalArgumentException("Unknown color");
+        }
+
+        Integer cached = cache.get(color);
+        if (cached != null) {
+            return cached;
+        }
+
+        int parsed = parseUncached(color);
+        cache.put(color, parsed);
+        return parsed;
+    }
+
+    private int parseUncached(String color) {
+        src = color;
+        pos = 0;
+        end = color.length();
+        try {
+            while (pos < end && isSpace(src.charAt(pos))) pos++;
+            while (end > pos && isSpace(src.charAt(end - 1))) end--;
+            if (pos >= end) {
+                throw invalid();
+            }
+
+            if (src.charAt(pos) == '#') {
+                return parseHex(pos + 1, end);
+            }
+            if (matchFunction("rgba") || matchFunction("rgb")) {
+                return parseRgbFunction();
+            }
+            if (matchFunction("hsla") || matchFunction("hsl")) {
+                return parseHslFunction();
+            }
+            return lookupName(pos, end);
+        } finally {
+            src = null;
+        }
+    }
+
+    private int parseHex(int from, int to) {
+        int length = to - from;
+        if (length != 3 && length != 6 && length != 8) {
+            throw invalid();
+        }
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(src.charAt(i), 16);
+            if (digit < 0) {
+                throw invalid();
+            }
+            value = (value << 4) | digit;
+        }
+
+        if (length == 3) {
+            int r = (value >> 8) & 0xF;
+            int g = (value >> 4) & 0xF;
+            int b = value & 0xF;
+            return 0xFF000000 | (r * 0x11) << 16 | (g * 0x11) << 8 | (b * 0x11);
+        }
+        if (length == 6) {
+            return 0xFF000000 | value;
+        }
+        return value;
+    }
+
+    /**
+     * Consume "name(" (case-insensitive, spaces allowed before the parenthesis) and check
+     * that the string ends with ")". Leaves the cursor after "(".
+     */
+    private boolean matchFunction(String name) {
+        int length = name.length();
+        if (end - pos < length + 2 || !src.regionMatches(true, pos, name, 0, length)) {
+            return false;
+        }
+        int p = pos + length;
+        while (p < end && isSpace(src.charAt(p))) p++;
+        if (p >= end || src.charAt(p) != '(' || src.charAt(end - 1) != ')') {
+            return false;
+        }
+        pos = p + 1;
+        end = end - 1;
+        return true;
+    }
+
+    private int parseRgbFunction() {
+        int r = toChannel(readComponent());
+        skipSeparator();
+        int g = toChannel(readComponent());
+        skipSeparator();
+        int b = toChannel(readComponent());
+        int a = readOptionalAlpha();
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private int toChannel(float value) {
+        float scaled = lastWasPercent ? value * 2.55f : value;
+        return clampToByte(scaled);
+    }
+
+    private int parseHslFunction() {
+        float h = readComponent();
+        // Optional "deg" unit on the hue
+        if (end - pos >= 3 && src.regionMatches(true, pos, "deg", 0, 3)) {
+            pos += 3;
+        }
+        skipSeparator();
+        float s = clamp01(readComponent() / 100f);
+        skipSeparator();
+        float l = clamp01(readComponent() / 100f);
+        int a = readOptionalAlpha();
+
+        h = h % 360f;
+        if (h < 0) h += 360f;
+        h /= 360f;
+
+        float r;
+        float g;
+        float b;
+        if (s == 0f) {
+            r = g = b = l;
+        } else {
+            float q = l < 0.5f ? l * (1f + s) : l + s - l * s;
+            float p = 2f * l - q;
+            r = hueToRgb(p, q, h + 1f / 3f);
+            g = hueToRgb(p, q, h);
+            b = hueToRgb(p, q, h - 1f / 3f);
+        }
+        return (a << 24) | (clampToByte(r * 255f) << 16) | (clampToByte(g * 255f) << 8) | clampToByte(b * 255f);
+    }
+
+    private static float hueToRgb(float p, float q, float t) {
+        if (t < 0f) t += 1f;
+        if (t > 1f) t -= 1f;
+        if (t < 1f / 6f) return p + (q - p) * 6f * t;
+        if (t < 1f / 2f) return q;
+        if (t < 2f / 3f) return p + (q - p) * (2f / 3f - t) * 6f;
+        return p;
+    }
+
+    /**
+     * Alpha after the third component: ", a" or "/ a", number (0-1) or percentage.
+     * Missing alpha means opaque. Anything left over after it is an error.
+     */
+    private int readOptionalAlpha() {
+        skipSpaces();
+        if (pos >= end) {
+            return 0xFF;
+        }
+        skipSeparator();
+        float value = readComponent();
+        skipSpaces();
+        if (pos != end) {
+            throw invalid();
+        }
+        float alpha = lastWasPercent ? value / 100f : value;
+        return clampToByte(clamp01(alpha) * 255f);
+    }
+
+    /**
+     * Read a decimal number (optional sign and fraction) plus an optional '%'.
+     */
+    private float readComponent() {
+        skipSpaces();
+        boolean negative = false;
+        if (pos < end && (src.charAt(pos) == '-' || src.charAt(pos) == '+')) {
+            negative = src.charAt(pos) == '-';
+            pos++;
+        }
+
+        float value = 0f;
+        int digits = 0;
+        while (pos < end && isDigit(src.charAt(pos))) {
+            value = value * 10f + (src.charAt(pos) - '0');
+            pos++;
+            digits++;
+        }
+        if (pos < end && src.charAt(pos) == '.') {
+            pos++;
+            float scale = 0.1f;
+            while (pos < end && isDigit(src.charAt(pos))) {
+                value += (src.charAt(pos) - '0') * scale;
+                scale *= 0.1f;
+                pos++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            throw invalid();
+        }
+
+        lastWasPercent = pos < end && src.charAt(pos) == '%';
+        if (lastWasPercent) {
+            pos++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Skip whitespace with at most one ',' or '/' in it. Plain whitespace also separates.
+     */
+    private void skipSeparator() {
+        int start = pos;
+        skipSpaces();
+        if (pos < end && (src.charAt(pos) == ',' || src.charAt(pos) == '/')) {
+            pos++;
+            skipSpaces();
+        } else if (pos == start) {
+            throw invalid();
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < end && isSpace(src.charAt(pos))) pos++;
+    }
+
+    private int lookupName(int from, int to) {
+        int length = to - from;
+        if (length == 11 && src.regionMatches(true, from, "transparent", 0, 11)) {
+            return 0;
+        }
+
+        int slot = hashIgnoreCase(src, from, to) & NAME_TABLE_MASK;
+        int entry;
+        while ((entry = NAME_TABLE[slot]) != 0) {
+            String name = NAMES[entry - 1];
+            if (name.length() == length && src.regionMatches(true, from, name, 0, length)) {
+                return VALUES[entry - 1];
+            }
+            slot = (slot + 1) & NAME_TABLE_MASK;
+        }
+        throw invalid();
+    }
+
+    private static int hashIgnoreCase(String s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            h = 31 * h + c;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int clampToByte(float value) {
+        int rounded = Math.round(value);
+        return rounded < 0 ? 0 : (rounded > 255 ? 255 : rounded);
+    }
+
+    private static float clamp01(float value) {
+        return value < 0f ? 0f : (value > 1f ? 1f : value);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Unknown color");
+    }
+}
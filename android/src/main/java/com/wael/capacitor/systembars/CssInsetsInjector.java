@@ -0,0 +1,98 @@
+package com.wael.capacitor.systembars;
+
+import android.webkit.WebView;
+import androidx.core.graphics.Insets;
+import androidx.core.view.WindowInsetsCompat;
+
+/**
+ * CssInsetsInjector - Writes safe-area insets straight into the document as CSS
+ * custom properties on :root, without a bridge round-trip.
+ *
+ * Properties (CSS px):
+ * - --asb-inset-top / -bottom / -left / -right   system bars
+ * - --asb-cutout-top / -bottom / -left / -right  display cutout
+ * - --asb-ime-bottom                             keyboard
+ *
+ * Driven by the plugin's inset listeners; one batched evaluateJavascript() per actual
+ * change. Useful on older Chromium builds where env(safe-area-inset-*) is unreliable
+ * inside an Android WebView.
+ *
+ * Main thread only.
+ */
+public class CssInsetsInjector {
+
+    private static final int VALUE_COUNT = 9;
+
+    private static final String[] PROPERTY_NAMES = {
+            "--asb-inset-top", "--asb-inset-bottom", "--asb-inset-left", "--asb-inset-right",
+            "--asb-cutout-top", "--asb-cutout-bottom", "--asb-cutout-left", "--asb-cutout-right",
+            "--asb-ime-bottom"
+    };
+
+    private final WebView webView;
+    private final float density;
+
+    private final int[] values = new int[VALUE_COUNT];
+    private final int[] scratch = new int[VALUE_COUNT];
+    private final StringBuilder script = new StringBuilder(512);
+    private boolean injected = false;
+
+    public CssInsetsInjector(WebView webView, float density) {
+        this.webView = webView;
+        this.density = density;
+    }
+
+    /**
+     * Inject the insets from a dispatch if any value changed.
+     */
+    public void onInsets(WindowInsetsCompat windowInsets) {
+        Insets bars = windowInsets.getInsets(WindowInsetsCompat.Type.systemBars());
+        Insets cutout = windowInsets.getInsets(WindowInsetsCompat.Type.displayCutout());
+        Insets ime = windowInsets.getInsets(WindowInsetsCompat.Type.ime());
+
+        scratch[0] = toDp(bars.top);
+        scratch[1] = toDp(bars.bottom);
+        scratch[2] = toDp(bars.left);
+        scratch[3] = toDp(bars.right);
+        scratch[4] = toDp(cutout.top);
+        scratch[5] = toDp(cutout.bottom);
+        scratch[6] = toDp(cutout.left);
+        scratch[7] = toDp(cutout.right);
+        scratch[8] = toDp(ime.bottom);
+
+        boolean changed = !injected;
+        for (int i = 0; i < VALUE_COUNT && !changed; i++) {
+            changed = scratch[i] != values[i];
+        }
+        if (!changed) return;
+
+        System.arraycopy(scratch, 0, values, 0, VALUE_COUNT);
+        inject();
+    }
+
+    /**
+     * Re-write the last known values, e.g. after the page (re)loaded and lost them.
+     */
+    public void reinject() {
+        if (injected) {
+            inject();
+        }
+    }
+
+    private void inject() {
+        script.setLength(0);
+        script.append("(function(){var d=document.documentElement;if(!d)return;var s=d.style;");
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            script.append("s.setProperty('").append(PROPERTY_NAMES[i]).append("','")
+                    .append(values[i]).append("px');");
+        }
+        script.append("})();");
+
+        webView.evaluateJavascript(script.toString(), null);
+        injected = true;
+    }
+
+    private int toDp(int px) {
+        return Math.round(px / density);
+    }
+}
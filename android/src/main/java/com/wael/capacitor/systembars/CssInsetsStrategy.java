@@ -0,0 +1,21 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+
+/**
+ * CssInsetsStrategy - Leaves the WebView edge-to-edge; the page handles the insets
+ * itself with the --asb-* CSS variables or env(safe-area-inset-*).
+ */
+public class CssInsetsStrategy implements InsetsStrategy {
+
+    @Override
+    public String getName() {
+        return CSS;
+    }
+
+    @Override
+    public boolean apply(View view, int left, int top, int right, int bottom) {
+        // Nothing to do: the insets only reach the page
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.wael.capacitor.systembars;
+
+/**
+ * DebugLog - Gate for the plugin's informational Log.d output.
+ *
+ * Off by default: the messages are built by string concatenation on hot paths (bar
+ * heights, fullscreen transitions), so call sites check isEnabled() before building
+ * them. Enabled with the "debugLogging" plugin config. Warnings are always logged;
+ * the FlightRecorder keeps the event history either way.
+ */
+final class DebugLog {
+
+    private static volatile boolean enabled = false;
+
+    private DebugLog() {}
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean value) {
+        enabled = value;
+    }
+}
@@ -0,0 +1,32 @@
+package com.wael.capacitor.systembars;
+
+import android.os.Build;
+
+/**
+ * EdgeToEdgeMode - Which architecture the plugin runs on this device.
+ *
+ * Edge-to-edge (API 35+, or API 30-34 with the "unifiedEdgeToEdge" plugin config):
+ * edge-to-edge is declared once, colors come from background views behind the WebView,
+ * the base inset listener owns the WebView insets, and fullscreen only swaps that
+ * listener - no decorFitsSystemWindows toggling, no padding.
+ *
+ * Legacy (below 30, and 30-34 by default): bar colors on the window, WebView top padding
+ * from WebViewPaddingManager, fullscreen toggles decorFitsSystemWindows (30-34) or the
+ * system UI flags.
+ *
+ * Set once from the plugin's load(), before the managers are created.
+ */
+final class EdgeToEdgeMode {
+
+    private static volatile boolean unifiedFrom30 = false;
+
+    private EdgeToEdgeMode() {}
+
+    static void setUnifiedFrom30(boolean enabled) {
+        unifiedFrom30 = enabled;
+    }
+
+    static boolean isActive() {
+        return Build.VERSION.SDK_INT >= 35 || (unifiedFrom30 && Build.VERSION.SDK_INT >= 30);
+    }
+}
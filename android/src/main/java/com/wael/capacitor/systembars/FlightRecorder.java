@@ -0,0 +1,242 @@
+package com.wael.capacitor.systembars;
+
+import android.os.Process;
+import android.os.SystemClock;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FlightRecorder - Fixed-size ring buffer of the last system bar events, for diagnosing
+ * field reports ("the status bar turned black after rotating").
+ *
+ * Events are primitive records kept in preallocated parallel arrays: op code, bar, one
+ * int argument, a color, packed insets, a timestamp and the recording thread. record()
+ * claims a slot with one atomic increment and writes it seqlock-style - no lock, no
+ * allocation - so it is cheap enough to leave on in release builds. The oldest events
+ * are overwritten. dumpDiagnostics() decodes the buffer into JS objects only when asked;
+ * a record being overwritten while it is read is skipped.
+ *
+ * The slot fields are atomic arrays rather than plain ones so the seqlock is sound under
+ * the Java memory model: record() marks the slot unpublished with a volatile write before
+ * its ordered field writes, and dump() reads the fields with acquiring reads, so the
+ * re-check after them cannot be reordered before them. A reader that saw any field of a
+ * newer record therefore also sees the slot marked unpublished. (VarHandle fences would
+ * allow plain arrays, but need API 33.)
+ */
+public final class FlightRecorder {
+
+    static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    // Op codes
+    public static final int OP_STYLE_REQUEST = 1;   // arg: icons (SystemBarsState.ICONS_*) | STYLE_HAS_COLOR
+    public static final int OP_APPLY_ICONS = 2;     // arg: 1 = light icons
+    public static final int OP_APPLY_COLOR = 3;     // color
+    public static final int OP_APPLY_VISIBILITY = 4; // arg: 1 = visible
+    public static final int OP_INSETS = 5;          // insets (dp); arg: visible bars mask
+    public static final int OP_FULLSCREEN = 6;      // arg: from << 8 | to (FullscreenState ordinals)
+    public static final int OP_RESTORE = 7;         // arg: RESTORE_* trigger
+    public static final int OP_LIFECYCLE = 8;       // arg: LIFECYCLE_*
+    public static final int OP_COMMIT_FAILED = 9;   // arg: scheduler slot ordinal
+    public static final int OP_DRIFT_CORRECTED = 10; // arg: corrected fields
+
+    private static final String[] OP_NAMES = {
+            "UNKNOWN", "STYLE_REQUEST", "APPLY_ICONS", "APPLY_COLOR", "APPLY_VISIBILITY",
+            "INSETS", "FULLSCREEN", "RESTORE", "LIFECYCLE", "COMMIT_FAILED", "DRIFT_CORRECTED"
+    };
+
+    // Bars
+    public static final int BAR_NONE = 0;
+    public static final int BAR_STATUS = 1;
+    public static final int BAR_NAVIGATION = 2;
+    public static final int BAR_BOTH = 3;
+
+    private static final String[] BAR_NAMES = { "none", "status", "navigation", "both" };
+
+    // OP_STYLE_REQUEST: the request carried a color
+    public static final int STYLE_HAS_COLOR = 0x100;
+
+    // OP_RESTORE triggers
+    public static final int RESTORE_INSETS = 0;
+    public static final int RESTORE_PRE_DRAW = 1;
+    public static final int RESTORE_TIMEOUT = 2;
+
+    // OP_LIFECYCLE events
+    public static final int LIFECYCLE_RESUME = 0;
+    public static final int LIFECYCLE_CONFIGURATION_CHANGE = 1;
+
+    // Sequence of the next record; also the total number ever recorded
+    private final AtomicLong next = new AtomicLong();
+    // Sequence published in each slot; -1 while being written (or never written)
+    private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+    private final AtomicIntegerArray ops = new AtomicIntegerArray(CAPACITY);
+    private final AtomicIntegerArray bars = new AtomicIntegerArray(CAPACITY);
+    private final AtomicIntegerArray args = new AtomicIntegerArray(CAPACITY);
+    private final AtomicIntegerArray colors = new AtomicIntegerArray(CAPACITY);
+    private final AtomicLongArray insets = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray times = new AtomicLongArray(CAPACITY);
+    private final AtomicIntegerArray threads = new AtomicIntegerArray(CAPACITY);
+
+    public FlightRecorder() {
+        for (int i = 0; i < CAPACITY; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    public void record(int op, int bar, int arg) {
+        record(op, bar, arg, 0, 0);
+    }
+
+    /**
+     * Record one event. Lock-free and allocation-free; safe from any thread.
+     */
+    public void record(int op, int bar, int arg, int color, long packedInsets) {
+        long seq = next.getAndIncrement();
+        int i = (int) (seq & MASK);
+
+        // Volatile, so no field write below can become visible before it
+        published.set(i, -1);
+        ops.lazySet(i, op);
+        bars.lazySet(i, bar);
+        args.lazySet(i, arg);
+        colors.lazySet(i, color);
+        insets.lazySet(i, packedInsets);
+        times.lazySet(i, SystemClock.elapsedRealtimeNanos());
+        threads.lazySet(i, Process.myTid());
+        published.lazySet(i, seq);
+    }
+
+    /**
+     * Pack four inset values (dp, 0-65535) into one long: left, top, right, bottom.
+     */
+    public static long packInsets(int left, int top, int right, int bottom) {
+        return ((long) (left & 0xFFFF) << 48)
+                | ((long) (top & 0xFFFF) << 32)
+                | ((long) (right & 0xFFFF) << 16)
+                | (bottom & 0xFFFF);
+    }
+
+    public long getRecordedCount() {
+        return next.get();
+    }
+
+    /**
+     * Decode the buffer, oldest event first.
+     */
+    public JSObject dump() {
+        long end = next.get();
+        long start = Math.max(0, end - CAPACITY);
+        long now = SystemClock.elapsedRealtimeNanos();
+        // The main thread's tid is the process id
+        int mainTid = Process.myPid();
+
+        JSArray events = new JSArray();
+        for (long seq = start; seq < end; seq++) {
+            int i = (int) (seq & MASK);
+            if (published.get(i) != seq) continue;
+
+            // Acquiring reads: the re-check below cannot move ahead of them
+            int op = ops.get(i);
+            int bar = bars.get(i);
+            int arg = args.get(i);
+            int color = colors.get(i);
+            long packed = insets.get(i);
+            long time = times.get(i);
+            int thread = threads.get(i);
+
+            // Overwritten while reading
+            if (published.get(i) != seq) continue;
+
+            events.put(decode(seq, op, bar, arg, color, packed, now - time, thread, thread == mainTid));
+        }
+
+        JSObject result = new JSObject();
+        result.put("capacity", CAPACITY);
+        result.put("recorded", end);
+        result.put("events", events);
+        return result;
+    }
+
+    private static JSObject decode(long seq, int op, int bar, int arg, int color, long packed,
+            long ageNanos, int thread, boolean mainThread) {
+        JSObject event = new JSObject();
+        event.put("seq", seq);
+        event.put("op", op > 0 && op < OP_NAMES.length ? OP_NAMES[op] : OP_NAMES[0]);
+        event.put("bar", bar >= 0 && bar < BAR_NAMES.length ? BAR_NAMES[bar] : BAR_NAMES[0]);
+        event.put("ageMs", ageNanos / 1_000_000);
+        event.put("thread", thread);
+        event.put("mainThread", mainThread);
+
+        switch (op) {
+            case OP_STYLE_REQUEST:
+                event.put("icons", iconsName(arg & 0xFF));
+                if ((arg & STYLE_HAS_COLOR) != 0) {
+                    event.put("color", colorString(color));
+                }
+                break;
+            case OP_APPLY_ICONS:
+                event.put("icons", arg != 0 ? "light" : "dark");
+                break;
+            case OP_APPLY_COLOR:
+                event.put("color", colorString(color));
+                break;
+            case OP_APPLY_VISIBILITY:
+                event.put("visible", arg != 0);
+                break;
+            case OP_INSETS:
+                event.put("left", (int) (packed >>> 48) & 0xFFFF);
+                event.put("top", (int) (packed >>> 32) & 0xFFFF);
+                event.put("right", (int) (packed >>> 16) & 0xFFFF);
+                event.put("bottom", (int) packed & 0xFFFF);
+                event.put("statusBarVisible", (arg & 1) != 0);
+                event.put("navigationBarVisible", (arg & 2) != 0);
+                break;
+            case OP_FULLSCREEN:
+                event.put("from", stateName(arg >> 8));
+                event.put("to", stateName(arg & 0xFF));
+                break;
+            case OP_RESTORE:
+                event.put("trigger", restoreTriggerName(arg));
+                break;
+            case OP_LIFECYCLE:
+                event.put("event", arg == LIFECYCLE_RESUME ? "resume" : "configurationChange");
+                break;
+            case OP_COMMIT_FAILED:
+                BarCommandScheduler.Slot[] slots = BarCommandScheduler.Slot.values();
+                event.put("slot", arg >= 0 && arg < slots.length ? slots[arg].name() : String.valueOf(arg));
+                break;
+            case OP_DRIFT_CORRECTED:
+                event.put("corrections", arg);
+                break;
+            default:
+                event.put("arg", arg);
+                break;
+        }
+        return event;
+    }
+
+    static String restoreTriggerName(int trigger) {
+        if (trigger == RESTORE_INSETS) return "insets";
+        if (trigger == RESTORE_PRE_DRAW) return "pre-draw";
+        return "timeout";
+    }
+
+    private static String iconsName(int icons) {
+        if (icons == SystemBarsState.ICONS_LIGHT) return "light";
+        if (icons == SystemBarsState.ICONS_DARK) return "dark";
+        return "default";
+    }
+
+    private static String stateName(int ordinal) {
+        FullscreenState[] states = FullscreenState.values();
+        return ordinal >= 0 && ordinal < states.length ? states[ordinal].name() : String.valueOf(ordinal);
+    }
+
+    private static String colorString(int color) {
+        return String.format("#%08X", color);
+    }
+}
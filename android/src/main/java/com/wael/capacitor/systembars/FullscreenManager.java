@@ -2,9 +2,9 @@ package com.wael.capacitor.systembars;
 
 import android.app.Activity;
 import android.os.Build;
+import android.os.Trace;
 import android.util.Log;
 import android.view.View;
-import android.view.ViewGroup.MarginLayoutParams;
 import android.view.Window;
 import android.webkit.WebView;
 import androidx.core.graphics.Insets;
@@ -16,123 +16,270 @@ import androidx.core.view.WindowInsetsControllerCompat;
 /**
  * FullscreenManager — immersive fullscreen across all Android versions.
  *
- * On API 35+ the plugin owns window insets (the app sets SystemBars.insetsHandling='disable',
- * so Capacitor attaches no listener). installBaseInsetsListener() applies systemBars +
- * displayCutout as WebView margins; entering fullscreen swaps in a zero-margin listener and
- * exiting restores the base listener.
+ * In edge-to-edge mode (API 35+, or 30-34 with unifiedEdgeToEdge - see EdgeToEdgeMode) the
+ * plugin owns window insets (the app sets SystemBars.insetsHandling='disable', so Capacitor
+ * attaches no listener). installBaseInsetsListener() applies systemBars + displayCutout
+ * through the active InsetsStrategy (WebView margins by default); entering fullscreen
+ * swaps in a zero-inset listener and exiting restores the base listener. With keyboard
+ * animation enabled, the base listener also keeps the WebView above the IME and an
+ * ImeInsetsAnimator slides it with the keyboard.
+ *
+ * Enter/exit/force-exit drive a FullscreenState machine. A request only sets the target
+ * state; one transition on the FULLSCREEN scheduler slot commits the latest target, so a
+ * toggle burst runs a single transition, and a burst that ends where the window already
+ * is runs none. IMMERSIVE <-> LEAN only changes the bar behavior. Exits restore the bar
+ * styles once, when the first insets dispatch or pre-draw shows the bars again (see
+ * FullscreenRestore); a new enter cancels that pending restore.
  */
 public class FullscreenManager {
 
     private static final String TAG = "FullscreenManager";
 
+    private static final String TRACE_BASE_INSETS = "AndroidSystemBars:baseInsets";
+    private static final String TRACE_FULLSCREEN_INSETS = "AndroidSystemBars:fullscreenInsets";
+
     private final Activity activity;
     private final SystemBarsManager systemBarsManager;
     private final WebViewPaddingManager paddingManager;
+    private final BarCommandScheduler scheduler;
     private final Window window;
     private WebView webView;
-
-    private volatile boolean isFullscreenActive = false;
-    private volatile String currentFullscreenMode = "IMMERSIVE";
+    private ImeInsetsAnimator imeAnimator;
+    private volatile InsetsStrategy insetsStrategy = new MarginInsetsStrategy();
+
+    // Bar styles waiting for the bars to be visible after an exit (main thread)
+    private FullscreenRestore pendingRestore;
+
+    // State machine; all guarded by transitionLock
+    private final Object transitionLock = new Object();
+    // Reported state, including ENTERING/EXITING
+    private FullscreenState state = FullscreenState.NORMAL;
+    // What the window has, or is being given by the running transition
+    private FullscreenState applied = FullscreenState.NORMAL;
+    // Latest requested NORMAL/IMMERSIVE/LEAN; a burst of requests only moves this
+    private FullscreenState target = FullscreenState.NORMAL;
+    private RestoreStyles targetRestore = null;
+    private boolean forceTransition = false;
+    // An exit is waiting for the bars to be visible to restore styles (EXITING)
+    private boolean restorePending = false;
 
     public FullscreenManager(
             Activity activity,
             SystemBarsManager systemBarsManager,
-            WebViewPaddingManager paddingManager) {
+            WebViewPaddingManager paddingManager,
+            BarCommandScheduler scheduler) {
         this.activity = activity;
         this.systemBarsManager = systemBarsManager;
         this.paddingManager = paddingManager;
+        this.scheduler = scheduler;
         this.window = activity.getWindow();
     }
 
     /**
-     * Set WebView reference for Android 35+ margin management
+     * Set WebView reference for edge-to-edge margin management
      */
     public void setWebView(WebView webView) {
         this.webView = webView;
     }
 
+    /**
+     * Keep the WebView above the keyboard and animate it in step with the IME
+     * (edge-to-edge mode, where the base inset listener owns the WebView margins).
+     * Disabled by default: the keyboard overlays the WebView. Only effective with the
+     * "margins" insets strategy.
+     */
+    public void setImeAnimationEnabled(boolean enabled) {
+        if (!EdgeToEdgeMode.isActive()) return;
+
+        scheduler.submit(BarCommandScheduler.Slot.INSETS_MODE, () -> {
+            if (webView == null || enabled == (imeAnimator != null)) return;
+
+            if (enabled) {
+                imeAnimator = new ImeInsetsAnimator(webView, scheduler.getStats());
+                updateImeSuspension(isFullscreenApplied());
+                ViewCompat.setWindowInsetsAnimationCallback(webView, imeAnimator);
+            } else {
+                imeAnimator.setSuspended(true);
+                imeAnimator = null;
+                ViewCompat.setWindowInsetsAnimationCallback(webView, null);
+            }
+
+            // Re-dispatch so the bottom margin picks up (or drops) the keyboard inset
+            ViewCompat.requestApplyInsets(webView);
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "IME animation " + (enabled ? "enabled" : "disabled"));
+            }
+        });
+    }
+
     /**
      * Enter fullscreen mode
      *
      * @param mode "IMMERSIVE" or "LEAN"
      */
     public void enterFullscreen(String mode) {
-        activity.runOnUiThread(() -> {
-            isFullscreenActive = true;
-            currentFullscreenMode = mode;
+        requestTransition(FullscreenState.forMode(mode), null, false);
+    }
+
+    /**
+     * Point the state machine at a new target and schedule one transition for it.
+     * Requests arriving before the transition commits only retarget it; a burst that
+     * ends where the window already is cancels it. Safe to call from any thread.
+     */
+    private void requestTransition(FullscreenState to, RestoreStyles restore, boolean force) {
+        synchronized (transitionLock) {
+            target = to;
+            targetRestore = restore;
+            forceTransition |= force;
+
+            if (to == applied && !forceTransition) {
+                // enter/exit storm that returned to the current state: nothing to do
+                scheduler.cancel(BarCommandScheduler.Slot.FULLSCREEN);
+                if (state == FullscreenState.ENTERING || state == FullscreenState.EXITING) {
+                    state = restingState();
+                }
+                if (to != FullscreenState.NORMAL || restore == null) return;
+                // Exit while not fullscreen: only the styles need restoring
+            } else {
+                state = to == FullscreenState.NORMAL ? FullscreenState.EXITING : FullscreenState.ENTERING;
+            }
+        }
+        scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, this::runTransition);
+    }
+
+    /**
+     * Commit the latest target (main thread, FULLSCREEN slot).
+     */
+    private void runTransition() {
+        FullscreenState from;
+        FullscreenState to;
+        RestoreStyles restore;
+        boolean force;
+        synchronized (transitionLock) {
+            from = applied;
+            to = target;
+            restore = targetRestore;
+            force = forceTransition;
+            forceTransition = false;
+            applied = to;
+        }
+
+        scheduler.getFlightRecorder().record(FlightRecorder.OP_FULLSCREEN, FlightRecorder.BAR_BOTH,
+                from.ordinal() << 8 | to.ordinal());
+
+        if (to == FullscreenState.NORMAL) {
+            if (from != FullscreenState.NORMAL || force) {
+                applyExit(restore);
+            } else if (restore != null) {
+                if (pendingRestore != null) {
+                    // Still exiting: the newer styles replace the ones waiting for the bars
+                    restoreWhenBarsVisible(window.getDecorView(), () -> applyRestoreStyles(restore));
+                } else {
+                    applyRestoreStyles(restore);
+                }
+            }
+        } else {
+            // IMMERSIVE <-> LEAN only changes how the bars come back; no listener or inset swap
+            applyEnter(to, from.isFullscreen() && !force);
+        }
+
+        synchronized (transitionLock) {
+            if (applied == to && (state == FullscreenState.ENTERING || state == FullscreenState.EXITING)) {
+                state = restingState();
+            }
+        }
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Fullscreen transition " + from + " -> " + to);
+        }
+    }
+
+    /**
+     * State to report once no transition is pending; caller holds transitionLock.
+     */
+    private FullscreenState restingState() {
+        if (applied == FullscreenState.NORMAL && restorePending) {
+            return FullscreenState.EXITING;
+        }
+        return applied;
+    }
+
+    private boolean isFullscreenApplied() {
+        synchronized (transitionLock) {
+            return applied != FullscreenState.NORMAL;
+        }
+    }
+
+    private void applyEnter(FullscreenState mode, boolean modeOnly) {
+        cancelPendingRestore();
+        boolean immersive = mode == FullscreenState.IMMERSIVE;
 
-            // Update visibility tracking
-            systemBarsManager.setBarVisibility(false, false);
+        // Update visibility tracking
+        systemBarsManager.setBarVisibility(false, false);
+        systemBarsManager.setFullscreenMode(
+                immersive ? SystemBarsState.FULLSCREEN_IMMERSIVE : SystemBarsState.FULLSCREEN_LEAN);
 
-            View decorView = window.getDecorView();
+        View decorView = window.getDecorView();
 
-            if (Build.VERSION.SDK_INT >= 30) {
-                WindowInsetsControllerCompat controller = WindowCompat.getInsetsController(window,
-                        decorView);
+        if (Build.VERSION.SDK_INT >= 30) {
+            WindowInsetsControllerCompat controller = WindowCompat.getInsetsController(window,
+                    decorView);
 
-                if (Build.VERSION.SDK_INT >= 35 && webView != null) {
-                    installFullscreenInsetsListener();
-                } else if (Build.VERSION.SDK_INT < 35) {
+            if (!modeOnly) {
+                if (EdgeToEdgeMode.isActive()) {
+                    // Already edge-to-edge: swap the listener, never toggle decorFitsSystemWindows
+                    if (webView != null) {
+                        installFullscreenInsetsListener();
+                    }
+                } else {
                     WindowCompat.setDecorFitsSystemWindows(window, false);
                     paddingManager.removePadding();
                 }
 
                 controller.hide(WindowInsetsCompat.Type.systemBars());
+            }
 
-                if (mode.equals("IMMERSIVE")) {
-                    controller.setSystemBarsBehavior(
-                            WindowInsetsControllerCompat.BEHAVIOR_SHOW_TRANSIENT_BARS_BY_SWIPE);
-                } else {
-                    controller.setSystemBarsBehavior(
-                            WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
-                }
+            if (immersive) {
+                controller.setSystemBarsBehavior(
+                        WindowInsetsControllerCompat.BEHAVIOR_SHOW_TRANSIENT_BARS_BY_SWIPE);
+            } else {
+                controller.setSystemBarsBehavior(
+                        WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
+            }
 
+            if (DebugLog.isEnabled()) {
                 Log.d(TAG, "Entered fullscreen (modern): mode=" + mode);
-            } else {
-                // Legacy: remove padding + set system UI flags
+            }
+        } else {
+            // Legacy: remove padding + set system UI flags
+            if (!modeOnly) {
                 paddingManager.removePadding();
+            }
 
-                int flags = View.SYSTEM_UI_FLAG_LAYOUT_STABLE
-                        | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION
-                        | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
-                        | View.SYSTEM_UI_FLAG_HIDE_NAVIGATION
-                        | View.SYSTEM_UI_FLAG_FULLSCREEN;
-
-                if (mode.equals("IMMERSIVE")) {
-                    flags |= View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY;
-                } else {
-                    flags |= View.SYSTEM_UI_FLAG_IMMERSIVE;
-                }
-
-                decorView.setSystemUiVisibility(flags);
+            // Hide + layout + immersive flags are composed from the recorded fullscreen mode
+            systemBarsManager.requestSystemUiFlags(SystemBarsState.FIELD_FULLSCREEN);
+            if (DebugLog.isEnabled()) {
                 Log.d(TAG, "Entered fullscreen (legacy): mode=" + mode);
             }
-        });
+        }
     }
 
     /**
-     * Zero-margin listener used during fullscreen; overrides the base listener.
+     * Zero-inset listener used during fullscreen; overrides the base listener.
      */
     private void installFullscreenInsetsListener() {
         if (webView == null) return;
 
-        if (webView.getLayoutParams() instanceof MarginLayoutParams) {
-            MarginLayoutParams mlp = (MarginLayoutParams) webView.getLayoutParams();
-            if (mlp.leftMargin != 0 || mlp.topMargin != 0
-                    || mlp.rightMargin != 0 || mlp.bottomMargin != 0) {
-                mlp.setMargins(0, 0, 0, 0);
-                webView.setLayoutParams(mlp);
-            }
+        updateImeSuspension(true);
+        if (insetsStrategy.apply(webView, 0, 0, 0, 0)) {
+            scheduler.getStats().recordLayoutPass();
         }
 
         ViewCompat.setOnApplyWindowInsetsListener(webView, (v, windowInsets) -> {
-            if (v.getLayoutParams() instanceof MarginLayoutParams) {
-                MarginLayoutParams mlp = (MarginLayoutParams) v.getLayoutParams();
-                if (mlp.leftMargin != 0 || mlp.topMargin != 0
-                        || mlp.rightMargin != 0 || mlp.bottomMargin != 0) {
-                    mlp.setMargins(0, 0, 0, 0);
-                    v.setLayoutParams(mlp);
-                }
+            Trace.beginSection(TRACE_FULLSCREEN_INSETS);
+            try {
+                scheduler.getStats().recordInsetsDispatch(insetsStrategy.apply(v, 0, 0, 0, 0));
+            } finally {
+                Trace.endSection();
             }
             return WindowInsetsCompat.CONSUMED;
         });
@@ -141,22 +288,29 @@ public class FullscreenManager {
     }
 
     /**
-     * Base inset listener: applies systemBars + displayCutout as WebView margins.
-     * On API 35+ the plugin owns this because the app sets SystemBars.insetsHandling='disable'.
+     * Base inset listener: applies systemBars + displayCutout through the active
+     * InsetsStrategy (WebView margins by default).
+     * In edge-to-edge mode the plugin owns this because the app sets
+     * SystemBars.insetsHandling='disable'.
      */
     public void installBaseInsetsListener() {
         if (webView == null) return;
 
+        updateImeSuspension(false);
+
         ViewCompat.setOnApplyWindowInsetsListener(webView, (v, windowInsets) -> {
-            Insets insets = windowInsets.getInsets(
-                    WindowInsetsCompat.Type.systemBars() | WindowInsetsCompat.Type.displayCutout());
-            if (v.getLayoutParams() instanceof MarginLayoutParams) {
-                MarginLayoutParams mlp = (MarginLayoutParams) v.getLayoutParams();
-                mlp.leftMargin = insets.left;
-                mlp.bottomMargin = insets.bottom;
-                mlp.rightMargin = insets.right;
-                mlp.topMargin = insets.top;
-                v.setLayoutParams(mlp);
+            Trace.beginSection(TRACE_BASE_INSETS);
+            try {
+                boolean layout = applyBaseInsets(v, windowInsets);
+                scheduler.getStats().recordInsetsDispatch(layout);
+                systemBarsManager.onInsetsDispatched(windowInsets);
+
+                FullscreenRestore restore = pendingRestore;
+                if (restore != null) {
+                    restore.onInsetsDispatched(windowInsets);
+                }
+            } finally {
+                Trace.endSection();
             }
             return WindowInsetsCompat.CONSUMED;
         });
@@ -164,6 +318,59 @@ public class FullscreenManager {
         ViewCompat.requestApplyInsets(webView);
     }
 
+    /**
+     * Keep the WebView clear of the bars (and the keyboard, if animated) through the active
+     * strategy. Returns true if this requested a layout pass.
+     */
+    private boolean applyBaseInsets(View v, WindowInsetsCompat windowInsets) {
+        Insets insets = windowInsets.getInsets(
+                WindowInsetsCompat.Type.systemBars() | WindowInsetsCompat.Type.displayCutout());
+        int bottom = insets.bottom;
+        ImeInsetsAnimator ime = imeAnimator;
+        if (ime != null && !ime.isSuspended()) {
+            bottom = ime.resolveBottomMargin(ImeInsetsAnimator.bottomInsetOf(windowInsets));
+        }
+        return insetsStrategy.apply(v, insets.left, insets.top, insets.right, bottom);
+    }
+
+    /**
+     * Switch how insets are applied to the WebView (edge-to-edge mode):
+     * "margins" (default), "padding", "translation" or "css".
+     */
+    public void setInsetsStrategy(String name) {
+        if (!EdgeToEdgeMode.isActive()) return;
+
+        InsetsStrategy strategy = InsetsStrategy.forName(name);
+        scheduler.submit(BarCommandScheduler.Slot.INSETS_STRATEGY, () -> {
+            if (webView == null || strategy.getName().equals(insetsStrategy.getName())) return;
+
+            if (insetsStrategy.clear(webView)) {
+                scheduler.getStats().recordLayoutPass();
+            }
+            insetsStrategy = strategy;
+            updateImeSuspension(isFullscreenApplied());
+
+            // Re-dispatch so the new strategy applies the current insets
+            ViewCompat.requestApplyInsets(webView);
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "Insets strategy: " + strategy.getName());
+            }
+        });
+    }
+
+    public String getInsetsStrategyName() {
+        return insetsStrategy.getName();
+    }
+
+    /**
+     * The keyboard animation drives margins; it idles in fullscreen and with other strategies.
+     */
+    private void updateImeSuspension(boolean fullscreen) {
+        if (imeAnimator != null) {
+            imeAnimator.setSuspended(fullscreen || !(insetsStrategy instanceof MarginInsetsStrategy));
+        }
+    }
+
     /**
      * Exit fullscreen and restore normal state (applies same style to both bars)
      */
@@ -176,75 +383,103 @@ public class FullscreenManager {
      * individual styles.
      */
     public void exitFullscreen(String statusStyle, String statusColor, String navStyle, String navColor) {
-        activity.runOnUiThread(() -> {
-            View decorView = window.getDecorView();
+        RestoreStyles restore = statusStyle != null || statusColor != null || navStyle != null || navColor != null
+                ? new RestoreStyles(statusStyle, statusColor, navStyle, navColor)
+                : null;
+        requestTransition(FullscreenState.NORMAL, restore, false);
+    }
 
-            if (Build.VERSION.SDK_INT >= 30) {
-                WindowInsetsControllerCompat controller = WindowCompat.getInsetsController(window,
-                        decorView);
+    /**
+     * Show the bars and hand the WebView its insets back. The styles are restored once the
+     * bars are visible again, and only then does the state leave EXITING.
+     */
+    private void applyExit(RestoreStyles restore) {
+        View decorView = window.getDecorView();
 
-                controller.show(WindowInsetsCompat.Type.systemBars());
-                controller.setSystemBarsBehavior(
-                        WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
+        if (Build.VERSION.SDK_INT >= 30) {
+            WindowInsetsControllerCompat controller = WindowCompat.getInsetsController(window,
+                    decorView);
 
-                if (Build.VERSION.SDK_INT >= 35 && webView != null) {
+            controller.show(WindowInsetsCompat.Type.systemBars());
+            controller.setSystemBarsBehavior(
+                    WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
+
+            if (EdgeToEdgeMode.isActive()) {
+                if (webView != null) {
                     installBaseInsetsListener();
-                    systemBarsManager.reapplySystemUI();
-                } else {
-                    WindowCompat.setDecorFitsSystemWindows(window, true);
-                    decorView.post(() -> paddingManager.applyPadding());
+                    // Styles are written once, by the restore below
+                    systemBarsManager.reapplyBaseSystemUI();
                 }
-
             } else {
-                int flags = decorView.getSystemUiVisibility();
-
-                flags &= ~(View.SYSTEM_UI_FLAG_HIDE_NAVIGATION
-                        | View.SYSTEM_UI_FLAG_FULLSCREEN
-                        | View.SYSTEM_UI_FLAG_IMMERSIVE
-                        | View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY
-                        | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
-                        | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION);
-
-                flags |= View.SYSTEM_UI_FLAG_LAYOUT_STABLE;
-                decorView.setSystemUiVisibility(flags);
-                decorView.post(() -> paddingManager.applyPadding());
+                WindowCompat.setDecorFitsSystemWindows(window, true);
+                paddingManager.applyPadding();
             }
 
-            isFullscreenActive = false;
+        } else {
+            // Cleared with the recorded mode and visibility below, in the commit's one flag write
+            systemBarsManager.requestSystemUiFlags(SystemBarsState.FIELD_FULLSCREEN);
+            paddingManager.applyPadding();
+        }
 
-            // Update visibility tracking
-            systemBarsManager.setBarVisibility(true, true);
+        // Update visibility tracking
+        systemBarsManager.setBarVisibility(true, true);
+        systemBarsManager.setFullscreenMode(SystemBarsState.FULLSCREEN_OFF);
 
-            if (statusStyle != null || statusColor != null) {
-                systemBarsManager.setStatusBarStyle(
-                        statusStyle != null ? statusStyle : "DEFAULT",
-                        statusColor);
-            }
-            if (navStyle != null || navColor != null) {
-                systemBarsManager.setNavigationBarStyle(
-                        navStyle != null ? navStyle : "DEFAULT",
-                        navColor);
-            }
+        if (restore != null) {
+            restoreWhenBarsVisible(decorView, () -> applyRestoreStyles(restore));
+        } else {
+            cancelPendingRestore();
+        }
 
-            // Restore bar styles with a slight delay for UI to settle.
-            // Guard: skip if fullscreen was re-entered during the delay.
-            decorView.postDelayed(() -> {
-                if (isFullscreenActive) return; // Rapid re-enter guard
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Exited fullscreen");
+        }
+    }
 
-                if (statusStyle != null || statusColor != null) {
-                    systemBarsManager.setStatusBarStyle(
-                            statusStyle != null ? statusStyle : "DEFAULT",
-                            statusColor);
-                }
-                if (navStyle != null || navColor != null) {
-                    systemBarsManager.setNavigationBarStyle(
-                            navStyle != null ? navStyle : "DEFAULT",
-                            navColor);
-                }
-            }, 50);
+    private void applyRestoreStyles(RestoreStyles restore) {
+        if (restore.statusStyle != null || restore.statusColor != null) {
+            systemBarsManager.setStatusBarStyle(
+                    restore.statusStyle != null ? restore.statusStyle : "DEFAULT",
+                    restore.statusColor);
+        }
+        if (restore.navStyle != null || restore.navColor != null) {
+            systemBarsManager.setNavigationBarStyle(
+                    restore.navStyle != null ? restore.navStyle : "DEFAULT",
+                    restore.navColor);
+        }
+    }
 
-            Log.d(TAG, "Exited fullscreen");
+    /**
+     * Run the style restore once the bars are visible again, replacing any pending one.
+     * Committed immediately, so the restored styles are in the frame that shows the bars.
+     */
+    private void restoreWhenBarsVisible(View decorView, Runnable restore) {
+        cancelPendingRestore();
+        pendingRestore = new FullscreenRestore(decorView, scheduler.getFlightRecorder(), () -> {
+            pendingRestore = null;
+            setRestorePending(false);
+            restore.run();
+            scheduler.commitNow();
         });
+        setRestorePending(true);
+        pendingRestore.start();
+    }
+
+    private void cancelPendingRestore() {
+        if (pendingRestore != null) {
+            pendingRestore.cancel();
+            pendingRestore = null;
+            setRestorePending(false);
+        }
+    }
+
+    private void setRestorePending(boolean pending) {
+        synchronized (transitionLock) {
+            restorePending = pending;
+            if (state == FullscreenState.EXITING && !pending) {
+                state = restingState();
+            }
+        }
     }
 
     /**
@@ -254,100 +489,85 @@ public class FullscreenManager {
         exitFullscreen("DEFAULT", null, "DEFAULT", null);
     }
 
+    /**
+     * Current state, including ENTERING/EXITING while a transition is pending.
+     */
+    public FullscreenState getState() {
+        synchronized (transitionLock) {
+            return state;
+        }
+    }
+
+    /**
+     * Whether fullscreen is on or about to be (ENTERING, IMMERSIVE, LEAN).
+     */
     public boolean isFullscreenActive() {
-        return isFullscreenActive;
+        return getState().isFullscreen();
     }
 
     public String getCurrentFullscreenMode() {
-        return currentFullscreenMode;
+        synchronized (transitionLock) {
+            return target == FullscreenState.LEAN ? "LEAN" : "IMMERSIVE";
+        }
     }
 
     /**
-     * Force exit fullscreen mode (emergency fallback)
+     * Force exit fullscreen mode (emergency fallback): runs the full exit even if the
+     * state machine believes fullscreen is already off.
      */
     public void forceExit() {
-        activity.runOnUiThread(() -> {
-            View decorView = window.getDecorView();
+        requestTransition(FullscreenState.NORMAL, RestoreStyles.SYSTEM_DEFAULT, true);
+    }
 
-            if (Build.VERSION.SDK_INT >= 30) {
-                WindowInsetsControllerCompat controller = WindowCompat.getInsetsController(window,
-                        decorView);
-                controller.show(WindowInsetsCompat.Type.systemBars());
-                controller.setSystemBarsBehavior(
-                        WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
-            } else {
-                decorView.setSystemUiVisibility(View.SYSTEM_UI_FLAG_LAYOUT_STABLE);
-            }
+    /**
+     * Lifecycle pass (main thread): re-apply fullscreen only if the bars came back while
+     * it is applied. Returns true if it had drifted.
+     */
+    boolean correctFullscreenDrift() {
+        if (!isFullscreenApplied()) return false;
+
+        View decorView = window.getDecorView();
+        boolean barsShown;
+        if (Build.VERSION.SDK_INT >= 30) {
+            WindowInsetsCompat insets = ViewCompat.getRootWindowInsets(decorView);
+            barsShown = insets != null && insets.isVisible(WindowInsetsCompat.Type.statusBars());
+        } else {
+            barsShown = (decorView.getSystemUiVisibility() & View.SYSTEM_UI_FLAG_FULLSCREEN) == 0;
+        }
+        if (!barsShown) return false;
 
-            if (Build.VERSION.SDK_INT >= 35 && webView != null) {
-                installBaseInsetsListener();
-                systemBarsManager.reapplySystemUI();
-            } else {
-                if (Build.VERSION.SDK_INT >= 30) {
-                    WindowCompat.setDecorFitsSystemWindows(window, true);
-                }
-                paddingManager.applyPadding();
-            }
+        reapplyFullscreenIfActive();
+        return true;
+    }
 
-            isFullscreenActive = false;
-            currentFullscreenMode = "IMMERSIVE";
+    /**
+     * Lifecycle pass (edge-to-edge mode, main thread): run the active strategy on the current
+     * insets. Strategies compare against the view, so only drifted WebView margins (or
+     * padding/translation) change. Returns true if they had drifted.
+     */
+    boolean correctWebViewInsets() {
+        if (webView == null || isFullscreenApplied()) return false;
 
-            decorView.postDelayed(() -> {
-                systemBarsManager.setStatusBarStyle("DEFAULT", null);
-                systemBarsManager.setNavigationBarStyle("DEFAULT", null);
-            }, 100);
+        WindowInsetsCompat insets = ViewCompat.getRootWindowInsets(webView);
+        if (insets == null) return false;
 
-            Log.d(TAG, "Force exited fullscreen");
-        });
+        boolean layout = applyBaseInsets(webView, insets);
+        if (layout) {
+            scheduler.getStats().recordLayoutPass();
+        }
+        return layout;
     }
 
     /**
      * Re-apply fullscreen mode after resume/screen unlock.
      */
     public void reapplyFullscreenIfActive() {
-        if (isFullscreenActive) {
-            activity.runOnUiThread(() -> {
-                View decorView = window.getDecorView();
-
-                if (Build.VERSION.SDK_INT >= 30) {
-                    WindowInsetsControllerCompat controller = WindowCompat.getInsetsController(window,
-                            decorView);
-
-                    if (Build.VERSION.SDK_INT >= 35 && webView != null) {
-                        installFullscreenInsetsListener();
-                    } else if (Build.VERSION.SDK_INT < 35) {
-                        WindowCompat.setDecorFitsSystemWindows(window, false);
-                        paddingManager.removePadding();
-                    }
-
-                    controller.hide(WindowInsetsCompat.Type.systemBars());
-
-                    if (currentFullscreenMode.equals("IMMERSIVE")) {
-                        controller.setSystemBarsBehavior(
-                                WindowInsetsControllerCompat.BEHAVIOR_SHOW_TRANSIENT_BARS_BY_SWIPE);
-                    } else {
-                        controller.setSystemBarsBehavior(
-                                WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
-                    }
-                } else {
-                    int flags = View.SYSTEM_UI_FLAG_LAYOUT_STABLE
-                            | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION
-                            | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
-                            | View.SYSTEM_UI_FLAG_HIDE_NAVIGATION
-                            | View.SYSTEM_UI_FLAG_FULLSCREEN;
-
-                    if (currentFullscreenMode.equals("IMMERSIVE")) {
-                        flags |= View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY;
-                    } else {
-                        flags |= View.SYSTEM_UI_FLAG_IMMERSIVE;
-                    }
-
-                    decorView.setSystemUiVisibility(flags);
-                    paddingManager.removePadding();
-                }
-
-                Log.d(TAG, "Re-applied fullscreen after resume");
-            });
+        FullscreenState current;
+        synchronized (transitionLock) {
+            current = target;
+        }
+        if (current.isFullscreen()) {
+            requestTransition(current, null, true);
         }
     }
 }
@@ -0,0 +1,108 @@
+package com.wael.capacitor.systembars;
+
+import android.os.Build;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+
+/**
+ * FullscreenRestore - Applies the bar styles restored by exitFullscreen()/forceExit()
+ * once the bars are actually back on screen.
+ *
+ * Completes on the first insets dispatch or pre-draw that shows the status bar visible.
+ * Below API 30 there is no per-type visibility, so the first pre-draw completes it: that
+ * traversal is the one applying the cleared system UI flags. If the window never reports
+ * either (detached, not drawing), it completes after TIMEOUT_MS.
+ *
+ * The restore runs exactly once. Re-entering fullscreen or starting another restore
+ * cancels a pending one. Main thread only.
+ */
+final class FullscreenRestore implements ViewTreeObserver.OnPreDrawListener {
+
+    private static final String TAG = "FullscreenRestore";
+    private static final String TRACE_RESTORE = "AndroidSystemBars:fullscreenRestore";
+
+    // Fallback only; a visible-bars dispatch normally arrives within a frame or two
+    static final long TIMEOUT_MS = 300;
+
+    // Pairs the begin/end of each restore's async trace section
+    private static int nextTraceCookie = 0;
+
+    private final View decorView;
+    private final FlightRecorder recorder;
+    private final Runnable restore;
+    private final int traceCookie = ++nextTraceCookie;
+    private final Runnable timeout = () -> complete(FlightRecorder.RESTORE_TIMEOUT);
+
+    private boolean finished = false;
+
+    FullscreenRestore(View decorView, FlightRecorder recorder, Runnable restore) {
+        this.decorView = decorView;
+        this.recorder = recorder;
+        this.restore = restore;
+    }
+
+    void start() {
+        PerformanceStats.beginAsyncTrace(TRACE_RESTORE, traceCookie);
+
+        ViewTreeObserver observer = decorView.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.addOnPreDrawListener(this);
+        }
+        decorView.postDelayed(timeout, TIMEOUT_MS);
+    }
+
+    /**
+     * Insets being dispatched by one of the plugin's listeners.
+     */
+    void onInsetsDispatched(WindowInsetsCompat insets) {
+        if (barsVisible(insets)) {
+            complete(FlightRecorder.RESTORE_INSETS);
+        }
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        if (barsVisible(ViewCompat.getRootWindowInsets(decorView))) {
+            complete(FlightRecorder.RESTORE_PRE_DRAW);
+        }
+        return true;
+    }
+
+    /**
+     * Drop the restore without applying it.
+     */
+    void cancel() {
+        finish();
+    }
+
+    private static boolean barsVisible(WindowInsetsCompat insets) {
+        if (Build.VERSION.SDK_INT < 30) return true;
+        return insets != null && insets.isVisible(WindowInsetsCompat.Type.statusBars());
+    }
+
+    private void complete(int trigger) {
+        if (finished) return;
+        finish();
+
+        recorder.record(FlightRecorder.OP_RESTORE, FlightRecorder.BAR_BOTH, trigger);
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Restoring bar styles (" + FlightRecorder.restoreTriggerName(trigger) + ")");
+        }
+        restore.run();
+    }
+
+    private void finish() {
+        if (finished) return;
+        finished = true;
+
+        decorView.removeCallbacks(timeout);
+        ViewTreeObserver observer = decorView.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnPreDrawListener(this);
+        }
+        PerformanceStats.endAsyncTrace(TRACE_RESTORE, traceCookie);
+    }
+}
@@ -0,0 +1,32 @@
+package com.wael.capacitor.systembars;
+
+/**
+ * FullscreenState - States of FullscreenManager's fullscreen state machine.
+ *
+ *   NORMAL ──enter──▶ ENTERING ──commit──▶ IMMERSIVE / LEAN
+ *   IMMERSIVE / LEAN ──exit──▶ EXITING ──bars visible, styles restored──▶ NORMAL
+ *
+ * ENTERING and EXITING are reported while a transition is requested but not finished.
+ * A request made during a transition retargets it instead of queueing another one.
+ */
+public enum FullscreenState {
+    NORMAL,
+    ENTERING,
+    IMMERSIVE,
+    LEAN,
+    EXITING;
+
+    /**
+     * Target state for an enterFullscreen() mode; anything but "LEAN" is immersive.
+     */
+    public static FullscreenState forMode(String mode) {
+        return "LEAN".equals(mode) ? LEAN : IMMERSIVE;
+    }
+
+    /**
+     * Whether the bars are (being) hidden.
+     */
+    public boolean isFullscreen() {
+        return this == ENTERING || this == IMMERSIVE || this == LEAN;
+    }
+}
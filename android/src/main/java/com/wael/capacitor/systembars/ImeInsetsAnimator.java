@@ -0,0 +1,132 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+import android.view.ViewGroup.MarginLayoutParams;
+import androidx.core.graphics.Insets;
+import androidx.core.view.WindowInsetsAnimationCompat;
+import androidx.core.view.WindowInsetsCompat;
+import java.util.List;
+
+/**
+ * ImeInsetsAnimator - Moves the WebView in step with the keyboard (Android 35+).
+ *
+ * Without it the base inset listener only sees the final insets, so the WebView jumps
+ * once the keyboard has finished animating. With it, the bottom margin follows
+ * max(systemBars + cutout, ime), but while an IME animation runs the WebView is only
+ * translated; the margin is committed exactly once:
+ * - keyboard opening (margin grows): at the end of the animation
+ * - keyboard closing (margin shrinks): at the start, then the translation settles to 0
+ *
+ * Either way the WebView is never shorter than its final size while it slides, so no
+ * window background shows through, and one setLayoutParams() replaces a relayout per
+ * animation frame.
+ *
+ * Main thread only.
+ */
+public class ImeInsetsAnimator extends WindowInsetsAnimationCompat.Callback {
+
+    private final View view;
+    private final PerformanceStats stats;
+
+    private boolean suspended = false;
+    private boolean animating = false;
+
+    // Bottom margin from the latest dispatch, committed when the animation ends
+    private int targetBottom = -1;
+
+    public ImeInsetsAnimator(View view, PerformanceStats stats) {
+        // STOP: the WebView's children have no use for the animation callbacks
+        super(DISPATCH_MODE_STOP);
+        this.view = view;
+        this.stats = stats;
+    }
+
+    /**
+     * Bottom margin for an insets dispatch: the keyboard when it is taller than the bars.
+     */
+    public static int bottomInsetOf(WindowInsetsCompat windowInsets) {
+        Insets bars = windowInsets.getInsets(
+                WindowInsetsCompat.Type.systemBars() | WindowInsetsCompat.Type.displayCutout());
+        Insets ime = windowInsets.getInsets(WindowInsetsCompat.Type.ime());
+        return Math.max(bars.bottom, ime.bottom);
+    }
+
+    /**
+     * Pause tracking while fullscreen or a non-margin strategy owns the insets.
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+        if (suspended && animating) {
+            animating = false;
+            targetBottom = -1;
+            view.setTranslationY(0f);
+        }
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Called by the base inset listener: the bottom margin to apply for this dispatch.
+     * During an IME animation the current margin is kept unless the target is smaller.
+     */
+    public int resolveBottomMargin(int target) {
+        int currentBottom = currentBottomMargin();
+        if (!animating || currentBottom < 0) {
+            targetBottom = -1;
+            return target;
+        }
+
+        targetBottom = target;
+        return Math.min(target, currentBottom);
+    }
+
+    @Override
+    public void onPrepare(WindowInsetsAnimationCompat animation) {
+        if (!suspended && isImeAnimation(animation)) {
+            animating = true;
+        }
+    }
+
+    @Override
+    public WindowInsetsCompat onProgress(WindowInsetsCompat insets,
+            List<WindowInsetsAnimationCompat> runningAnimations) {
+        if (!animating) return insets;
+
+        int currentBottom = currentBottomMargin();
+        if (currentBottom >= 0) {
+            view.setTranslationY(-(bottomInsetOf(insets) - currentBottom));
+        }
+        return insets;
+    }
+
+    @Override
+    public void onEnd(WindowInsetsAnimationCompat animation) {
+        if (!animating || !isImeAnimation(animation)) return;
+
+        animating = false;
+        view.setTranslationY(0f);
+
+        if (targetBottom >= 0 && view.getLayoutParams() instanceof MarginLayoutParams) {
+            MarginLayoutParams mlp = (MarginLayoutParams) view.getLayoutParams();
+            if (mlp.bottomMargin != targetBottom) {
+                mlp.bottomMargin = targetBottom;
+                view.setLayoutParams(mlp);
+                stats.recordLayoutPass();
+            }
+        }
+        targetBottom = -1;
+    }
+
+    private int currentBottomMargin() {
+        if (view.getLayoutParams() instanceof MarginLayoutParams) {
+            return ((MarginLayoutParams) view.getLayoutParams()).bottomMargin;
+        }
+        return -1;
+    }
+
+    private static boolean isImeAnimation(WindowInsetsAnimationCompat animation) {
+        return (animation.getTypeMask() & WindowInsetsCompat.Type.ime()) != 0;
+    }
+}
@@ -0,0 +1,113 @@
+package com.wael.capacitor.systembars;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * InsetsChangeNotifier - Turns raw inset dispatches into deduplicated, throttled
+ * "insets changed" notifications.
+ *
+ * Fed from the plugin's existing inset listeners (bar background views and the WebView
+ * base listener), so JS no longer has to poll getInsets(). A notification fires only
+ * when the dp values or bar visibility actually change. With a non-zero throttle,
+ * changes inside the window are coalesced into one trailing notification carrying the
+ * latest values.
+ *
+ * Main thread only, except setThrottleMs().
+ */
+public class InsetsChangeNotifier {
+
+    public interface Listener {
+        void onInsetsChanged(int top, int bottom, int left, int right,
+                boolean statusBarVisible, boolean navigationBarVisible);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable emitRunnable = this::emit;
+
+    private Listener listener;
+    private volatile long throttleMs = 0;
+
+    // Latest values seen from a dispatch
+    private int top;
+    private int bottom;
+    private int left;
+    private int right;
+    private boolean statusVisible = true;
+    private boolean navVisible = true;
+
+    // Values last delivered to the listener; -1 = nothing delivered yet
+    private int emittedTop = -1;
+    private int emittedBottom = -1;
+    private int emittedLeft = -1;
+    private int emittedRight = -1;
+    private boolean emittedStatusVisible = true;
+    private boolean emittedNavVisible = true;
+
+    private long lastEmitMs = 0;
+    private boolean emitScheduled = false;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Minimum interval between two notifications. 0 delivers every change immediately.
+     * Safe to call from any thread.
+     */
+    public void setThrottleMs(long throttleMs) {
+        this.throttleMs = Math.max(0, throttleMs);
+    }
+
+    /**
+     * Report the insets from a dispatch, already converted to dp.
+     */
+    public void onInsets(int top, int bottom, int left, int right,
+            boolean statusVisible, boolean navVisible) {
+        if (top == this.top && bottom == this.bottom && left == this.left && right == this.right
+                && statusVisible == this.statusVisible && navVisible == this.navVisible
+                && emittedTop != -1) {
+            return;
+        }
+
+        this.top = top;
+        this.bottom = bottom;
+        this.left = left;
+        this.right = right;
+        this.statusVisible = statusVisible;
+        this.navVisible = navVisible;
+
+        if (emitScheduled) return; // trailing emit will pick up the latest values
+
+        long wait = lastEmitMs + throttleMs - SystemClock.uptimeMillis();
+        if (wait <= 0) {
+            emit();
+        } else {
+            emitScheduled = true;
+            handler.postDelayed(emitRunnable, wait);
+        }
+    }
+
+    private void emit() {
+        emitScheduled = false;
+
+        // A change that was reverted inside the throttle window needs no notification
+        if (top == emittedTop && bottom == emittedBottom && left == emittedLeft && right == emittedRight
+                && statusVisible == emittedStatusVisible && navVisible == emittedNavVisible) {
+            return;
+        }
+
+        emittedTop = top;
+        emittedBottom = bottom;
+        emittedLeft = left;
+        emittedRight = right;
+        emittedStatusVisible = statusVisible;
+        emittedNavVisible = navVisible;
+        lastEmitMs = SystemClock.uptimeMillis();
+
+        if (listener != null) {
+            listener.onInsetsChanged(top, bottom, left, right, statusVisible, navVisible);
+        }
+    }
+}
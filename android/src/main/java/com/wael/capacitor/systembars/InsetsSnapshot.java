@@ -0,0 +1,102 @@
+package com.wael.capacitor.systembars;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * InsetsSnapshot - Immutable, versioned copy of the last published system bar insets.
+ *
+ * Published on the UI thread by the inset listeners (edge-to-edge) or by the padding
+ * manager's measurements (legacy) through a volatile reference in SystemBarsManager, and
+ * read by getInsets() from the plugin thread without touching the view tree. The result
+ * objects are built once per snapshot, so serving a call allocates nothing.
+ *
+ * Values are in CSS px (dp).
+ */
+public final class InsetsSnapshot {
+
+    /**
+     * Placeholder before the first dispatch; version 0 means "never published".
+     */
+    public static final InsetsSnapshot EMPTY = new InsetsSnapshot(0, 0, 0, 0, 0, true, true);
+
+    private final long version;
+    private final int top;
+    private final int bottom;
+    private final int left;
+    private final int right;
+    private final boolean statusBarVisible;
+    private final boolean navigationBarVisible;
+
+    private final JSObject result;
+    private final JSObject unchangedResult;
+
+    public InsetsSnapshot(long version, int top, int bottom, int left, int right,
+            boolean statusBarVisible, boolean navigationBarVisible) {
+        this.version = version;
+        this.top = top;
+        this.bottom = bottom;
+        this.left = left;
+        this.right = right;
+        this.statusBarVisible = statusBarVisible;
+        this.navigationBarVisible = navigationBarVisible;
+
+        result = new JSObject();
+        result.put("top", top);
+        result.put("bottom", bottom);
+        result.put("left", left);
+        result.put("right", right);
+        result.put("statusBarVisible", statusBarVisible);
+        result.put("navigationBarVisible", navigationBarVisible);
+        result.put("version", version);
+
+        unchangedResult = new JSObject();
+        unchangedResult.put("unchanged", true);
+        unchangedResult.put("version", version);
+    }
+
+    /**
+     * Whether these values equal the given ones (version ignored).
+     */
+    public boolean sameValues(int top, int bottom, int left, int right,
+            boolean statusBarVisible, boolean navigationBarVisible) {
+        return this.top == top && this.bottom == bottom && this.left == left && this.right == right
+                && this.statusBarVisible == statusBarVisible
+                && this.navigationBarVisible == navigationBarVisible;
+    }
+
+    /**
+     * Full result, or a small {unchanged, version} marker when the caller already has
+     * this version (ifNewerThan >= version). Never modify the returned object.
+     */
+    public JSObject toResult(long ifNewerThan) {
+        return version > ifNewerThan ? result : unchangedResult;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public boolean isStatusBarVisible() {
+        return statusBarVisible;
+    }
+
+    public boolean isNavigationBarVisible() {
+        return navigationBarVisible;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+
+/**
+ * InsetsStrategy - How the plugin keeps WebView content clear of the system bars.
+ *
+ * The inset listeners only compute insets (px); the active strategy turns them into
+ * view state. Implementations must compare against what they last applied and leave the
+ * view alone when nothing changed, so a repeated insets dispatch (IME, focus, visibility
+ * of unrelated types) never triggers a WebView relayout.
+ *
+ * Main thread only.
+ */
+public interface InsetsStrategy {
+
+    String MARGINS = "margins";
+    String PADDING = "padding";
+    String TRANSLATION = "translation";
+    String CSS = "css";
+
+    /**
+     * Strategy for a plugin option value; unknown names fall back to margins.
+     */
+    static InsetsStrategy forName(String name) {
+        if (PADDING.equals(name)) return new PaddingInsetsStrategy();
+        if (TRANSLATION.equals(name)) return new TranslationInsetsStrategy();
+        if (CSS.equals(name)) return new CssInsetsStrategy();
+        return new MarginInsetsStrategy();
+    }
+
+    String getName();
+
+    /**
+     * Keep the view's content clear of the given insets (px).
+     *
+     * @return true if this requested a layout pass
+     */
+    boolean apply(View view, int left, int top, int right, int bottom);
+
+    /**
+     * Undo everything this strategy applied (used when switching strategies).
+     *
+     * @return true if this requested a layout pass
+     */
+    default boolean clear(View view) {
+        return apply(view, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+
+/**
+ * LegacySystemUiFlags - Composes the decor view's system UI visibility flags (API < 30)
+ * from a SystemBarsState in one pass.
+ *
+ * Below API 30 icon appearance, bar visibility and fullscreen all share one int on the
+ * decor view, and every View.setSystemUiVisibility() call can relayout the system UI.
+ * SystemBarsManager derives the whole flag set from its applied state and writes it once
+ * per frame commit, instead of one read-modify-write per property.
+ *
+ * Only the flags of fields the plugin has applied are owned; every other flag on the
+ * decor view - including ones the app set itself - is preserved. Pure int math, so the
+ * composition is tested on the JVM.
+ */
+public final class LegacySystemUiFlags {
+
+    // Written with the base system UI and kept through every later write
+    static final int BASE = View.SYSTEM_UI_FLAG_LAYOUT_STABLE;
+
+    // Layout and immersive flags that only fullscreen sets
+    static final int FULLSCREEN_LAYOUT = View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION
+            | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
+            | View.SYSTEM_UI_FLAG_IMMERSIVE
+            | View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY;
+
+    private LegacySystemUiFlags() {}
+
+    /**
+     * Flags the given state calls for. Only the bits in {@link #mask} are meaningful.
+     */
+    public static int compose(SystemBarsState state) {
+        int flags = BASE;
+
+        // "DARK" style = light icons = no light-appearance flag
+        if (state.getStatusIcons() == SystemBarsState.ICONS_DARK) {
+            flags |= View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR;
+        }
+        if (state.getNavIcons() == SystemBarsState.ICONS_DARK) {
+            flags |= View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR;
+        }
+
+        int mode = state.getFullscreenMode();
+        boolean fullscreen = mode != SystemBarsState.FULLSCREEN_OFF;
+        if (!state.isStatusVisible() || fullscreen) {
+            flags |= View.SYSTEM_UI_FLAG_FULLSCREEN;
+        }
+        if (!state.isNavVisible() || fullscreen) {
+            flags |= View.SYSTEM_UI_FLAG_HIDE_NAVIGATION;
+        }
+        if (fullscreen) {
+            flags |= View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN;
+            // IMMERSIVE: bars swiped in hide again; LEAN: they stay until the app hides them
+            flags |= mode == SystemBarsState.FULLSCREEN_IMMERSIVE
+                    ? View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY
+                    : View.SYSTEM_UI_FLAG_IMMERSIVE;
+        }
+        return flags;
+    }
+
+    /**
+     * Flags owned for the applied fields (SystemBarsState.FIELD_* bits) on this API level.
+     * Unset icons are never owned; light-appearance flags need API 23 (status) / 26 (nav).
+     */
+    public static int mask(SystemBarsState state, int appliedFields, int sdk) {
+        int mask = BASE;
+        if ((appliedFields & SystemBarsState.FIELD_STATUS_ICONS) != 0
+                && state.getStatusIcons() != SystemBarsState.ICONS_UNSET && sdk >= 23) {
+            mask |= View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR;
+        }
+        if ((appliedFields & SystemBarsState.FIELD_NAV_ICONS) != 0
+                && state.getNavIcons() != SystemBarsState.ICONS_UNSET && sdk >= 26) {
+            mask |= View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR;
+        }
+        if ((appliedFields & (SystemBarsState.FIELD_STATUS_VISIBLE | SystemBarsState.FIELD_FULLSCREEN)) != 0) {
+            mask |= View.SYSTEM_UI_FLAG_FULLSCREEN;
+        }
+        if ((appliedFields & (SystemBarsState.FIELD_NAV_VISIBLE | SystemBarsState.FIELD_FULLSCREEN)) != 0) {
+            mask |= View.SYSTEM_UI_FLAG_HIDE_NAVIGATION;
+        }
+        if ((appliedFields & SystemBarsState.FIELD_FULLSCREEN) != 0) {
+            mask |= FULLSCREEN_LAYOUT;
+        }
+        return mask;
+    }
+
+    /**
+     * The decor view's current flags with the owned ones replaced by the composed ones.
+     */
+    public static int merge(int current, SystemBarsState state, int appliedFields, int sdk) {
+        int mask = mask(state, appliedFields, sdk);
+        return (current & ~mask) | (compose(state) & mask);
+    }
+}
@@ -1,21 +1,45 @@
 package com.wael.capacitor.systembars;
 
-import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.util.Log;
 
 /**
  * LifecycleHandler - Handles app lifecycle events to re-apply system UI state
  *
- * Android 35+: Re-applies window background color and icon styles.
- *   The plugin's base inset listener handles spacing.
- * Android < 35: Re-applies padding + legacy colors.
+ * Resume and configuration changes are debounced: a fold/unfold or multi-window resize
+ * delivers several configuration changes in a row, and the whole burst runs one pass
+ * DEBOUNCE_MS after its last event. Only the cached legacy padding is applied at once,
+ * on every configuration change. The pass reads back the window (base system UI, icon
+ * appearance, bar colors, visibility, WebView margins/padding, fullscreen) and corrects
+ * only what drifted from the plugin's applied state; corrections are counted in
+ * PerformanceStats.
+ *
+ * Edge-to-edge (see EdgeToEdgeMode): WebView margins come from the plugin's base inset listener.
+ * Legacy: WebView top padding from WebViewPaddingManager.
+ *
+ * Main thread only.
  */
 public class LifecycleHandler {
 
     private static final String TAG = "LifecycleHandler";
+    private static final String TRACE_LIFECYCLE_PASS = "AndroidSystemBars:lifecyclePass";
+    private static final String TRACE_REAPPLY = "AndroidSystemBars:reapplySystemUI";
+
+    // Long enough to cover a fold/unfold burst, short enough to fix a drift before it is noticed
+    static final long DEBOUNCE_MS = 100;
 
     private final SystemBarsManagerPlugin plugin;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable runPass = this::submitPass;
+
     private boolean isAppInBackground = false;
+    private boolean passPending = false;
+    private int nextTraceCookie = 0;
+    // Cookie of the open async trace section, 0 = none. Ended by whichever pass commits,
+    // so a coalesced LIFECYCLE_REAPPLY submission can never leave a section open.
+    private int openTraceCookie = 0;
 
     public LifecycleHandler(SystemBarsManagerPlugin plugin) {
         this.plugin = plugin;
@@ -29,31 +53,89 @@ public class LifecycleHandler {
         if (!isAppInBackground) return;
 
         isAppInBackground = false;
-        reapplySystemUIState();
-
-        Log.d(TAG, "Resumed from background, re-applied system UI state");
+        plugin.getScheduler().getFlightRecorder().record(FlightRecorder.OP_LIFECYCLE,
+                FlightRecorder.BAR_BOTH, FlightRecorder.LIFECYCLE_RESUME);
+        schedulePass();
     }
 
-    // post() defers past Capacitor's SystemBars plugin, which re-applies its configured style synchronously in handleOnConfigurationChanged.
+    /**
+     * Legacy path: apply the padding for the new configuration right away, from the bar
+     * height cache, so a rotation never draws frames with the old padding; the debounced
+     * pass only corrects drift. Edge-to-edge margins follow the insets dispatch that the
+     * configuration change brings.
+     *
+     * The pass's frame-aligned commit lands after Capacitor's SystemBars plugin, which
+     * re-applies its configured style synchronously in handleOnConfigurationChanged.
+     */
     public void onConfigurationChanged() {
-        plugin.getBridge().getWebView().post(() -> {
-            reapplySystemUIState();
-            Log.d(TAG, "Configuration changed, re-applied system UI state");
+        plugin.getScheduler().getFlightRecorder().record(FlightRecorder.OP_LIFECYCLE,
+                FlightRecorder.BAR_BOTH, FlightRecorder.LIFECYCLE_CONFIGURATION_CHANGE);
+        if (!EdgeToEdgeMode.isActive() && !plugin.getFullscreenManager().isFullscreenActive()) {
+            plugin.getPaddingManager().correctPadding();
+        }
+        schedulePass();
+    }
+
+    /**
+     * (Re)start the debounce window; the pass runs once the events stop.
+     */
+    private void schedulePass() {
+        if (!passPending) {
+            passPending = true;
+            if (openTraceCookie == 0) {
+                // Async section: first event of the burst -> corrections committed
+                openTraceCookie = ++nextTraceCookie;
+                PerformanceStats.beginAsyncTrace(TRACE_LIFECYCLE_PASS, openTraceCookie);
+            }
+        }
+        mainHandler.removeCallbacks(runPass);
+        mainHandler.postDelayed(runPass, DEBOUNCE_MS);
+    }
+
+    private void submitPass() {
+        plugin.getScheduler().submit(BarCommandScheduler.Slot.LIFECYCLE_REAPPLY, () -> {
+            passPending = false;
+            if (openTraceCookie != 0) {
+                PerformanceStats.endAsyncTrace(TRACE_LIFECYCLE_PASS, openTraceCookie);
+                openTraceCookie = 0;
+            }
+
+            int corrections = correctDrift();
+            plugin.getScheduler().getStats().recordLifecyclePass(corrections);
+            if (corrections > 0) {
+                plugin.getScheduler().getFlightRecorder().record(FlightRecorder.OP_DRIFT_CORRECTED,
+                        FlightRecorder.BAR_BOTH, corrections);
+            }
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "Lifecycle pass: " + corrections + " drifted field(s) corrected");
+            }
         });
     }
 
-    private void reapplySystemUIState() {
+    /**
+     * Compare the window with the applied state and correct what drifted.
+     * Returns the number of corrections.
+     */
+    private int correctDrift() {
         FullscreenManager fullscreenManager = plugin.getFullscreenManager();
 
-        if (fullscreenManager.isFullscreenActive()) {
-            fullscreenManager.reapplyFullscreenIfActive();
-            return;
-        }
+        Trace.beginSection(TRACE_REAPPLY);
+        try {
+            if (fullscreenManager.isFullscreenActive()) {
+                return fullscreenManager.correctFullscreenDrift() ? 1 : 0;
+            }
 
-        plugin.getSystemBarsManager().reapplySystemUI();
+            int corrections = plugin.getSystemBarsManager().correctDrift();
 
-        if (Build.VERSION.SDK_INT < 35) {
-            plugin.getPaddingManager().applyPadding();
+            boolean insetsDrifted = EdgeToEdgeMode.isActive()
+                    ? fullscreenManager.correctWebViewInsets()
+                    : plugin.getPaddingManager().correctPadding();
+            if (insetsDrifted) {
+                corrections++;
+            }
+            return corrections;
+        } finally {
+            Trace.endSection();
         }
     }
 }
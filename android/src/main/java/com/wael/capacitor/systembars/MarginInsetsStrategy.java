@@ -0,0 +1,31 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+import android.view.ViewGroup.MarginLayoutParams;
+
+/**
+ * MarginInsetsStrategy - Shrinks the WebView by its layout margins (the default).
+ * The bar background views behind the WebView show through the margins.
+ */
+public class MarginInsetsStrategy implements InsetsStrategy {
+
+    @Override
+    public String getName() {
+        return MARGINS;
+    }
+
+    @Override
+    public boolean apply(View view, int left, int top, int right, int bottom) {
+        if (!(view.getLayoutParams() instanceof MarginLayoutParams)) return false;
+
+        MarginLayoutParams mlp = (MarginLayoutParams) view.getLayoutParams();
+        if (mlp.leftMargin == left && mlp.topMargin == top
+                && mlp.rightMargin == right && mlp.bottomMargin == bottom) {
+            return false;
+        }
+
+        mlp.setMargins(left, top, right, bottom);
+        view.setLayoutParams(mlp);
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+
+/**
+ * PaddingInsetsStrategy - Keeps the WebView full size and insets its content by padding.
+ */
+public class PaddingInsetsStrategy implements InsetsStrategy {
+
+    @Override
+    public String getName() {
+        return PADDING;
+    }
+
+    @Override
+    public boolean apply(View view, int left, int top, int right, int bottom) {
+        if (view.getPaddingLeft() == left && view.getPaddingTop() == top
+                && view.getPaddingRight() == right && view.getPaddingBottom() == bottom) {
+            return false;
+        }
+
+        // setPadding() requests the layout itself
+        view.setPadding(left, top, right, bottom);
+        return true;
+    }
+}
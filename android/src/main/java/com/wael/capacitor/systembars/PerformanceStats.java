@@ -0,0 +1,205 @@
+package com.wael.capacitor.systembars;
+
+import android.os.Build;
+import android.os.Trace;
+import com.getcapacitor.JSObject;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PerformanceStats - Low-overhead counters and latency histograms for bar operations.
+ *
+ * Recorded by BarCommandScheduler (per-slot UI-thread time, bridge-call-to-commit latency,
+ * coalesced submissions), by the inset listeners (layout passes) and by LifecycleHandler
+ * (drift corrections). Recording is a few
+ * atomic adds with no allocation; getPerformanceStats() builds the JS object on demand.
+ *
+ * Histograms use power-of-two microsecond buckets, so reported percentiles are upper
+ * bounds (at most 2x the true value).
+ */
+public final class PerformanceStats {
+
+    /**
+     * Latency histogram in microseconds.
+     */
+    public static final class Histogram {
+
+        // Bucket i holds durations in [2^(i-1), 2^i) us; the last bucket is open-ended (~0.5 s+)
+        private static final int BUCKETS = 20;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+
+            long micros = nanos / 1000;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+        }
+
+        /**
+         * Upper bound (us) of the bucket containing the given quantile.
+         */
+        long percentileMicros(double quantile) {
+            long total = count.get();
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i == 0 ? 1 : 1L << i;
+                }
+            }
+            return maxNanos.get() / 1000;
+        }
+
+        JSObject toJSObject() {
+            long total = count.get();
+            JSObject result = new JSObject();
+            result.put("count", total);
+            result.put("meanUs", total == 0 ? 0 : totalNanos.get() / total / 1000);
+            result.put("p50Us", percentileMicros(0.50));
+            result.put("p95Us", percentileMicros(0.95));
+            result.put("p99Us", percentileMicros(0.99));
+            result.put("maxUs", maxNanos.get() / 1000);
+            return result;
+        }
+    }
+
+    /**
+     * Start an async trace section for work that completes later (delayed restores,
+     * configuration-change passes). No-op below API 29.
+     */
+    public static void beginAsyncTrace(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= 29) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    public static void endAsyncTrace(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= 29) {
+            Trace.endAsyncSection(name, cookie);
+        }
+    }
+
+    private final Histogram commitLatency = new Histogram();
+    private final Histogram[] uiThreadTime;
+    private final AtomicLong coalescedSubmissions = new AtomicLong();
+    private final AtomicLong insetsDispatches = new AtomicLong();
+    private final AtomicLong layoutPasses = new AtomicLong();
+    private final AtomicLong lifecyclePasses = new AtomicLong();
+    private final AtomicLong driftCorrections = new AtomicLong();
+
+    public PerformanceStats() {
+        BarCommandScheduler.Slot[] slots = BarCommandScheduler.Slot.values();
+        uiThreadTime = new Histogram[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            uiThreadTime[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Time from the bridge call that queued a slot until its work ran on the main thread.
+     */
+    public void recordCommitLatency(long nanos) {
+        commitLatency.record(nanos);
+    }
+
+    /**
+     * Main-thread time spent running one slot's work.
+     */
+    public void recordUiThreadTime(BarCommandScheduler.Slot slot, long nanos) {
+        uiThreadTime[slot.ordinal()].record(nanos);
+    }
+
+    /**
+     * A submission replaced work still pending for its slot (a redundant call skipped).
+     */
+    public void recordCoalescedSubmission() {
+        coalescedSubmissions.incrementAndGet();
+    }
+
+    /**
+     * An inset listener handled a dispatch; requestedLayout tells whether it changed the
+     * WebView or bar view layout.
+     */
+    public void recordInsetsDispatch(boolean requestedLayout) {
+        insetsDispatches.incrementAndGet();
+        if (requestedLayout) {
+            layoutPasses.incrementAndGet();
+        }
+    }
+
+    /**
+     * A layout change outside an insets dispatch (padding, fullscreen margins, keyboard).
+     */
+    public void recordLayoutPass() {
+        layoutPasses.incrementAndGet();
+    }
+
+    /**
+     * A debounced lifecycle pass ran and corrected this many drifted fields.
+     */
+    public void recordLifecyclePass(int corrections) {
+        lifecyclePasses.incrementAndGet();
+        driftCorrections.addAndGet(corrections);
+    }
+
+    public void reset() {
+        commitLatency.reset();
+        for (Histogram histogram : uiThreadTime) {
+            histogram.reset();
+        }
+        coalescedSubmissions.set(0);
+        insetsDispatches.set(0);
+        layoutPasses.set(0);
+        lifecyclePasses.set(0);
+        driftCorrections.set(0);
+    }
+
+    public JSObject toJSObject() {
+        JSObject result = new JSObject();
+        result.put("commitLatency", commitLatency.toJSObject());
+
+        JSObject perSlot = new JSObject();
+        BarCommandScheduler.Slot[] slots = BarCommandScheduler.Slot.values();
+        for (int i = 0; i < slots.length; i++) {
+            if (uiThreadTime[i].getCount() > 0) {
+                perSlot.put(slots[i].name(), uiThreadTime[i].toJSObject());
+            }
+        }
+        result.put("uiThreadTime", perSlot);
+
+        result.put("coalescedSubmissions", coalescedSubmissions.get());
+        result.put("insetsDispatches", insetsDispatches.get());
+        result.put("layoutPasses", layoutPasses.get());
+        result.put("lifecyclePasses", lifecyclePasses.get());
+        result.put("driftCorrections", driftCorrections.get());
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.wael.capacitor.systembars;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * RestoreStyles - Bar styles to restore when leaving fullscreen.
+ *
+ * Merged from the exitFullscreen() options, in order of precedence:
+ * 1. {@code restore.statusBar} / {@code restore.navigationBar} (per bar)
+ * 2. {@code restore.style} / {@code restore.color} (both bars)
+ * 3. legacy top-level {@code style} / {@code color} (both bars)
+ * 4. system default
+ */
+public final class RestoreStyles {
+
+    public static final RestoreStyles SYSTEM_DEFAULT = new RestoreStyles("DEFAULT", null, "DEFAULT", null);
+
+    public final String statusStyle;
+    public final String statusColor;
+    public final String navStyle;
+    public final String navColor;
+
+    public RestoreStyles(String statusStyle, String statusColor, String navStyle, String navColor) {
+        this.statusStyle = statusStyle;
+        this.statusColor = statusColor;
+        this.navStyle = navStyle;
+        this.navColor = navColor;
+    }
+
+    /**
+     * Merge the exitFullscreen() options.
+     *
+     * @param restoreConfig the {@code restore} object, or null
+     * @param legacyStyle   top-level {@code style} (pre-restore API), or null
+     * @param legacyColor   top-level {@code color} (pre-restore API), or null
+     */
+    public static RestoreStyles fromOptions(JSObject restoreConfig, String legacyStyle, String legacyColor) {
+        if (restoreConfig == null) {
+            if (legacyStyle == null && legacyColor == null) {
+                return SYSTEM_DEFAULT;
+            }
+            String style = legacyStyle != null ? legacyStyle : "DEFAULT";
+            return new RestoreStyles(style, legacyColor, style, legacyColor);
+        }
+
+        String globalStyle = restoreConfig.getString("style");
+        String globalColor = restoreConfig.getString("color");
+
+        String statusStyle = globalStyle != null ? globalStyle : "DEFAULT";
+        String statusColor = globalColor;
+        String navStyle = globalStyle != null ? globalStyle : "DEFAULT";
+        String navColor = globalColor;
+
+        JSObject statusBarConfig = optObject(restoreConfig, "statusBar");
+        if (statusBarConfig != null) {
+            if (statusBarConfig.has("style")) {
+                statusStyle = statusBarConfig.getString("style");
+            }
+            if (statusBarConfig.has("color")) {
+                statusColor = statusBarConfig.getString("color");
+            }
+        }
+
+        JSObject navigationBarConfig = optObject(restoreConfig, "navigationBar");
+        if (navigationBarConfig != null) {
+            if (navigationBarConfig.has("style")) {
+                navStyle = navigationBarConfig.getString("style");
+            }
+            if (navigationBarConfig.has("color")) {
+                navColor = navigationBarConfig.getString("color");
+            }
+        }
+
+        return new RestoreStyles(statusStyle, statusColor, navStyle, navColor);
+    }
+
+    private static JSObject optObject(JSObject parent, String key) {
+        if (!parent.has(key)) return null;
+        try {
+            return parent.getJSObject(key);
+        } catch (Exception e) {
+            // Not a JSObject
+            return null;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.wael.capacitor.systembars;
+
+import android.view.ViewTreeObserver;
+import android.webkit.JavascriptInterface;
+import android.webkit.WebView;
+
+/**
+ * ScrollLinkedBarColor - Tints the status bar from the scroll position without a
+ * PluginCall per scroll event.
+ *
+ * JS registers a gradient once (color stops mapped to scroll offsets in CSS px). It is
+ * precomputed into a fixed-size lookup table, so each scroll update is a clamp, one array
+ * read and one in-place background recolor. Two scroll signals are supported:
+ * - "webview": the WebView's own scroll position (document-level scrolling), observed
+ *   with a ViewTreeObserver listener so an OnScrollChangeListener set by the app is
+ *   left alone
+ * - "message": JS reports the offset of an inner scroller with
+ *   window.AndroidSystemBarsScroll.onScroll(y) - a bare number over the JavaBridge,
+ *   no JSON and no PluginCall. The interface is only added to the WebView when the
+ *   app opts in with the scrollLinkedStatusBar plugin config.
+ *
+ * Updates are coalesced to one per animation frame.
+ */
+public class ScrollLinkedBarColor {
+
+    public static final String JS_INTERFACE_NAME = "AndroidSystemBarsScroll";
+    public static final String SOURCE_WEBVIEW = "webview";
+    public static final String SOURCE_MESSAGE = "message";
+
+    private static final int LUT_SIZE = 256;
+
+    private final WebView webView;
+    private final SystemBarsManager systemBarsManager;
+    private final float density;
+
+    // Active gradient; null = scroll-linked mode off. Swapped as a whole (volatile) so the
+    // JavaBridge thread and the main thread never see a half-built table.
+    private volatile Lut lut;
+
+    private volatile float latestOffset = 0f;
+    private volatile boolean updateScheduled = false;
+    private final Runnable applyRunnable = this::applyLatest;
+
+    private volatile boolean javascriptInterfaceInstalled = false;
+
+    // Fires for any scroll in the window; only WebView scroll position changes count
+    private int lastScrollY = 0;
+    private final ViewTreeObserver.OnScrollChangedListener scrollListener = this::onWindowScrollChanged;
+
+    static final class Lut {
+        final int[] colors;
+        final float minOffset;
+        final float maxOffset;
+        final String source;
+
+        Lut(int[] colors, float minOffset, float maxOffset, String source) {
+            this.colors = colors;
+            this.minOffset = minOffset;
+            this.maxOffset = maxOffset;
+            this.source = source;
+        }
+
+        int colorAt(float offset) {
+            if (offset <= minOffset || maxOffset <= minOffset) return colors[0];
+            if (offset >= maxOffset) return colors[LUT_SIZE - 1];
+            int index = (int) ((offset - minOffset) * (LUT_SIZE - 1) / (maxOffset - minOffset));
+            return colors[index];
+        }
+    }
+
+    public ScrollLinkedBarColor(WebView webView, SystemBarsManager systemBarsManager, float density) {
+        this.webView = webView;
+        this.systemBarsManager = systemBarsManager;
+        this.density = density;
+    }
+
+    /**
+     * Expose the "message" signal to JS. Must run before the page loads to be visible
+     * to it (WebView only injects interfaces on the next page load).
+     */
+    public void installJavascriptInterface() {
+        webView.addJavascriptInterface(this, JS_INTERFACE_NAME);
+        javascriptInterfaceInstalled = true;
+    }
+
+    /**
+     * Whether the "message" signal can reach native code.
+     */
+    public boolean isJavascriptInterfaceInstalled() {
+        return javascriptInterfaceInstalled;
+    }
+
+    /**
+     * Enable scroll-linked mode with a precomputed gradient. Main thread.
+     *
+     * @param offsets stop offsets in CSS px, ascending
+     * @param colors  packed ARGB colors, one per offset
+     */
+    public void start(float[] offsets, int[] colors, String source) {
+        Lut previous = lut;
+        if (previous != null && SOURCE_WEBVIEW.equals(previous.source)) {
+            removeScrollListener();
+        }
+
+        lut = new Lut(buildLut(offsets, colors), offsets[0], offsets[offsets.length - 1], source);
+
+        if (SOURCE_WEBVIEW.equals(source)) {
+            lastScrollY = webView.getScrollY();
+            latestOffset = lastScrollY / density;
+            webView.getViewTreeObserver().addOnScrollChangedListener(scrollListener);
+        }
+        applyLatest();
+    }
+
+    /**
+     * Leave scroll-linked mode; the regular status bar color is restored. Main thread.
+     */
+    public void stop() {
+        Lut previous = lut;
+        if (previous == null) return;
+
+        lut = null;
+        if (SOURCE_WEBVIEW.equals(previous.source)) {
+            removeScrollListener();
+        }
+        webView.removeCallbacks(applyRunnable);
+        updateScheduled = false;
+        systemBarsManager.onScrollLinkedColorStopped();
+    }
+
+    private void removeScrollListener() {
+        ViewTreeObserver observer = webView.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnScrollChangedListener(scrollListener);
+        }
+    }
+
+    public boolean isActive() {
+        return lut != null;
+    }
+
+    /**
+     * "message" signal. Called by JS on the JavaBridge thread with a CSS px offset.
+     */
+    @JavascriptInterface
+    public void onScroll(float offset) {
+        Lut current = lut;
+        if (current == null || !SOURCE_MESSAGE.equals(current.source)) return;
+        onScrollOffset(offset);
+    }
+
+    private void onWindowScrollChanged() {
+        int scrollY = webView.getScrollY();
+        if (scrollY == lastScrollY) return;
+        lastScrollY = scrollY;
+        onScrollOffset(scrollY / density);
+    }
+
+    private void onScrollOffset(float offset) {
+        latestOffset = offset;
+        if (!updateScheduled) {
+            updateScheduled = true;
+            webView.postOnAnimation(applyRunnable);
+        }
+    }
+
+    private void applyLatest() {
+        updateScheduled = false;
+        Lut current = lut;
+        if (current == null) return;
+        systemBarsManager.applyScrollLinkedStatusColor(current.colorAt(latestOffset));
+    }
+
+    static int[] buildLut(float[] offsets, int[] colors) {
+        int[] table = new int[LUT_SIZE];
+        float min = offsets[0];
+        float max = offsets[offsets.length - 1];
+        int stop = 0;
+        for (int i = 0; i < LUT_SIZE; i++) {
+            float offset = max > min ? min + (max - min) * i / (LUT_SIZE - 1) : min;
+            while (stop < offsets.length - 2 && offset > offsets[stop + 1]) {
+                stop++;
+            }
+            if (offsets.length == 1) {
+                table[i] = colors[0];
+                continue;
+            }
+            float span = offsets[stop + 1] - offsets[stop];
+            float fraction = span > 0 ? (offset - offsets[stop]) / span : 1f;
+            fraction = fraction < 0f ? 0f : (fraction > 1f ? 1f : fraction);
+            table[i] = BarColorAnimator.lerpArgb(colors[stop], colors[stop + 1], fraction);
+        }
+        return table;
+    }
+}
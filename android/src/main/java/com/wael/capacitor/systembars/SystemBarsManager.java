@@ -3,7 +3,9 @@ package com.wael.capacitor.systembars;
 import android.app.Activity;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Trace;
 import android.util.Log;
 import android.view.Gravity;
 import android.view.View;
@@ -16,49 +18,107 @@ import androidx.core.view.WindowCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.view.WindowInsetsControllerCompat;
 import com.getcapacitor.JSObject;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONObject;
 
 /**
  * SystemBarsManager - Core system UI control for Android API 21-36+
  *
- * ARCHITECTURE (Android 35+):
+ * ARCHITECTURE (Android 35+, or 30-34 with unifiedEdgeToEdge - see EdgeToEdgeMode):
  * - The plugin's base inset listener (FullscreenManager) applies WebView margins
  * - This class handles ONLY: icon appearance (light/dark) + per-bar background color
  * - Per-bar colors use two Views (status bar bg + nav bar bg) inserted behind the WebView
  *   in android.R.id.content, sized by WindowInsets. Supports different colors per bar.
+ * - Or, with "barBackground": "drawable", one BarBackgroundDrawable as the window
+ *   background that paints only the two bar bands (no extra Views, no full-window fill).
  *
- * ARCHITECTURE (Android < 35):
+ * ARCHITECTURE (Android < 35, legacy):
  * - Native setStatusBarColor()/setNavigationBarColor() for colors
  * - Icon appearance via legacy system UI flags or WindowInsetsControllerCompat
  * - WebViewPaddingManager handles top padding for status bar overlay
+ *
+ * THREADING:
+ * - Public setters may be called from any thread. They update the desired SystemBarsState
+ *   and schedule a reconcile on BarCommandScheduler, which commits once per frame and only
+ *   touches fields that differ from the last applied state.
  */
 public class SystemBarsManager {
 
     private static final String TAG = "SystemBarsManager";
+    private static final String TRACE_BAR_VIEW_INSETS = "AndroidSystemBars:barViewInsets";
+
+    private static final int STYLE_FIELDS = SystemBarsState.FIELD_STATUS_ICONS
+            | SystemBarsState.FIELD_NAV_ICONS
+            | SystemBarsState.FIELD_STATUS_COLOR
+            | SystemBarsState.FIELD_NAV_COLOR
+            | SystemBarsState.FIELD_WINDOW_COLOR;
 
     private final Activity activity;
     private final Window window;
+    private final BarCommandScheduler scheduler;
+    private final FlightRecorder recorder;
+    private final ColorParser colorParser = new ColorParser();
     private WindowInsetsControllerCompat insetsController;
 
-    // Store pending bar colors/styles for re-application after lifecycle events
-    private String currentStatusBarColor = null;
-    private String currentNavBarColor = null;
-    private String currentStatusBarStyle = null;
-    private String currentNavBarStyle = null;
+    // Desired state: written by the public setters (any thread) under stateLock.
+    // Fields requested since the last reconcile are tracked to count skipped no-ops.
+    private final Object stateLock = new Object();
+    private volatile SystemBarsState desiredState = SystemBarsState.INITIAL;
+    private int requestedFields = 0;
+
+    // Transition for the next committed color change of each bar (edge-to-edge mode only)
+    private BarTransition pendingStatusTransition;
+    private BarTransition pendingNavTransition;
+
+    // Last state actually pushed to the window (main thread only)
+    private SystemBarsState appliedState = SystemBarsState.INITIAL;
+
+    // API < 30: fields whose flags the plugin owns on the decor view (main thread only)
+    private int systemUiFlagFields = 0;
+    private final Runnable writeSystemUiFlags = this::writeSystemUiFlags;
+
+    // Reconcile counters (incremented on the main thread, reset from the plugin thread)
+    private final AtomicLong appliedOperations = new AtomicLong();
+    private final AtomicLong skippedOperations = new AtomicLong();
+
+    // Edge-to-edge declared on the window (main thread only)
+    private boolean edgeToEdgeDeclared = false;
 
     // Android 35+: per-bar background colors (shown via Views behind transparent bars)
     private View statusBarBgView;
     private View navBarBgView;
+    private final BarColorAnimator barColorAnimator = new BarColorAnimator();
+
+    // Edge-to-edge alternative to the views: both bands drawn by the window background
+    private boolean drawableBarBackground = false;
+    private BarBackgroundDrawable barBackground;
+
+    // Status bar color currently driven by ScrollLinkedBarColor (main thread only)
+    private boolean scrollLinkedColorActive = false;
 
-    // Track bar visibility for getInsets() API
-    private volatile boolean statusBarVisible = true;
-    private volatile boolean navigationBarVisible = true;
+    // Reused window background; recolored in place instead of reallocated per style call
+    private ColorDrawable windowBackground;
+
+    // Pushes deduplicated inset changes to JS (fed by every plugin inset listener)
+    private final InsetsChangeNotifier insetsNotifier = new InsetsChangeNotifier();
+
+    // Optional: persists committed styles across process death / recreation
+    private BarStateStore stateStore;
+
+    // Optional: writes insets into the document as CSS custom properties
+    private CssInsetsInjector cssInsetsInjector;
+
+    // Last published insets; written on the main thread, read lock-free by getInsets()
+    private volatile InsetsSnapshot insetsSnapshot = InsetsSnapshot.EMPTY;
 
     // Device density for px-to-dp conversion
     private final float density;
 
-    public SystemBarsManager(Activity activity) {
+    public SystemBarsManager(Activity activity, BarCommandScheduler scheduler) {
         this.activity = activity;
         this.window = activity.getWindow();
+        this.scheduler = scheduler;
+        this.recorder = scheduler.getFlightRecorder();
         this.density = activity.getResources().getDisplayMetrics().density;
 
         if (Build.VERSION.SDK_INT >= 30) {
@@ -67,32 +127,50 @@ public class SystemBarsManager {
     }
 
     /**
-     * Initialize system bars based on Android version
+     * Initialize system bars based on Android version, together with any styles already
+     * recorded (startup configuration). On the main thread - i.e. from the plugin's load() -
+     * this commits synchronously, before the WebView's first frame.
      */
     public void initialize() {
-        activity.runOnUiThread(() -> {
-            if (Build.VERSION.SDK_INT >= 35) {
-                initializeEdgeToEdge();
-            } else {
-                setupLegacySystemUI();
-            }
-        });
+        scheduler.submit(BarCommandScheduler.Slot.SYSTEM_UI, this::applyBaseSystemUI);
+        if (desiredState != SystemBarsState.INITIAL) {
+            // After SYSTEM_UI: colors need the bar background views it creates
+            scheduleReconcile();
+        }
+        scheduler.commitNow();
+    }
+
+    private void applyBaseSystemUI() {
+        if (EdgeToEdgeMode.isActive()) {
+            initializeEdgeToEdge();
+        } else {
+            setupLegacySystemUI();
+        }
     }
 
     /**
-     * Android 35+ initialization.
+     * Android 35+ initialization (and API 30-34 with unifiedEdgeToEdge).
      *
-     * Edge-to-edge is enforced by the system; the plugin's base inset listener applies
-     * WebView margins. Here we just:
-     * 1. Declare edge-to-edge (setDecorFitsSystemWindows)
+     * Edge-to-edge is enforced by the system on 35+ (declared here on 30-34); the plugin's
+     * base inset listener applies WebView margins. Here we just:
+     * 1. Declare edge-to-edge (setDecorFitsSystemWindows), once - re-declaring relayouts
+     *    the whole decor view
      * 2. Set BEHAVIOR_DEFAULT so bars are permanent and report correct insets
      *
-     * Bars are transparent automatically once edge-to-edge is declared; colors
+     * Bars are transparent automatically once edge-to-edge is declared on 35+; colors
      * come from setupBarBackgroundViews(). Do not call setStatusBarColor/
-     * setNavigationBarColor here — deprecated no-ops on 35+ that Google Play flags.
+     * setNavigationBarColor on 35+ — deprecated no-ops that Google Play flags. On 30-34
+     * they are cleared once so the background views show through.
      */
     private void initializeEdgeToEdge() {
-        WindowCompat.setDecorFitsSystemWindows(window, false);
+        if (!edgeToEdgeDeclared) {
+            WindowCompat.setDecorFitsSystemWindows(window, false);
+            edgeToEdgeDeclared = true;
+        }
+        if (Build.VERSION.SDK_INT < 35) {
+            window.setStatusBarColor(Color.TRANSPARENT);
+            window.setNavigationBarColor(Color.TRANSPARENT);
+        }
 
         insetsController.setSystemBarsBehavior(
                 WindowInsetsControllerCompat.BEHAVIOR_DEFAULT);
@@ -100,19 +178,43 @@ public class SystemBarsManager {
         window.setNavigationBarContrastEnforced(false);
         window.setStatusBarContrastEnforced(false);
 
-        setupBarBackgroundViews();
+        if (drawableBarBackground) {
+            setupBarBackgroundDrawable();
+        } else {
+            setupBarBackgroundViews();
+        }
 
-        Log.d(TAG, "Edge-to-edge initialized.");
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Edge-to-edge initialized.");
+        }
     }
 
     /**
      * Android < 35: Legacy System UI Flags
      */
     private void setupLegacySystemUI() {
+        // LAYOUT_STABLE is part of every composed flag set
+        requestSystemUiFlags(0);
+    }
+
+    /**
+     * Take ownership of the fields' decor view flags and schedule the frame's single
+     * setSystemUiVisibility() (main thread). Called by every legacy flag change - styles and
+     * visibility below API 30, FullscreenManager's legacy branch, and the LAYOUT_STABLE base
+     * below 35 (fields 0).
+     */
+    void requestSystemUiFlags(int fields) {
+        systemUiFlagFields |= fields;
+        scheduler.submit(BarCommandScheduler.Slot.SYSTEM_UI_FLAGS, writeSystemUiFlags);
+    }
+
+    private void writeSystemUiFlags() {
         View decorView = window.getDecorView();
-        int flags = decorView.getSystemUiVisibility();
-        flags |= View.SYSTEM_UI_FLAG_LAYOUT_STABLE;
-        decorView.setSystemUiVisibility(flags);
+        int current = decorView.getSystemUiVisibility();
+        int flags = LegacySystemUiFlags.merge(current, appliedState, systemUiFlagFields, Build.VERSION.SDK_INT);
+        if (flags != current) {
+            decorView.setSystemUiVisibility(flags);
+        }
     }
 
     /**
@@ -145,293 +247,800 @@ public class SystemBarsManager {
         navParams.gravity = Gravity.BOTTOM;
         contentView.addView(navBarBgView, 1, navParams);
 
-        // Size the views to match real system bar insets (updates on rotation etc.)
-        ViewCompat.setOnApplyWindowInsetsListener(contentView, (v, windowInsets) -> {
-            Insets insets = windowInsets.getInsets(
-                    WindowInsetsCompat.Type.systemBars() | WindowInsetsCompat.Type.displayCutout());
+        barColorAnimator.attach(statusBarBgView, navBarBgView, Color.TRANSPARENT);
+        installBarInsetsListener(contentView);
 
-            ViewGroup.LayoutParams sp = statusBarBgView.getLayoutParams();
-            if (sp.height != insets.top) {
-                sp.height = insets.top;
-                statusBarBgView.setLayoutParams(sp);
-            }
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Bar background views created behind WebView");
+        }
+    }
+
+    /**
+     * Draw both bar backgrounds with one window background drawable (edge-to-edge mode,
+     * "barBackground": "drawable").
+     *
+     * Replaces the views and the full-window color fill: only the bands under the bars and
+     * cutout are painted, and the WebView covers the rest. Insets resize the bands without
+     * layout.
+     */
+    private void setupBarBackgroundDrawable() {
+        if (barBackground != null) return; // already installed
+
+        FrameLayout contentView = activity.findViewById(android.R.id.content);
+        if (contentView == null) return;
 
-            ViewGroup.LayoutParams np = navBarBgView.getLayoutParams();
-            if (np.height != insets.bottom) {
-                np.height = insets.bottom;
-                navBarBgView.setLayoutParams(np);
+        barBackground = new BarBackgroundDrawable(Color.TRANSPARENT);
+        barBackground.setFillColor(barFillColorOf(appliedState));
+        window.setBackgroundDrawable(barBackground);
+        barColorAnimator.attach(barBackground, Color.TRANSPARENT);
+        installBarInsetsListener(contentView);
+
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Bar background drawable installed as window background");
+        }
+    }
+
+    /**
+     * Size the bar backgrounds to match real system bar insets (updates on rotation etc.).
+     */
+    private void installBarInsetsListener(FrameLayout contentView) {
+        ViewCompat.setOnApplyWindowInsetsListener(contentView, (v, windowInsets) -> {
+            Trace.beginSection(TRACE_BAR_VIEW_INSETS);
+            try {
+                Insets insets = windowInsets.getInsets(
+                        WindowInsetsCompat.Type.systemBars() | WindowInsetsCompat.Type.displayCutout());
+                boolean layout = resizeBarBackgrounds(insets,
+                        windowInsets.getInsets(WindowInsetsCompat.Type.navigationBars()));
+
+                scheduler.getStats().recordInsetsDispatch(layout);
+                onInsetsDispatched(windowInsets);
+            } finally {
+                Trace.endSection();
             }
 
             return windowInsets; // Don't consume — children (WebView) need insets too
         });
         ViewCompat.requestApplyInsets(contentView);
-
-        Log.d(TAG, "Bar background views created behind WebView");
     }
 
     /**
-     * Set the status bar area background color (Android 35+).
+     * Returns true if a layout pass was requested. The views only cover the top and bottom;
+     * in views mode the side insets show the full-window background fill.
      */
-    private void setStatusBarBgColor(String color) {
-        if (color == null || color.isEmpty()) return;
-        if (statusBarBgView == null) return;
-        try {
-            statusBarBgView.setBackgroundColor(Color.parseColor(color));
-            Log.d(TAG, "Status bar background set to: " + color);
-        } catch (IllegalArgumentException e) {
-            Log.w(TAG, "Invalid status bar background color: " + color);
+    private boolean resizeBarBackgrounds(Insets insets, Insets navigation) {
+        int top = insets.top;
+        int bottom = insets.bottom;
+        if (barBackground != null) {
+            // Bands only invalidate
+            barBackground.setBarInsets(insets.left, top, insets.right, bottom,
+                    navigation.left > 0, navigation.right > 0);
+            return false;
         }
+
+        boolean layout = false;
+
+        ViewGroup.LayoutParams sp = statusBarBgView.getLayoutParams();
+        if (sp.height != top) {
+            sp.height = top;
+            statusBarBgView.setLayoutParams(sp);
+            layout = true;
+        }
+
+        ViewGroup.LayoutParams np = navBarBgView.getLayoutParams();
+        if (np.height != bottom) {
+            np.height = bottom;
+            navBarBgView.setLayoutParams(np);
+            layout = true;
+        }
+        return layout;
     }
 
     /**
-     * Set the navigation bar area background color (Android 35+).
+     * Put the bar background drawable back if something replaced the window background.
      */
-    private void setNavBarBgColor(String color) {
-        if (color == null || color.isEmpty()) return;
-        if (navBarBgView == null) return;
-        try {
-            navBarBgView.setBackgroundColor(Color.parseColor(color));
-            Log.d(TAG, "Navigation bar background set to: " + color);
-        } catch (IllegalArgumentException e) {
-            Log.w(TAG, "Invalid navigation bar background color: " + color);
+    private void installBarBackground() {
+        if (window.getDecorView().getBackground() != barBackground) {
+            window.setBackgroundDrawable(barBackground);
         }
     }
 
     /**
      * Paint the window background so a relayout (rotation, resize) never exposes the theme's
      * static windowBackground underneath the WebView.
+     *
+     * In drawable mode the bar background drawable paints an explicit window color (theme
+     * windowBackground, restored or set) between its bands. The fallback to the status color
+     * is not painted there: that area is left to the WebView.
      */
-    private void setWindowBackground(String color) {
-        if (color == null || color.isEmpty()) return;
-        try {
-            window.setBackgroundDrawable(new ColorDrawable(Color.parseColor(color)));
-        } catch (IllegalArgumentException e) {
-            Log.w(TAG, "Invalid window background color: " + color);
+    private void setWindowBackground(SystemBarsState desired) {
+        if (barBackground != null) {
+            barBackground.setFillColor(barFillColorOf(desired));
+            installBarBackground();
+            return;
+        }
+        int color = windowColorOf(desired);
+        if (windowBackground != null && window.getDecorView().getBackground() == windowBackground) {
+            windowBackground.setColor(color);
+            return;
         }
+        windowBackground = new ColorDrawable(color);
+        window.setBackgroundDrawable(windowBackground);
     }
 
     /**
-     * Set status bar style and color
+     * Set status bar style and color.
+     * Only records the desired state; the reconciler commits whatever actually changed
+     * once per frame. A null/empty color leaves the current color unchanged.
      */
     public void setStatusBarStyle(String style, String color) {
-        activity.runOnUiThread(() -> {
-            currentStatusBarStyle = style;
-            currentStatusBarColor = color;
-            boolean lightIcons = style.equals("DARK");
-
-            if (Build.VERSION.SDK_INT >= 35) {
-                insetsController.setAppearanceLightStatusBars(!lightIcons);
-
-                if (color != null && !color.isEmpty()) {
-                    setStatusBarBgColor(color);
-                    setWindowBackground(color);
-                }
-
-            } else if (Build.VERSION.SDK_INT >= 30) {
-                insetsController.setAppearanceLightStatusBars(!lightIcons);
-
-                if (color != null && !color.isEmpty()) {
-                    try {
-                        int parsedStatusColor = Color.parseColor(color);
-                        window.setStatusBarColor(parsedStatusColor);
-                        window.setBackgroundDrawable(new ColorDrawable(parsedStatusColor));
-                    } catch (IllegalArgumentException e) {
-                        Log.w(TAG, "Invalid status bar color: " + color);
-                    }
-                }
-
-            } else if (Build.VERSION.SDK_INT >= 23) {
-                View decorView = window.getDecorView();
-                int flags = decorView.getSystemUiVisibility();
-
-                if (lightIcons) {
-                    flags &= ~View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR;
-                } else {
-                    flags |= View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR;
-                }
-
-                decorView.setSystemUiVisibility(flags);
-
-                if (color != null && !color.isEmpty()) {
-                    try {
-                        int parsedStatusColor = Color.parseColor(color);
-                        window.setStatusBarColor(parsedStatusColor);
-                        window.setBackgroundDrawable(new ColorDrawable(parsedStatusColor));
-                    } catch (IllegalArgumentException e) {
-                        Log.w(TAG, "Invalid status bar color: " + color);
-                    }
-                }
+        setStatusBarStyle(style, color, null);
+    }
+
+    /**
+     * Set status bar style and color, animating the color change in edge-to-edge mode when
+     * a transition is given (ignored on the legacy path and when the color does not change).
+     */
+    public void setStatusBarStyle(String style, String color, BarTransition transition) {
+        int fields = SystemBarsState.FIELD_STATUS_ICONS;
+        int parsedColor = 0;
+        if (color != null && !color.isEmpty()) {
+            try {
+                parsedColor = colorParser.parse(color);
+                fields |= SystemBarsState.FIELD_STATUS_COLOR;
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Invalid status bar color: " + color);
             }
-        });
+        }
+
+        int icons = SystemBarsState.iconsForStyle(style);
+        boolean hasColor = (fields & SystemBarsState.FIELD_STATUS_COLOR) != 0;
+        recorder.record(FlightRecorder.OP_STYLE_REQUEST, FlightRecorder.BAR_STATUS,
+                icons | (hasColor ? FlightRecorder.STYLE_HAS_COLOR : 0), parsedColor, 0);
+
+        synchronized (stateLock) {
+            SystemBarsState next = desiredState.withStatusIcons(icons);
+            if (hasColor) {
+                next = next.withStatusColor(parsedColor);
+                pendingStatusTransition = transition;
+            }
+            desiredState = next;
+            requestedFields |= fields;
+        }
+        scheduleReconcile();
     }
 
     /**
-     * Set navigation bar style and color
+     * Set navigation bar style and color.
+     * Same semantics as {@link #setStatusBarStyle(String, String)}.
      */
     public void setNavigationBarStyle(String style, String color) {
-        activity.runOnUiThread(() -> {
-            currentNavBarStyle = style;
-            currentNavBarColor = color;
-            boolean lightIcons = style.equals("DARK");
-
-            if (Build.VERSION.SDK_INT >= 35) {
-                insetsController.setAppearanceLightNavigationBars(!lightIcons);
-
-                if (color != null && !color.isEmpty()) {
-                    setNavBarBgColor(color);
-                }
-
-            } else if (Build.VERSION.SDK_INT >= 30) {
-                insetsController.setAppearanceLightNavigationBars(!lightIcons);
-
-                if (color != null && !color.isEmpty()) {
-                    try {
-                        window.setNavigationBarColor(Color.parseColor(color));
-                    } catch (IllegalArgumentException e) {
-                        Log.w(TAG, "Invalid navigation bar color: " + color);
-                    }
-                }
-
-            } else if (Build.VERSION.SDK_INT >= 26) {
-                View decorView = window.getDecorView();
-                int flags = decorView.getSystemUiVisibility();
-
-                if (lightIcons) {
-                    flags &= ~View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR;
-                } else {
-                    flags |= View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR;
-                }
-
-                decorView.setSystemUiVisibility(flags);
-
-                if (color != null && !color.isEmpty()) {
-                    try {
-                        window.setNavigationBarColor(Color.parseColor(color));
-                    } catch (IllegalArgumentException e) {
-                        Log.w(TAG, "Invalid navigation bar color: " + color);
-                    }
-                }
+        setNavigationBarStyle(style, color, null);
+    }
+
+    /**
+     * Same semantics as {@link #setStatusBarStyle(String, String, BarTransition)}.
+     */
+    public void setNavigationBarStyle(String style, String color, BarTransition transition) {
+        int fields = SystemBarsState.FIELD_NAV_ICONS;
+        int parsedColor = 0;
+        if (color != null && !color.isEmpty()) {
+            try {
+                parsedColor = colorParser.parse(color);
+                fields |= SystemBarsState.FIELD_NAV_COLOR;
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Invalid navigation bar color: " + color);
             }
-        });
+        }
+
+        int icons = SystemBarsState.iconsForStyle(style);
+        boolean hasColor = (fields & SystemBarsState.FIELD_NAV_COLOR) != 0;
+        recorder.record(FlightRecorder.OP_STYLE_REQUEST, FlightRecorder.BAR_NAVIGATION,
+                icons | (hasColor ? FlightRecorder.STYLE_HAS_COLOR : 0), parsedColor, 0);
+
+        synchronized (stateLock) {
+            SystemBarsState next = desiredState.withNavIcons(icons);
+            if (hasColor) {
+                next = next.withNavColor(parsedColor);
+                pendingNavTransition = transition;
+            }
+            desiredState = next;
+            requestedFields |= fields;
+        }
+        scheduleReconcile();
     }
 
-    public void hideStatusBar() {
-        activity.runOnUiThread(() -> {
-            statusBarVisible = false;
-            if (Build.VERSION.SDK_INT >= 30) {
-                insetsController.hide(WindowInsetsCompat.Type.statusBars());
+    /**
+     * Parse a theme definition with the shared color cache (any thread).
+     */
+    public BarTheme parseTheme(JSONObject json) {
+        return BarTheme.fromJSON(json, colorParser);
+    }
+
+    /**
+     * Apply a registered theme: both bars and the window background from pre-parsed
+     * values, in one state update. Nothing is parsed here; unset parts keep their current
+     * value, except the window background, which follows the status color unless the
+     * theme sets its own.
+     */
+    public void applyTheme(BarTheme theme, BarTransition transition) {
+        int fields = theme.getFields();
+        boolean hasStatusColor = (fields & SystemBarsState.FIELD_STATUS_COLOR) != 0;
+        boolean hasNavColor = (fields & SystemBarsState.FIELD_NAV_COLOR) != 0;
+        recorder.record(FlightRecorder.OP_STYLE_REQUEST, FlightRecorder.BAR_STATUS,
+                theme.getStatusIcons() | (hasStatusColor ? FlightRecorder.STYLE_HAS_COLOR : 0),
+                theme.getStatusColor(), 0);
+        recorder.record(FlightRecorder.OP_STYLE_REQUEST, FlightRecorder.BAR_NAVIGATION,
+                theme.getNavIcons() | (hasNavColor ? FlightRecorder.STYLE_HAS_COLOR : 0),
+                theme.getNavColor(), 0);
+
+        synchronized (stateLock) {
+            SystemBarsState next = desiredState;
+            if (theme.getStatusIcons() != SystemBarsState.ICONS_UNSET) {
+                next = next.withStatusIcons(theme.getStatusIcons());
+            }
+            if (theme.getNavIcons() != SystemBarsState.ICONS_UNSET) {
+                next = next.withNavIcons(theme.getNavIcons());
+            }
+            if (hasStatusColor) {
+                next = next.withStatusColor(theme.getStatusColor());
+                pendingStatusTransition = transition;
+            }
+            if (hasNavColor) {
+                next = next.withNavColor(theme.getNavColor());
+                pendingNavTransition = transition;
+            }
+            next = (fields & SystemBarsState.FIELD_WINDOW_COLOR) != 0
+                    ? next.withWindowColor(theme.getWindowColor())
+                    : next.withoutWindowColor();
+            desiredState = next;
+            requestedFields |= fields | SystemBarsState.FIELD_WINDOW_COLOR;
+        }
+        scheduleReconcile();
+    }
+
+    private void scheduleReconcile() {
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, this::reconcile);
+    }
+
+    /**
+     * Push the desired state to the window, touching only fields that differ from the
+     * last applied state. Runs on the main thread from the scheduler's frame commit.
+     */
+    private void reconcile() {
+        SystemBarsState desired;
+        int requested;
+        BarTransition statusTransition;
+        BarTransition navTransition;
+        synchronized (stateLock) {
+            desired = desiredState;
+            requested = requestedFields;
+            requestedFields = 0;
+            statusTransition = pendingStatusTransition;
+            navTransition = pendingNavTransition;
+            pendingStatusTransition = null;
+            pendingNavTransition = null;
+        }
+
+        int changed = desired.diff(appliedState);
+        // Visibility/fullscreen are applied directly by FullscreenManager and recorded via
+        // setBarVisibility()/setFullscreenMode(); only styles and explicit show/hide land here.
+        if ((changed & SystemBarsState.FIELD_STATUS_ICONS) != 0) {
+            boolean light = desired.getStatusIcons() == SystemBarsState.ICONS_LIGHT;
+            recorder.record(FlightRecorder.OP_APPLY_ICONS, FlightRecorder.BAR_STATUS, light ? 1 : 0);
+            applyStatusBarAppearance(light);
+        }
+        if ((changed & SystemBarsState.FIELD_STATUS_COLOR) != 0) {
+            recorder.record(FlightRecorder.OP_APPLY_COLOR, FlightRecorder.BAR_STATUS, 0, desired.getStatusColor(), 0);
+            applyStatusBarColor(desired.getStatusColor(), statusTransition);
+        }
+        if ((changed & SystemBarsState.FIELD_NAV_ICONS) != 0) {
+            boolean light = desired.getNavIcons() == SystemBarsState.ICONS_LIGHT;
+            recorder.record(FlightRecorder.OP_APPLY_ICONS, FlightRecorder.BAR_NAVIGATION, light ? 1 : 0);
+            applyNavigationBarAppearance(light);
+        }
+        if ((changed & SystemBarsState.FIELD_NAV_COLOR) != 0) {
+            recorder.record(FlightRecorder.OP_APPLY_COLOR, FlightRecorder.BAR_NAVIGATION, 0, desired.getNavColor(), 0);
+            applyNavigationBarColor(desired.getNavColor(), navTransition);
+        }
+        // The window background follows the status color unless a theme overrides it
+        boolean windowChanged = (changed & SystemBarsState.FIELD_WINDOW_COLOR) != 0
+                || ((changed & SystemBarsState.FIELD_STATUS_COLOR) != 0 && !desired.hasWindowColor());
+        if (windowChanged && Build.VERSION.SDK_INT >= 23
+                && (desired.hasWindowColor() || desired.hasStatusColor() || barBackground != null)) {
+            setWindowBackground(desired);
+        }
+        if ((changed & SystemBarsState.FIELD_STATUS_VISIBLE) != 0) {
+            recorder.record(FlightRecorder.OP_APPLY_VISIBILITY, FlightRecorder.BAR_STATUS, desired.isStatusVisible() ? 1 : 0);
+            applyStatusBarVisibility(desired.isStatusVisible());
+        }
+        if ((changed & SystemBarsState.FIELD_NAV_VISIBLE) != 0) {
+            recorder.record(FlightRecorder.OP_APPLY_VISIBILITY, FlightRecorder.BAR_NAVIGATION, desired.isNavVisible() ? 1 : 0);
+            applyNavigationBarVisibility(desired.isNavVisible());
+        }
+
+        appliedState = desired;
+        if (stateStore != null && (changed & STYLE_FIELDS) != 0) {
+            stateStore.save(desired);
+        }
+        appliedOperations.addAndGet(Integer.bitCount(changed & ~SystemBarsState.FIELD_FULLSCREEN));
+        skippedOperations.addAndGet(Integer.bitCount(requested & ~changed));
+    }
+
+    private void applyStatusBarAppearance(boolean lightIcons) {
+        if (Build.VERSION.SDK_INT >= 30) {
+            insetsController.setAppearanceLightStatusBars(!lightIcons);
+        } else if (Build.VERSION.SDK_INT >= 23) {
+            requestSystemUiFlags(SystemBarsState.FIELD_STATUS_ICONS);
+        }
+    }
+
+    private void applyStatusBarColor(int color, BarTransition transition) {
+        // While scroll-linked mode drives the bar, only the applied state follows
+        boolean scrollLinked = scrollLinkedColorActive;
+        if (EdgeToEdgeMode.isActive()) {
+            if (!scrollLinked) {
+                barColorAnimator.setStatusColor(color, transition);
+            }
+        } else if (Build.VERSION.SDK_INT >= 23) {
+            if (!scrollLinked) {
+                window.setStatusBarColor(color);
+            }
+        }
+    }
+
+    private static int windowColorOf(SystemBarsState state) {
+        return state.hasWindowColor() ? state.getWindowColor() : state.getStatusColor();
+    }
+
+    private static int barFillColorOf(SystemBarsState state) {
+        return state.hasWindowColor() ? state.getWindowColor() : Color.TRANSPARENT;
+    }
+
+    /**
+     * Scroll-linked mode: paint one LUT color on the status bar (main thread, per frame).
+     * Recolors in place; no reconcile, no allocation.
+     */
+    void applyScrollLinkedStatusColor(int color) {
+        scrollLinkedColorActive = true;
+        if (EdgeToEdgeMode.isActive()) {
+            barColorAnimator.setStatusColor(color, null);
+        } else {
+            window.setStatusBarColor(color);
+        }
+    }
+
+    /**
+     * Scroll-linked mode ended: put the regular status bar color back (main thread).
+     */
+    void onScrollLinkedColorStopped() {
+        scrollLinkedColorActive = false;
+        SystemBarsState applied = appliedState;
+        if (applied.hasStatusColor()) {
+            if (EdgeToEdgeMode.isActive()) {
+                barColorAnimator.setStatusColor(applied.getStatusColor(), null);
             } else {
-                View decorView = window.getDecorView();
-                int flags = decorView.getSystemUiVisibility();
-                flags |= View.SYSTEM_UI_FLAG_FULLSCREEN;
-                decorView.setSystemUiVisibility(flags);
+                window.setStatusBarColor(applied.getStatusColor());
             }
-        });
+        }
+    }
+
+    private void applyNavigationBarAppearance(boolean lightIcons) {
+        if (Build.VERSION.SDK_INT >= 30) {
+            insetsController.setAppearanceLightNavigationBars(!lightIcons);
+        } else if (Build.VERSION.SDK_INT >= 26) {
+            requestSystemUiFlags(SystemBarsState.FIELD_NAV_ICONS);
+        }
+    }
+
+    private void applyNavigationBarColor(int color, BarTransition transition) {
+        if (EdgeToEdgeMode.isActive()) {
+            if (barBackground != null) {
+                installBarBackground();
+            }
+            barColorAnimator.setNavColor(color, transition);
+        } else if (Build.VERSION.SDK_INT >= 26) {
+            window.setNavigationBarColor(color);
+        }
+    }
+
+    public void hideStatusBar() {
+        setStatusBarVisible(false);
     }
 
     public void showStatusBar() {
-        activity.runOnUiThread(() -> {
-            statusBarVisible = true;
-            if (Build.VERSION.SDK_INT >= 30) {
+        setStatusBarVisible(true);
+    }
+
+    private void setStatusBarVisible(boolean visible) {
+        synchronized (stateLock) {
+            desiredState = desiredState.withStatusVisible(visible);
+            requestedFields |= SystemBarsState.FIELD_STATUS_VISIBLE;
+        }
+        scheduleReconcile();
+    }
+
+    private void applyStatusBarVisibility(boolean visible) {
+        if (Build.VERSION.SDK_INT >= 30) {
+            if (visible) {
                 insetsController.show(WindowInsetsCompat.Type.statusBars());
             } else {
-                View decorView = window.getDecorView();
-                int flags = decorView.getSystemUiVisibility();
-                flags &= ~View.SYSTEM_UI_FLAG_FULLSCREEN;
-                decorView.setSystemUiVisibility(flags);
+                insetsController.hide(WindowInsetsCompat.Type.statusBars());
             }
-        });
+        } else {
+            requestSystemUiFlags(SystemBarsState.FIELD_STATUS_VISIBLE);
+        }
     }
 
     public void hideNavigationBar() {
-        activity.runOnUiThread(() -> {
-            navigationBarVisible = false;
-            if (Build.VERSION.SDK_INT >= 30) {
-                insetsController.hide(WindowInsetsCompat.Type.navigationBars());
-            } else {
-                View decorView = window.getDecorView();
-                int flags = decorView.getSystemUiVisibility();
-                flags |= View.SYSTEM_UI_FLAG_HIDE_NAVIGATION;
-                decorView.setSystemUiVisibility(flags);
-            }
-        });
+        setNavigationBarVisible(false);
     }
 
     public void showNavigationBar() {
-        activity.runOnUiThread(() -> {
-            navigationBarVisible = true;
-            if (Build.VERSION.SDK_INT >= 30) {
+        setNavigationBarVisible(true);
+    }
+
+    private void setNavigationBarVisible(boolean visible) {
+        synchronized (stateLock) {
+            desiredState = desiredState.withNavVisible(visible);
+            requestedFields |= SystemBarsState.FIELD_NAV_VISIBLE;
+        }
+        scheduleReconcile();
+    }
+
+    private void applyNavigationBarVisibility(boolean visible) {
+        if (Build.VERSION.SDK_INT >= 30) {
+            if (visible) {
                 insetsController.show(WindowInsetsCompat.Type.navigationBars());
             } else {
-                View decorView = window.getDecorView();
-                int flags = decorView.getSystemUiVisibility();
-                flags &= ~View.SYSTEM_UI_FLAG_HIDE_NAVIGATION;
-                decorView.setSystemUiVisibility(flags);
+                insetsController.hide(WindowInsetsCompat.Type.navigationBars());
             }
-        });
+        } else {
+            requestSystemUiFlags(SystemBarsState.FIELD_NAV_VISIBLE);
+        }
     }
 
     /**
      * Set overlay mode — safe no-op.
      */
     public void setOverlayMode(boolean overlay) {
-        Log.d(TAG, "setOverlayMode(" + overlay + ") - no-op, edge-to-edge handled by initialize()");
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "setOverlayMode(" + overlay + ") - no-op, edge-to-edge handled by initialize()");
+        }
     }
 
     /**
      * Get current window insets information.
      * Values are in CSS px (dp), not Android hardware px.
+     *
+     * Served from the published snapshot: constant time, safe from any thread, no view
+     * tree access. Returns only {unchanged, version} when the caller already holds the
+     * current version (ifNewerThan >= version), and null while nothing has been published;
+     * then call readInsets() on the main thread.
      */
-    public JSObject getInsets() {
-        JSObject result = new JSObject();
+    public JSObject getInsets(long ifNewerThan) {
+        InsetsSnapshot snapshot = insetsSnapshot;
+        return snapshot.getVersion() > 0 ? snapshot.toResult(ifNewerThan) : null;
+    }
 
-        View decorView = window.getDecorView();
-        WindowInsetsCompat windowInsets = ViewCompat.getRootWindowInsets(decorView);
-
-        if (windowInsets != null) {
-            Insets bars = windowInsets.getInsets(WindowInsetsCompat.Type.systemBars());
-            result.put("top", Math.round(bars.top / density));
-            result.put("bottom", Math.round(bars.bottom / density));
-            result.put("left", Math.round(bars.left / density));
-            result.put("right", Math.round(bars.right / density));
-        } else {
-            result.put("top", 0);
-            result.put("bottom", 0);
-            result.put("left", 0);
-            result.put("right", 0);
+    /**
+     * getInsets() before the first published snapshot (main thread): publishes the root
+     * window insets, or returns zero insets (version 0) if the window has none yet.
+     */
+    public JSObject readInsets(long ifNewerThan) {
+        if (insetsSnapshot.getVersion() == 0) {
+            WindowInsetsCompat windowInsets = ViewCompat.getRootWindowInsets(window.getDecorView());
+            if (windowInsets != null) {
+                publishInsets(windowInsets);
+            }
         }
+        return insetsSnapshot.toResult(ifNewerThan);
+    }
 
-        result.put("statusBarVisible", statusBarVisible);
-        result.put("navigationBarVisible", navigationBarVisible);
+    /**
+     * Called from every plugin inset listener with the insets being dispatched (main thread).
+     * Feeds the insets snapshot, the insetsChanged event and the CSS custom properties;
+     * duplicate dispatches are filtered by each consumer.
+     */
+    public void onInsetsDispatched(WindowInsetsCompat windowInsets) {
+        if (cssInsetsInjector != null) {
+            cssInsetsInjector.onInsets(windowInsets);
+        }
+        InsetsSnapshot snapshot = publishInsets(windowInsets);
+        insetsNotifier.onInsets(snapshot.getTop(), snapshot.getBottom(), snapshot.getLeft(),
+                snapshot.getRight(), snapshot.isStatusBarVisible(), snapshot.isNavigationBarVisible());
+    }
 
-        return result;
+    /**
+     * Publish the insets snapshot read by getInsets() (main thread). Called for every
+     * dispatch in edge-to-edge mode and, on the legacy path, whenever the padding manager
+     * measures the bars. Returns the current snapshot.
+     */
+    InsetsSnapshot publishInsets(WindowInsetsCompat windowInsets) {
+        Insets bars = windowInsets.getInsets(WindowInsetsCompat.Type.systemBars());
+        int top = Math.round(bars.top / density);
+        int bottom = Math.round(bars.bottom / density);
+        int left = Math.round(bars.left / density);
+        int right = Math.round(bars.right / density);
+        boolean statusVisible = windowInsets.isVisible(WindowInsetsCompat.Type.statusBars());
+        boolean navVisible = windowInsets.isVisible(WindowInsetsCompat.Type.navigationBars());
+
+        // Only a real change bumps the version, so getInsets({ ifNewerThan }) stays "unchanged"
+        InsetsSnapshot snapshot = insetsSnapshot;
+        if (snapshot.getVersion() == 0
+                || !snapshot.sameValues(top, bottom, left, right, statusVisible, navVisible)) {
+            insetsSnapshot = new InsetsSnapshot(snapshot.getVersion() + 1,
+                    top, bottom, left, right, statusVisible, navVisible);
+            recorder.record(FlightRecorder.OP_INSETS, FlightRecorder.BAR_BOTH,
+                    (statusVisible ? 1 : 0) | (navVisible ? 2 : 0), 0,
+                    FlightRecorder.packInsets(left, top, right, bottom));
+        }
+        return insetsSnapshot;
     }
 
     /**
-     * Update visibility tracking (called by FullscreenManager)
+     * Version of the last published insets snapshot (0 = none yet).
+     */
+    public long getInsetsVersion() {
+        return insetsSnapshot.getVersion();
+    }
+
+    public ColorParser getColorParser() {
+        return colorParser;
+    }
+
+    public InsetsChangeNotifier getInsetsNotifier() {
+        return insetsNotifier;
+    }
+
+    public void setCssInsetsInjector(CssInsetsInjector injector) {
+        this.cssInsetsInjector = injector;
+    }
+
+    /**
+     * Record bar visibility that FullscreenManager already applied to the window.
+     * Must be called on the main thread: it updates the applied state as well, so the
+     * reconciler does not repeat the show/hide.
      */
     public void setBarVisibility(boolean statusVisible, boolean navVisible) {
-        this.statusBarVisible = statusVisible;
-        this.navigationBarVisible = navVisible;
+        synchronized (stateLock) {
+            desiredState = desiredState.withStatusVisible(statusVisible).withNavVisible(navVisible);
+        }
+        appliedState = appliedState.withStatusVisible(statusVisible).withNavVisible(navVisible);
+    }
+
+    /**
+     * Record the fullscreen mode FullscreenManager applied (main thread).
+     */
+    public void setFullscreenMode(int mode) {
+        synchronized (stateLock) {
+            desiredState = desiredState.withFullscreenMode(mode);
+        }
+        appliedState = appliedState.withFullscreenMode(mode);
+    }
+
+    /**
+     * Draw the bar backgrounds with one window background drawable instead of two Views
+     * (edge-to-edge mode only; the legacy architecture colors the window's own bars).
+     * Call before initialize().
+     */
+    public void setDrawableBarBackground(boolean enabled) {
+        this.drawableBarBackground = enabled;
+    }
+
+    /**
+     * Persist committed styles through this store from now on.
+     */
+    public void setStateStore(BarStateStore store) {
+        this.stateStore = store;
+    }
+
+    /**
+     * Adopt persisted styles as the desired state (icons and colors that were set).
+     * Call before initialize() so they are part of the first commit.
+     */
+    public void restoreState(SystemBarsState restored) {
+        synchronized (stateLock) {
+            SystemBarsState next = desiredState;
+            if (restored.getStatusIcons() != SystemBarsState.ICONS_UNSET) {
+                next = next.withStatusIcons(restored.getStatusIcons());
+            }
+            if (restored.getNavIcons() != SystemBarsState.ICONS_UNSET) {
+                next = next.withNavIcons(restored.getNavIcons());
+            }
+            if (restored.hasStatusColor()) {
+                next = next.withStatusColor(restored.getStatusColor());
+            }
+            if (restored.hasNavColor()) {
+                next = next.withNavColor(restored.getNavColor());
+            }
+            if (restored.hasWindowColor()) {
+                next = next.withWindowColor(restored.getWindowColor());
+            }
+            desiredState = next;
+        }
+    }
+
+    /**
+     * Snapshot of what the plugin currently wants on the bars.
+     */
+    public SystemBarsState getDesiredState() {
+        return desiredState;
+    }
+
+    /**
+     * Reconciler counters: window operations performed vs. requested no-ops skipped.
+     */
+    public JSObject getReconcileStats() {
+        JSObject result = new JSObject();
+        result.put("appliedOperations", appliedOperations.get());
+        result.put("skippedOperations", skippedOperations.get());
+        return result;
+    }
+
+    /**
+     * Scheduler/listener metrics plus the reconciler counters, for getPerformanceStats().
+     * With reset, every reported counter starts over, the reconciler's included.
+     */
+    public JSObject getPerformanceStats(boolean reset) {
+        JSObject result = scheduler.getStats().toJSObject();
+        if (reset) {
+            scheduler.getStats().reset();
+            // getAndSet: an operation counted between the read and the reset is not lost
+            result.put("appliedOperations", appliedOperations.getAndSet(0));
+            result.put("skippedOperations", skippedOperations.getAndSet(0));
+        } else {
+            result.put("appliedOperations", appliedOperations.get());
+            result.put("skippedOperations", skippedOperations.get());
+        }
+        return result;
+    }
+
+    /**
+     * Re-install the base system UI (edge-to-edge declaration, bar backgrounds) and leave
+     * the applied styles alone. Used on fullscreen exit, where the restore callback is the
+     * only style write.
+     */
+    void reapplyBaseSystemUI() {
+        scheduler.submit(BarCommandScheduler.Slot.SYSTEM_UI, this::applyBaseSystemUI);
     }
 
     /**
      * Re-apply system UI state after lifecycle events (screen unlock, etc.)
      */
     public void reapplySystemUI() {
-        activity.runOnUiThread(() -> {
-            if (Build.VERSION.SDK_INT >= 35) {
-                initializeEdgeToEdge();
-            } else {
-                setupLegacySystemUI();
+        scheduler.submit(BarCommandScheduler.Slot.SYSTEM_UI, () -> {
+            applyBaseSystemUI();
+            // The system (or another plugin) may have reset appearance and colors, so the
+            // applied snapshot can't be trusted: forget it and let the reconciler re-push.
+            appliedState = appliedState.withoutStyles();
+        });
+        scheduleReconcile();
+    }
+
+    /**
+     * Lifecycle pass (main thread): read back the base system UI, icon appearance, bar
+     * colors and visibility, compare them with what was applied, and re-push only the
+     * fields that drifted. Returns the number of corrected fields.
+     */
+    int correctDrift() {
+        int corrections = 0;
+        if (baseSystemUIDrifted()) {
+            applyBaseSystemUI();
+            corrections++;
+        }
+
+        int drifted = driftedFields();
+        if (drifted != 0) {
+            appliedState = appliedState.withoutFields(drifted);
+            reconcile();
+            corrections += Integer.bitCount(drifted);
+        }
+        return corrections;
+    }
+
+    private boolean baseSystemUIDrifted() {
+        if (EdgeToEdgeMode.isActive()) {
+            boolean barsOpaque = Build.VERSION.SDK_INT < 35
+                    && (window.getStatusBarColor() != Color.TRANSPARENT
+                            || window.getNavigationBarColor() != Color.TRANSPARENT);
+            return barsOpaque
+                    || insetsController.getSystemBarsBehavior() != WindowInsetsControllerCompat.BEHAVIOR_DEFAULT
+                    || window.isStatusBarContrastEnforced()
+                    || window.isNavigationBarContrastEnforced();
+        }
+        return (window.getDecorView().getSystemUiVisibility() & View.SYSTEM_UI_FLAG_LAYOUT_STABLE) == 0;
+    }
+
+    /**
+     * Applied fields the window no longer shows. Unset styles are never compared.
+     */
+    private int driftedFields() {
+        SystemBarsState applied = appliedState;
+        View decorView = window.getDecorView();
+        int flags = decorView.getSystemUiVisibility();
+        int drifted = 0;
+
+        // A light appearance (dark icons) is what ICONS_DARK applies
+        if (applied.getStatusIcons() != SystemBarsState.ICONS_UNSET && Build.VERSION.SDK_INT >= 23) {
+            boolean lightAppearance = Build.VERSION.SDK_INT >= 30
+                    ? insetsController.isAppearanceLightStatusBars()
+                    : (flags & View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR) != 0;
+            if (lightAppearance != (applied.getStatusIcons() == SystemBarsState.ICONS_DARK)) {
+                drifted |= SystemBarsState.FIELD_STATUS_ICONS;
+            }
+        }
+        if (applied.getNavIcons() != SystemBarsState.ICONS_UNSET && Build.VERSION.SDK_INT >= 26) {
+            boolean lightAppearance = Build.VERSION.SDK_INT >= 30
+                    ? insetsController.isAppearanceLightNavigationBars()
+                    : (flags & View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR) != 0;
+            if (lightAppearance != (applied.getNavIcons() == SystemBarsState.ICONS_DARK)) {
+                drifted |= SystemBarsState.FIELD_NAV_ICONS;
             }
+        }
 
-            if (currentStatusBarStyle != null) {
-                setStatusBarStyle(currentStatusBarStyle, currentStatusBarColor);
+        if (applied.hasStatusColor() && Build.VERSION.SDK_INT >= 23) {
+            boolean barDrifted;
+            if (barBackground != null) {
+                barDrifted = barBackground.getStatusColor() != barColorAnimator.getStatusColor();
+            } else if (EdgeToEdgeMode.isActive()) {
+                // Compared with the animator, which knows the mid-transition color
+                barDrifted = statusBarBgView != null
+                        && backgroundColorOf(statusBarBgView) != barColorAnimator.getStatusColor();
+            } else {
+                barDrifted = !scrollLinkedColorActive && window.getStatusBarColor() != applied.getStatusColor();
             }
-            if (currentNavBarStyle != null) {
-                setNavigationBarStyle(currentNavBarStyle, currentNavBarColor);
+            if (barDrifted) {
+                drifted |= SystemBarsState.FIELD_STATUS_COLOR;
             }
-        });
+        }
+        if ((applied.hasWindowColor() || applied.hasStatusColor()) && Build.VERSION.SDK_INT >= 23) {
+            boolean backgroundDrifted = barBackground != null
+                    ? decorView.getBackground() != barBackground
+                            || barBackground.getFillColor() != barFillColorOf(applied)
+                    : windowBackground == null
+                            || decorView.getBackground() != windowBackground
+                            || windowBackground.getColor() != windowColorOf(applied);
+            if (backgroundDrifted) {
+                drifted |= SystemBarsState.FIELD_WINDOW_COLOR;
+            }
+        }
+        if (applied.hasNavColor() && Build.VERSION.SDK_INT >= 26) {
+            boolean barDrifted;
+            if (barBackground != null) {
+                barDrifted = decorView.getBackground() != barBackground
+                        || barBackground.getNavColor() != barColorAnimator.getNavColor();
+            } else if (EdgeToEdgeMode.isActive()) {
+                barDrifted = navBarBgView != null && backgroundColorOf(navBarBgView) != barColorAnimator.getNavColor();
+            } else {
+                barDrifted = window.getNavigationBarColor() != applied.getNavColor();
+            }
+            if (barDrifted) {
+                drifted |= SystemBarsState.FIELD_NAV_COLOR;
+            }
+        }
+
+        boolean statusVisible;
+        boolean navVisible;
+        if (Build.VERSION.SDK_INT >= 30) {
+            WindowInsetsCompat insets = ViewCompat.getRootWindowInsets(decorView);
+            if (insets == null) return drifted;
+            statusVisible = insets.isVisible(WindowInsetsCompat.Type.statusBars());
+            navVisible = insets.isVisible(WindowInsetsCompat.Type.navigationBars());
+        } else {
+            statusVisible = (flags & View.SYSTEM_UI_FLAG_FULLSCREEN) == 0;
+            navVisible = (flags & View.SYSTEM_UI_FLAG_HIDE_NAVIGATION) == 0;
+        }
+        if (statusVisible != applied.isStatusVisible()) {
+            drifted |= SystemBarsState.FIELD_STATUS_VISIBLE;
+        }
+        if (navVisible != applied.isNavVisible()) {
+            drifted |= SystemBarsState.FIELD_NAV_VISIBLE;
+        }
+        return drifted;
+    }
+
+    private static int backgroundColorOf(View view) {
+        Drawable background = view.getBackground();
+        return background instanceof ColorDrawable ? ((ColorDrawable) background).getColor() : Color.TRANSPARENT;
     }
 }
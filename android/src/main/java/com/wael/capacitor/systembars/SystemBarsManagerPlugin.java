@@ -2,36 +2,209 @@ package com.wael.capacitor.systembars;
 
 import android.content.res.Configuration;
 import android.os.Build;
+import android.util.Log;
+import android.webkit.WebView;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginConfig;
 import com.getcapacitor.PluginMethod;
+import com.getcapacitor.WebViewListener;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.json.JSONObject;
 
 @CapacitorPlugin(name = "AndroidSystemBars")
 public class SystemBarsManagerPlugin extends Plugin {
 
+    private static final String TAG = "SystemBarsManagerPlugin";
+
+    static final String INSETS_CHANGED_EVENT = "insetsChanged";
+    static final String SYSTEM_THEME_CHANGED_EVENT = "systemThemeChanged";
+
+    private static final String TRANSLATION_NEEDS_CSS_INSETS =
+            "The 'translation' insets strategy needs the injectCssInsets plugin config";
+
+    private BarCommandScheduler scheduler;
     private SystemBarsManager systemBarsManager;
     private WebViewPaddingManager paddingManager;
     private FullscreenManager fullscreenManager;
     private LifecycleHandler lifecycleHandler;
+    private ScrollLinkedBarColor scrollLinkedBarColor;
+    private SystemThemeFollower systemThemeFollower;
+    private boolean cssInsetsInjected = false;
+
+    // Registered themes by id, parsed once by registerThemes()
+    private final Map<String, BarTheme> themes = new ConcurrentHashMap<>();
 
     @Override
     public void load() {
         super.load();
-        systemBarsManager = new SystemBarsManager(getActivity());
-        paddingManager = new WebViewPaddingManager(bridge.getWebView());
-        fullscreenManager = new FullscreenManager(getActivity(), systemBarsManager, paddingManager);
+        DebugLog.setEnabled(getConfig().getBoolean("debugLogging", false));
+        // Picks the architecture on 30-34; must be set before the managers are created
+        EdgeToEdgeMode.setUnifiedFrom30(getConfig().getBoolean("unifiedEdgeToEdge", false));
+        scheduler = new BarCommandScheduler();
+        systemBarsManager = new SystemBarsManager(getActivity(), scheduler);
+        paddingManager = new WebViewPaddingManager(bridge.getWebView(), scheduler);
+        fullscreenManager = new FullscreenManager(getActivity(), systemBarsManager, paddingManager, scheduler);
         lifecycleHandler = new LifecycleHandler(this);
 
         fullscreenManager.setWebView(bridge.getWebView());
+        systemBarsManager.getInsetsNotifier().setListener(this::notifyInsetsChanged);
+        systemThemeFollower = new SystemThemeFollower(systemBarsManager, scheduler);
+        systemThemeFollower.setListener(this::notifySystemThemeChanged);
+        cssInsetsInjected = getConfig().getBoolean("injectCssInsets", true);
+        if (cssInsetsInjected) {
+            installCssInsetsInjector();
+        }
+
+        scrollLinkedBarColor = new ScrollLinkedBarColor(bridge.getWebView(), systemBarsManager,
+                getActivity().getResources().getDisplayMetrics().density);
+        if (getConfig().getBoolean("scrollLinkedStatusBar", false)) {
+            // Before the first page load so window.AndroidSystemBarsScroll exists
+            scrollLinkedBarColor.installJavascriptInterface();
+        }
+
+        // Styles from capacitor.config are recorded first so initialize() commits them
+        // together with the base system UI, before the WebView's first frame
+        String startupFullscreen = applyStartupConfig();
+        if (getConfig().getBoolean("persistState", true)) {
+            // Runtime styles from the previous session are newer than the static config
+            BarStateStore stateStore = new BarStateStore(getContext());
+            SystemBarsState restored = stateStore.load();
+            if (restored != null) {
+                systemBarsManager.restoreState(restored);
+            }
+            systemBarsManager.setStateStore(stateStore);
+        }
+        // The current system mode decides over both the static and the restored styles
+        followStartupSystemThemes();
+        systemBarsManager.setDrawableBarBackground("drawable".equals(getConfig().getString("barBackground", "views")));
         systemBarsManager.initialize();
 
-        if (Build.VERSION.SDK_INT >= 35) {
+        if (EdgeToEdgeMode.isActive()) {
+            String insetsStrategy = getConfig().getString("insetsStrategy", InsetsStrategy.MARGINS);
+            if (!isInsetsStrategyAvailable(insetsStrategy)) {
+                Log.w(TAG, TRANSLATION_NEEDS_CSS_INSETS + "; using margins");
+            } else if (!InsetsStrategy.MARGINS.equals(insetsStrategy)) {
+                fullscreenManager.setInsetsStrategy(insetsStrategy);
+            }
             fullscreenManager.installBaseInsetsListener();
+            if (getConfig().getBoolean("animateKeyboardInsets", false)) {
+                fullscreenManager.setImeAnimationEnabled(true);
+            }
         } else {
+            // No plugin inset listener here; the padding measurements feed getInsets()
+            paddingManager.setInsetsListener(systemBarsManager::publishInsets);
             paddingManager.applyPadding();
         }
+
+        if (startupFullscreen != null) {
+            // After the base listener, which it replaces while fullscreen
+            fullscreenManager.enterFullscreen(startupFullscreen);
+        }
+        scheduler.commitNow();
+    }
+
+    /**
+     * Record the startup bar configuration from the plugin config:
+     *
+     *   "AndroidSystemBars": {
+     *     "style": "DARK", "color": "#121212",              (both bars)
+     *     "statusBar": { "style": "DARK", "color": "#121212" },
+     *     "navigationBar": { "style": "LIGHT", "color": "#FFFFFF" },
+     *     "fullscreen": "IMMERSIVE" | "LEAN"
+     *   }
+     *
+     * Per-bar values override the shorthand; a null value counts as unset. Returns the
+     * fullscreen mode to enter, or null.
+     */
+    private String applyStartupConfig() {
+        PluginConfig config = getConfig();
+        // Not config.getString(): it returns "null" for an explicit null
+        JSONObject root = config.getConfigJSON();
+        String globalStyle = BarTheme.optString(root, "style");
+        String globalColor = BarTheme.optString(root, "color");
+
+        String statusStyle = globalStyle;
+        String statusColor = globalColor;
+        JSONObject statusBarConfig = config.getObject("statusBar");
+        if (statusBarConfig != null) {
+            statusStyle = orDefault(BarTheme.optString(statusBarConfig, "style"), statusStyle);
+            statusColor = orDefault(BarTheme.optString(statusBarConfig, "color"), statusColor);
+        }
+
+        String navStyle = globalStyle;
+        String navColor = globalColor;
+        JSONObject navigationBarConfig = config.getObject("navigationBar");
+        if (navigationBarConfig != null) {
+            navStyle = orDefault(BarTheme.optString(navigationBarConfig, "style"), navStyle);
+            navColor = orDefault(BarTheme.optString(navigationBarConfig, "color"), navColor);
+        }
+
+        if (statusStyle != null || statusColor != null) {
+            systemBarsManager.setStatusBarStyle(statusStyle != null ? statusStyle : "DEFAULT", statusColor);
+        }
+        if (navStyle != null || navColor != null) {
+            systemBarsManager.setNavigationBarStyle(navStyle != null ? navStyle : "DEFAULT", navColor);
+        }
+
+        String fullscreen = BarTheme.optString(root, "fullscreen");
+        if ("IMMERSIVE".equals(fullscreen) || "LEAN".equals(fullscreen)) {
+            return fullscreen;
+        }
+        return null;
+    }
+
+    private static String orDefault(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Follow the system dark mode from the plugin config, so the first frame already uses
+     * the matching theme:
+     *
+     *   "systemThemes": {
+     *     "light": { "statusBar": { ... }, "navigationBar": { ... }, "windowBackground": ... },
+     *     "dark":  { ... }
+     *   }
+     */
+    private void followStartupSystemThemes() {
+        JSONObject systemThemes = getConfig().getObject("systemThemes");
+        if (systemThemes == null) return;
+
+        JSONObject light = systemThemes.optJSONObject("light");
+        JSONObject dark = systemThemes.optJSONObject("dark");
+        if (light == null || dark == null) {
+            Log.w(TAG, "systemThemes needs both a light and a dark theme");
+            return;
+        }
+        try {
+            systemThemeFollower.follow(systemBarsManager.parseTheme(light), systemBarsManager.parseTheme(dark),
+                    getActivity().getResources().getConfiguration());
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Invalid systemThemes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write insets as --asb-* CSS custom properties from the inset listeners, and re-write
+     * them after every page load (a reload starts with an empty :root style).
+     */
+    private void installCssInsetsInjector() {
+        float density = getActivity().getResources().getDisplayMetrics().density;
+        CssInsetsInjector injector = new CssInsetsInjector(bridge.getWebView(), density);
+        systemBarsManager.setCssInsetsInjector(injector);
+        bridge.addWebViewListener(new WebViewListener() {
+            @Override
+            public void onPageLoaded(WebView webView) {
+                injector.reinject();
+            }
+        });
     }
 
     @PluginMethod
@@ -43,7 +216,7 @@ public class SystemBarsManagerPlugin extends Plugin {
             JSObject result = new JSObject();
             result.put("apiLevel", apiLevel);
             result.put("isAndroid35Plus", isAndroid35Plus);
-            result.put("supportsEdgeToEdge", apiLevel >= 35);
+            result.put("supportsEdgeToEdge", EdgeToEdgeMode.isActive());
             result.put("supportsWindowInsets", apiLevel >= 30);
             // Return heights in dp (CSS px), not physical px
             float density = getActivity().getResources().getDisplayMetrics().density;
@@ -62,8 +235,8 @@ public class SystemBarsManagerPlugin extends Plugin {
         String color = call.getString("color");
 
         try {
-            systemBarsManager.setStatusBarStyle(style, color);
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to set style",
+                    () -> systemBarsManager.setStatusBarStyle(style, color));
         } catch (Exception e) {
             call.reject("Failed to set style", e);
         }
@@ -72,8 +245,8 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void hide(PluginCall call) {
         try {
-            systemBarsManager.hideStatusBar();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to hide status bar",
+                    systemBarsManager::hideStatusBar);
         } catch (Exception e) {
             call.reject("Failed to hide status bar", e);
         }
@@ -82,8 +255,8 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void show(PluginCall call) {
         try {
-            systemBarsManager.showStatusBar();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to show status bar",
+                    systemBarsManager::showStatusBar);
         } catch (Exception e) {
             call.reject("Failed to show status bar", e);
         }
@@ -94,8 +267,8 @@ public class SystemBarsManagerPlugin extends Plugin {
         String mode = call.getString("mode", "IMMERSIVE");
 
         try {
-            fullscreenManager.enterFullscreen(mode);
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.FULLSCREEN, "Failed to enter fullscreen",
+                    () -> fullscreenManager.enterFullscreen(mode));
         } catch (Exception e) {
             call.reject("Failed to enter fullscreen", e);
         }
@@ -104,77 +277,13 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void exitFullscreen(PluginCall call) {
         try {
-            // Check for new API structure
-            JSObject restoreConfig = call.getObject("restore");
-
-            if (restoreConfig != null) {
-                // New API: Handle restore configuration
-                String globalStyle = restoreConfig.getString("style");
-                String globalColor = restoreConfig.getString("color");
-
-                JSObject statusBarConfig = null;
-                JSObject navigationBarConfig = null;
-
-                if (restoreConfig.has("statusBar")) {
-                    try {
-                        statusBarConfig = restoreConfig.getJSObject("statusBar");
-                    } catch (Exception e) {
-                        // Handle if statusBar is not a JSObject
-                    }
-                }
+            // "restore" object (current API) or top-level style/color (backward compatibility)
+            RestoreStyles restore = RestoreStyles.fromOptions(
+                    call.getObject("restore"), call.getString("style"), call.getString("color"));
 
-                if (restoreConfig.has("navigationBar")) {
-                    try {
-                        navigationBarConfig = restoreConfig.getJSObject("navigationBar");
-                    } catch (Exception e) {
-                        // Handle if navigationBar is not a JSObject
-                    }
-                }
-
-                // Determine final configurations
-                String statusStyle = globalStyle != null ? globalStyle : "DEFAULT";
-                String statusColor = globalColor;
-                String navStyle = globalStyle != null ? globalStyle : "DEFAULT";
-                String navColor = globalColor;
-
-                // Override with individual configs if provided
-                if (statusBarConfig != null) {
-                    if (statusBarConfig.has("style")) {
-                        statusStyle = statusBarConfig.getString("style");
-                    }
-                    if (statusBarConfig.has("color")) {
-                        statusColor = statusBarConfig.getString("color");
-                    }
-                }
-
-                if (navigationBarConfig != null) {
-                    if (navigationBarConfig.has("style")) {
-                        navStyle = navigationBarConfig.getString("style");
-                    }
-                    if (navigationBarConfig.has("color")) {
-                        navColor = navigationBarConfig.getString("color");
-                    }
-                }
-
-                // Exit fullscreen with specific restoration
-                fullscreenManager.exitFullscreen(statusStyle, statusColor, navStyle, navColor);
-            } else {
-                // Check for legacy API (backward compatibility)
-                String legacyStyle = call.getString("style");
-                String legacyColor = call.getString("color");
-
-                if (legacyStyle != null || legacyColor != null) {
-                    // Legacy API: Apply to both bars
-                    fullscreenManager.exitFullscreen(
-                            legacyStyle != null ? legacyStyle : "DEFAULT",
-                            legacyColor);
-                } else {
-                    // No restore config: Exit to system default
-                    fullscreenManager.exitFullscreen();
-                }
-            }
-
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.FULLSCREEN, "Failed to exit fullscreen",
+                    () -> fullscreenManager.exitFullscreen(
+                            restore.statusStyle, restore.statusColor, restore.navStyle, restore.navColor));
         } catch (Exception e) {
             call.reject("Failed to exit fullscreen", e);
         }
@@ -196,21 +305,202 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void getInsets(PluginCall call) {
         try {
-            JSObject insets = systemBarsManager.getInsets();
-            call.resolve(insets);
+            Long ifNewerThanArg = call.getLong("ifNewerThan", -1L);
+            long ifNewerThan = ifNewerThanArg != null ? ifNewerThanArg : -1L;
+            JSObject insets = systemBarsManager.getInsets(ifNewerThan);
+            if (insets != null) {
+                call.resolve(insets);
+                return;
+            }
+            // Nothing published yet: the root insets can only be read on the main thread
+            getActivity().runOnUiThread(() -> {
+                try {
+                    call.resolve(systemBarsManager.readInsets(ifNewerThan));
+                } catch (Exception e) {
+                    call.reject("Failed to get insets", e);
+                }
+            });
         } catch (Exception e) {
             call.reject("Failed to get insets", e);
         }
     }
 
+    @PluginMethod
+    public void setInsetsEventOptions(PluginCall call) {
+        try {
+            Integer throttleMs = call.getInt("throttleMs", 0);
+            long throttle = throttleMs != null ? throttleMs : 0;
+            systemBarsManager.getInsetsNotifier().setThrottleMs(throttle);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject("Failed to set insets event options", e);
+        }
+    }
+
+    @PluginMethod
+    public void setInsetsStrategy(PluginCall call) {
+        String strategy = call.getString("strategy", InsetsStrategy.MARGINS);
+        if (!isInsetsStrategyAvailable(strategy)) {
+            call.reject(TRANSLATION_NEEDS_CSS_INSETS);
+            return;
+        }
+
+        try {
+            resolveOnCommit(call, BarCommandScheduler.Slot.INSETS_STRATEGY, "Failed to set insets strategy",
+                    () -> fullscreenManager.setInsetsStrategy(strategy));
+        } catch (Exception e) {
+            call.reject("Failed to set insets strategy", e);
+        }
+    }
+
+    /**
+     * The translation strategy pushes a band of the page off-screen that only the page can
+     * reserve, through the --asb-* variables, so it needs the CSS inset injection.
+     */
+    private boolean isInsetsStrategyAvailable(String strategy) {
+        return cssInsetsInjected || !InsetsStrategy.TRANSLATION.equals(strategy);
+    }
+
+    @PluginMethod
+    public void setKeyboardInsetsAnimation(PluginCall call) {
+        try {
+            boolean enabled = Boolean.TRUE.equals(call.getBoolean("enabled", false));
+            resolveOnCommit(call, BarCommandScheduler.Slot.INSETS_MODE, "Failed to set keyboard insets animation",
+                    () -> fullscreenManager.setImeAnimationEnabled(enabled));
+        } catch (Exception e) {
+            call.reject("Failed to set keyboard insets animation", e);
+        }
+    }
+
+    /**
+     * Run submitter, which queues the call's work for slot, and resolve the call. By
+     * default it resolves immediately; with awaitCommit it resolves once that work has run
+     * on the main thread (with awaitNextFrame, at the following frame) with queue latency
+     * and apply duration, and rejects if the work threw.
+     */
+    private void resolveOnCommit(PluginCall call, BarCommandScheduler.Slot slot, String failureMessage,
+            Runnable submitter) {
+        boolean nextFrame = Boolean.TRUE.equals(call.getBoolean("awaitNextFrame", false));
+        if (!nextFrame && !Boolean.TRUE.equals(call.getBoolean("awaitCommit", false))) {
+            submitter.run();
+            call.resolve();
+            return;
+        }
+
+        scheduler.runAwaitingCommit(slot, nextFrame, result -> {
+            if (result.error != null) {
+                call.reject(failureMessage, result.error);
+            } else {
+                call.resolve(result.toJSObject());
+            }
+        }, submitter);
+    }
+
+    private void notifyInsetsChanged(int top, int bottom, int left, int right,
+            boolean statusBarVisible, boolean navigationBarVisible) {
+        if (!hasListeners(INSETS_CHANGED_EVENT)) return;
+
+        JSObject data = new JSObject();
+        data.put("top", top);
+        data.put("bottom", bottom);
+        data.put("left", left);
+        data.put("right", right);
+        data.put("statusBarVisible", statusBarVisible);
+        data.put("navigationBarVisible", navigationBarVisible);
+        data.put("version", systemBarsManager.getInsetsVersion());
+        notifyListeners(INSETS_CHANGED_EVENT, data);
+    }
+
+    @PluginMethod
+    public void setScrollLinkedStatusBar(PluginCall call) {
+        try {
+            JSArray stops = call.getArray("stops");
+            if (stops == null || stops.length() == 0) {
+                call.reject("At least one gradient stop is required");
+                return;
+            }
+
+            int count = stops.length();
+            float[] offsets = new float[count];
+            int[] colors = new int[count];
+            ColorParser colorParser = systemBarsManager.getColorParser();
+            for (int i = 0; i < count; i++) {
+                JSONObject stop = stops.optJSONObject(i);
+                if (stop == null || !stop.has("offset") || !stop.has("color")) {
+                    call.reject("Each stop needs an offset and a color");
+                    return;
+                }
+                offsets[i] = (float) stop.optDouble("offset", 0);
+                colors[i] = colorParser.parse(stop.optString("color", null));
+                if (i > 0 && offsets[i] < offsets[i - 1]) {
+                    call.reject("Gradient stop offsets must be ascending");
+                    return;
+                }
+            }
+
+            String source = call.getString("source", ScrollLinkedBarColor.SOURCE_MESSAGE);
+            if (ScrollLinkedBarColor.SOURCE_MESSAGE.equals(source)
+                    && !scrollLinkedBarColor.isJavascriptInterfaceInstalled()) {
+                call.reject("The 'message' source needs the scrollLinkedStatusBar plugin config");
+                return;
+            }
+            resolveOnCommit(call, BarCommandScheduler.Slot.SCROLL_LINKED_COLOR, "Failed to set scroll-linked status bar",
+                    () -> scheduler.submit(BarCommandScheduler.Slot.SCROLL_LINKED_COLOR,
+                            () -> scrollLinkedBarColor.start(offsets, colors, source)));
+        } catch (IllegalArgumentException e) {
+            call.reject("Invalid gradient stop color", e);
+        } catch (Exception e) {
+            call.reject("Failed to set scroll-linked status bar", e);
+        }
+    }
+
+    @PluginMethod
+    public void clearScrollLinkedStatusBar(PluginCall call) {
+        try {
+            resolveOnCommit(call, BarCommandScheduler.Slot.SCROLL_LINKED_COLOR, "Failed to clear scroll-linked status bar",
+                    () -> scheduler.submit(BarCommandScheduler.Slot.SCROLL_LINKED_COLOR, scrollLinkedBarColor::stop));
+        } catch (Exception e) {
+            call.reject("Failed to clear scroll-linked status bar", e);
+        }
+    }
+
+    @PluginMethod
+    public void getPerformanceStats(PluginCall call) {
+        try {
+            boolean reset = Boolean.TRUE.equals(call.getBoolean("reset", false));
+            call.resolve(systemBarsManager.getPerformanceStats(reset));
+        } catch (Exception e) {
+            call.reject("Failed to get performance stats", e);
+        }
+    }
+
+    @PluginMethod
+    public void dumpDiagnostics(PluginCall call) {
+        try {
+            call.resolve(scheduler.getFlightRecorder().dump());
+        } catch (Exception e) {
+            call.reject("Failed to dump diagnostics", e);
+        }
+    }
+
+    @PluginMethod
+    public void getReconcileStats(PluginCall call) {
+        try {
+            call.resolve(systemBarsManager.getReconcileStats());
+        } catch (Exception e) {
+            call.reject("Failed to get reconcile stats", e);
+        }
+    }
+
     @PluginMethod
     public void setNavigationBarStyle(PluginCall call) {
         String style = call.getString("style", "DEFAULT");
         String color = call.getString("color");
+        BarTransition transition = BarTransition.fromJSObject(call.getObject("transition"));
 
         try {
-            systemBarsManager.setNavigationBarStyle(style, color);
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to set navigation bar style",
+                    () -> systemBarsManager.setNavigationBarStyle(style, color, transition));
         } catch (Exception e) {
             call.reject("Failed to set navigation bar style", e);
         }
@@ -219,8 +509,8 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void hideNavigationBar(PluginCall call) {
         try {
-            systemBarsManager.hideNavigationBar();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to hide navigation bar",
+                    systemBarsManager::hideNavigationBar);
         } catch (Exception e) {
             call.reject("Failed to hide navigation bar", e);
         }
@@ -229,8 +519,8 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void showNavigationBar(PluginCall call) {
         try {
-            systemBarsManager.showNavigationBar();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to show navigation bar",
+                    systemBarsManager::showNavigationBar);
         } catch (Exception e) {
             call.reject("Failed to show navigation bar", e);
         }
@@ -287,22 +577,141 @@ public class SystemBarsManagerPlugin extends Plugin {
                 }
             }
 
-            // Apply configurations
-            if (statusStyle != null || statusColor != null) {
-                systemBarsManager.setStatusBarStyle(
-                        statusStyle != null ? statusStyle : "DEFAULT",
-                        statusColor);
+            // Optional animated color change (edge-to-edge mode), shared by both bars
+            BarTransition transition = BarTransition.fromJSObject(call.getObject("transition"));
+
+            // Apply configurations; both bars share one BAR_STATE commit
+            String finalStatusStyle = statusStyle;
+            String finalStatusColor = statusColor;
+            String finalNavStyle = navStyle;
+            String finalNavColor = navColor;
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to set system bars style", () -> {
+                if (finalStatusStyle != null || finalStatusColor != null) {
+                    systemBarsManager.setStatusBarStyle(
+                            finalStatusStyle != null ? finalStatusStyle : "DEFAULT",
+                            finalStatusColor,
+                            transition);
+                }
+
+                if (finalNavStyle != null || finalNavColor != null) {
+                    systemBarsManager.setNavigationBarStyle(
+                            finalNavStyle != null ? finalNavStyle : "DEFAULT",
+                            finalNavColor,
+                            transition);
+                }
+            });
+        } catch (Exception e) {
+            call.reject("Failed to set system bars style", e);
+        }
+    }
+
+    /**
+     * Register themes by id: { id: { statusBar, navigationBar, windowBackground } }.
+     * Each is parsed once here; an invalid color rejects the call and registers nothing.
+     */
+    @PluginMethod
+    public void registerThemes(PluginCall call) {
+        try {
+            JSObject data = call.getData();
+            Map<String, BarTheme> parsed = new HashMap<>();
+            Iterator<String> ids = data.keys();
+            while (ids.hasNext()) {
+                String id = ids.next();
+                JSONObject definition = data.optJSONObject(id);
+                if (definition == null) {
+                    call.reject("Invalid theme '" + id + "': expected an object");
+                    return;
+                }
+                try {
+                    parsed.put(id, systemBarsManager.parseTheme(definition));
+                } catch (IllegalArgumentException e) {
+                    call.reject("Invalid theme '" + id + "': " + e.getMessage());
+                    return;
+                }
+            }
+            themes.putAll(parsed);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject("Failed to register themes", e);
+        }
+    }
+
+    /**
+     * Swap between a light and a dark theme natively whenever the system dark mode
+     * changes. Each side is a registered theme id or an inline theme definition.
+     */
+    @PluginMethod
+    public void followSystemTheme(PluginCall call) {
+        try {
+            BarTheme light;
+            BarTheme dark;
+            try {
+                light = resolveTheme(call.getData().opt("light"), "light");
+                dark = resolveTheme(call.getData().opt("dark"), "dark");
+            } catch (IllegalArgumentException e) {
+                call.reject(e.getMessage());
+                return;
             }
 
-            if (navStyle != null || navColor != null) {
-                systemBarsManager.setNavigationBarStyle(
-                        navStyle != null ? navStyle : "DEFAULT",
-                        navColor);
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to follow system theme",
+                    () -> systemThemeFollower.follow(light, dark, getActivity().getResources().getConfiguration()));
+        } catch (Exception e) {
+            call.reject("Failed to follow system theme", e);
+        }
+    }
+
+    @PluginMethod
+    public void stopFollowingSystemTheme(PluginCall call) {
+        systemThemeFollower.stop();
+        call.resolve();
+    }
+
+    /**
+     * A registered theme id or an inline definition; IllegalArgumentException otherwise.
+     */
+    private BarTheme resolveTheme(Object value, String name) {
+        if (value instanceof String) {
+            BarTheme theme = themes.get(value);
+            if (theme == null) {
+                throw new IllegalArgumentException("Unknown theme for '" + name + "': " + value);
             }
+            return theme;
+        }
+        if (value instanceof JSONObject) {
+            try {
+                return systemBarsManager.parseTheme((JSONObject) value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid theme for '" + name + "': " + e.getMessage(), e);
+            }
+        }
+        throw new IllegalArgumentException("'" + name + "' must be a theme id or a theme object");
+    }
 
-            call.resolve();
+    private void notifySystemThemeChanged(boolean dark) {
+        if (!hasListeners(SYSTEM_THEME_CHANGED_EVENT)) return;
+
+        JSObject data = new JSObject();
+        data.put("dark", dark);
+        notifyListeners(SYSTEM_THEME_CHANGED_EVENT, data);
+    }
+
+    /**
+     * Apply a registered theme by id; no parsing on this path.
+     */
+    @PluginMethod
+    public void applyTheme(PluginCall call) {
+        String id = call.getString("id");
+        BarTheme theme = id != null ? themes.get(id) : null;
+        if (theme == null) {
+            call.reject("Unknown theme: " + id);
+            return;
+        }
+
+        try {
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to apply theme",
+                    () -> systemBarsManager.applyTheme(theme, BarTransition.fromJSObject(call.getObject("transition"))));
         } catch (Exception e) {
-            call.reject("Failed to set system bars style", e);
+            call.reject("Failed to apply theme", e);
         }
     }
 
@@ -312,10 +721,11 @@ public class SystemBarsManagerPlugin extends Plugin {
     public void setStatusBarStyle(PluginCall call) {
         String style = call.getString("style", "DEFAULT");
         String color = call.getString("color");
+        BarTransition transition = BarTransition.fromJSObject(call.getObject("transition"));
 
         try {
-            systemBarsManager.setStatusBarStyle(style, color);
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to set status bar style",
+                    () -> systemBarsManager.setStatusBarStyle(style, color, transition));
         } catch (Exception e) {
             call.reject("Failed to set status bar style", e);
         }
@@ -324,8 +734,8 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void hideStatusBar(PluginCall call) {
         try {
-            systemBarsManager.hideStatusBar();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to hide status bar",
+                    systemBarsManager::hideStatusBar);
         } catch (Exception e) {
             call.reject("Failed to hide status bar", e);
         }
@@ -334,8 +744,8 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void showStatusBar(PluginCall call) {
         try {
-            systemBarsManager.showStatusBar();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.BAR_STATE, "Failed to show status bar",
+                    systemBarsManager::showStatusBar);
         } catch (Exception e) {
             call.reject("Failed to show status bar", e);
         }
@@ -344,9 +754,10 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void isFullscreenActive(PluginCall call) {
         try {
-            boolean active = fullscreenManager.isFullscreenActive();
+            FullscreenState state = fullscreenManager.getState();
             JSObject result = new JSObject();
-            result.put("active", active);
+            result.put("active", state.isFullscreen());
+            result.put("state", state.name());
             call.resolve(result);
         } catch (Exception e) {
             call.reject("Failed to check fullscreen status", e);
@@ -356,14 +767,18 @@ public class SystemBarsManagerPlugin extends Plugin {
     @PluginMethod
     public void forceExitFullscreen(PluginCall call) {
         try {
-            fullscreenManager.forceExit();
-            call.resolve();
+            resolveOnCommit(call, BarCommandScheduler.Slot.FULLSCREEN, "Failed to force exit fullscreen",
+                    fullscreenManager::forceExit);
         } catch (Exception e) {
             call.reject("Failed to force exit fullscreen", e);
         }
     }
 
     // Getter methods for lifecycle handler
+    public BarCommandScheduler getScheduler() {
+        return scheduler;
+    }
+
     public SystemBarsManager getSystemBarsManager() {
         return systemBarsManager;
     }
@@ -395,6 +810,10 @@ public class SystemBarsManagerPlugin extends Plugin {
     @Override
     protected void handleOnConfigurationChanged(Configuration newConfig) {
         super.handleOnConfigurationChanged(newConfig);
+        if (systemThemeFollower != null) {
+            // Committed in this pass, before the first frame in the new mode
+            systemThemeFollower.onConfigurationChanged(newConfig);
+        }
         if (lifecycleHandler != null) {
             lifecycleHandler.onConfigurationChanged();
         }
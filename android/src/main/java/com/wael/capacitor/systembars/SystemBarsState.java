@@ -0,0 +1,244 @@
+package com.wael.capacitor.systembars;
+
+/**
+ * SystemBarsState - Immutable snapshot of everything the plugin sets on the system bars.
+ *
+ * SystemBarsManager keeps two of these: the desired state (written by the public setters
+ * from any thread) and the last applied state (main thread only). {@link #diff} tells the
+ * reconciler which fields actually need a window / insets controller / background view call.
+ *
+ * Colors are packed ARGB ints; {@code colorMask} records which of them were ever set.
+ * The window background follows the status bar color unless a theme sets its own
+ * (FIELD_WINDOW_COLOR in the mask).
+ */
+public final class SystemBarsState {
+
+    // Icon appearance. "DARK" style = dark bar background = light icons.
+    public static final int ICONS_UNSET = 0;
+    public static final int ICONS_DARK = 1;
+    public static final int ICONS_LIGHT = 2;
+
+    public static final int FULLSCREEN_OFF = 0;
+    public static final int FULLSCREEN_IMMERSIVE = 1;
+    public static final int FULLSCREEN_LEAN = 2;
+
+    // Field bits returned by diff()
+    public static final int FIELD_STATUS_ICONS = 1;
+    public static final int FIELD_NAV_ICONS = 1 << 1;
+    public static final int FIELD_STATUS_COLOR = 1 << 2;
+    public static final int FIELD_NAV_COLOR = 1 << 3;
+    public static final int FIELD_STATUS_VISIBLE = 1 << 4;
+    public static final int FIELD_NAV_VISIBLE = 1 << 5;
+    public static final int FIELD_FULLSCREEN = 1 << 6;
+    public static final int FIELD_WINDOW_COLOR = 1 << 7;
+
+    /**
+     * Nothing set yet, bars visible (the system default).
+     */
+    public static final SystemBarsState INITIAL = new SystemBarsState(
+            ICONS_UNSET, ICONS_UNSET, 0, 0, 0, 0, true, true, FULLSCREEN_OFF);
+
+    private final int statusIcons;
+    private final int navIcons;
+    private final int statusColor;
+    private final int navColor;
+    private final int windowColor;
+    private final int colorMask;
+    private final boolean statusVisible;
+    private final boolean navVisible;
+    private final int fullscreenMode;
+
+    private SystemBarsState(int statusIcons, int navIcons, int statusColor, int navColor, int windowColor,
+            int colorMask, boolean statusVisible, boolean navVisible, int fullscreenMode) {
+        this.statusIcons = statusIcons;
+        this.navIcons = navIcons;
+        this.statusColor = statusColor;
+        this.navColor = navColor;
+        this.windowColor = windowColor;
+        this.colorMask = colorMask;
+        this.statusVisible = statusVisible;
+        this.navVisible = navVisible;
+        this.fullscreenMode = fullscreenMode;
+    }
+
+    /**
+     * Map a plugin style string ("LIGHT" / "DARK" / "DEFAULT") to an icon appearance.
+     */
+    public static int iconsForStyle(String style) {
+        return "DARK".equals(style) ? ICONS_LIGHT : ICONS_DARK;
+    }
+
+    /**
+     * Map a plugin fullscreen mode string ("IMMERSIVE" / "LEAN") to a mode constant.
+     */
+    public static int fullscreenModeOf(String mode) {
+        return "LEAN".equals(mode) ? FULLSCREEN_LEAN : FULLSCREEN_IMMERSIVE;
+    }
+
+    public SystemBarsState withStatusIcons(int icons) {
+        if (icons == statusIcons) return this;
+        return new SystemBarsState(icons, navIcons, statusColor, navColor, windowColor, colorMask,
+                statusVisible, navVisible, fullscreenMode);
+    }
+
+    public SystemBarsState withNavIcons(int icons) {
+        if (icons == navIcons) return this;
+        return new SystemBarsState(statusIcons, icons, statusColor, navColor, windowColor, colorMask,
+                statusVisible, navVisible, fullscreenMode);
+    }
+
+    public SystemBarsState withStatusColor(int color) {
+        if (hasStatusColor() && color == statusColor) return this;
+        return new SystemBarsState(statusIcons, navIcons, color, navColor, windowColor,
+                colorMask | FIELD_STATUS_COLOR, statusVisible, navVisible, fullscreenMode);
+    }
+
+    public SystemBarsState withNavColor(int color) {
+        if (hasNavColor() && color == navColor) return this;
+        return new SystemBarsState(statusIcons, navIcons, statusColor, color, windowColor,
+                colorMask | FIELD_NAV_COLOR, statusVisible, navVisible, fullscreenMode);
+    }
+
+    /**
+     * Paint the window background with its own color instead of the status bar color.
+     */
+    public SystemBarsState withWindowColor(int color) {
+        if (hasWindowColor() && color == windowColor) return this;
+        return new SystemBarsState(statusIcons, navIcons, statusColor, navColor, color,
+                colorMask | FIELD_WINDOW_COLOR, statusVisible, navVisible, fullscreenMode);
+    }
+
+    /**
+     * Let the window background follow the status bar color again.
+     */
+    public SystemBarsState withoutWindowColor() {
+        if (!hasWindowColor()) return this;
+        return new SystemBarsState(statusIcons, navIcons, statusColor, navColor, 0,
+                colorMask & ~FIELD_WINDOW_COLOR, statusVisible, navVisible, fullscreenMode);
+    }
+
+    public SystemBarsState withStatusVisible(boolean visible) {
+        if (visible == statusVisible) return this;
+        return new SystemBarsState(statusIcons, navIcons, statusColor, navColor, windowColor, colorMask,
+                visible, navVisible, fullscreenMode);
+    }
+
+    public SystemBarsState withNavVisible(boolean visible) {
+        if (visible == navVisible) return this;
+        return new SystemBarsState(statusIcons, navIcons, statusColor, navColor, windowColor, colorMask,
+                statusVisible, visible, fullscreenMode);
+    }
+
+    public SystemBarsState withFullscreenMode(int mode) {
+        if (mode == fullscreenMode) return this;
+        return new SystemBarsState(statusIcons, navIcons, statusColor, navColor, windowColor, colorMask,
+                statusVisible, navVisible, mode);
+    }
+
+    /**
+     * Forget icon appearance and colors (keeps visibility and fullscreen mode).
+     * Used after lifecycle events, where the system may have reset them behind our back.
+     */
+    public SystemBarsState withoutStyles() {
+        if (statusIcons == ICONS_UNSET && navIcons == ICONS_UNSET && colorMask == 0) return this;
+        return new SystemBarsState(ICONS_UNSET, ICONS_UNSET, 0, 0, 0, 0,
+                statusVisible, navVisible, fullscreenMode);
+    }
+
+    /**
+     * Forget the given fields of an applied state, so diff() reports them again for any
+     * desired value: icons become unset, bar colors unrecorded, and visibility and the
+     * window color override inverted. Used when the window was found to differ from what
+     * was applied.
+     */
+    public SystemBarsState withoutFields(int fields) {
+        if (fields == 0) return this;
+        return new SystemBarsState(
+                (fields & FIELD_STATUS_ICONS) != 0 ? ICONS_UNSET : statusIcons,
+                (fields & FIELD_NAV_ICONS) != 0 ? ICONS_UNSET : navIcons,
+                statusColor, navColor, windowColor,
+                (colorMask & ~(fields & (FIELD_STATUS_COLOR | FIELD_NAV_COLOR))) ^ (fields & FIELD_WINDOW_COLOR),
+                (fields & FIELD_STATUS_VISIBLE) != 0 ? !statusVisible : statusVisible,
+                (fields & FIELD_NAV_VISIBLE) != 0 ? !navVisible : navVisible,
+                fullscreenMode);
+    }
+
+    /**
+     * Fields where applying this (desired) state would change {@code applied}.
+     * Unset icons/colors in this state never count as a change; the window color does,
+     * since dropping the override hands the window background back to the status color.
+     */
+    public int diff(SystemBarsState applied) {
+        int fields = 0;
+        if (statusIcons != ICONS_UNSET && statusIcons != applied.statusIcons) {
+            fields |= FIELD_STATUS_ICONS;
+        }
+        if (navIcons != ICONS_UNSET && navIcons != applied.navIcons) {
+            fields |= FIELD_NAV_ICONS;
+        }
+        if (hasStatusColor() && (!applied.hasStatusColor() || statusColor != applied.statusColor)) {
+            fields |= FIELD_STATUS_COLOR;
+        }
+        if (hasNavColor() && (!applied.hasNavColor() || navColor != applied.navColor)) {
+            fields |= FIELD_NAV_COLOR;
+        }
+        if (hasWindowColor() != applied.hasWindowColor()
+                || (hasWindowColor() && windowColor != applied.windowColor)) {
+            fields |= FIELD_WINDOW_COLOR;
+        }
+        if (statusVisible != applied.statusVisible) {
+            fields |= FIELD_STATUS_VISIBLE;
+        }
+        if (navVisible != applied.navVisible) {
+            fields |= FIELD_NAV_VISIBLE;
+        }
+        if (fullscreenMode != applied.fullscreenMode) {
+            fields |= FIELD_FULLSCREEN;
+        }
+        return fields;
+    }
+
+    public int getStatusIcons() {
+        return statusIcons;
+    }
+
+    public int getNavIcons() {
+        return navIcons;
+    }
+
+    public boolean hasStatusColor() {
+        return (colorMask & FIELD_STATUS_COLOR) != 0;
+    }
+
+    public boolean hasNavColor() {
+        return (colorMask & FIELD_NAV_COLOR) != 0;
+    }
+
+    public boolean hasWindowColor() {
+        return (colorMask & FIELD_WINDOW_COLOR) != 0;
+    }
+
+    public int getStatusColor() {
+        return statusColor;
+    }
+
+    public int getNavColor() {
+        return navColor;
+    }
+
+    public int getWindowColor() {
+        return windowColor;
+    }
+
+    public boolean isStatusVisible() {
+        return statusVisible;
+    }
+
+    public boolean isNavVisible() {
+        return navVisible;
+    }
+
+    public int getFullscreenMode() {
+        return fullscreenMode;
+    }
+}
@@ -0,0 +1,102 @@
+package com.wael.capacitor.systembars;
+
+import android.content.res.Configuration;
+import android.util.Log;
+
+/**
+ * SystemThemeFollower - Swaps between a light and a dark BarTheme when the system dark
+ * mode changes, without a round-trip through JS.
+ *
+ * The theme matching Configuration.uiMode is applied inside the activity's configuration
+ * change and committed right there, so the first frame drawn in the new mode already has
+ * the right bar colors. The listener is told afterwards so the web layer can follow.
+ *
+ * follow()/stop() may be called from any thread; onConfigurationChanged() runs on the
+ * main thread.
+ */
+public class SystemThemeFollower {
+
+    private static final String TAG = "SystemThemeFollower";
+
+    public interface Listener {
+        void onSystemThemeChanged(boolean dark);
+    }
+
+    private static final int MODE_UNKNOWN = -1;
+    private static final int MODE_LIGHT = 0;
+    private static final int MODE_DARK = 1;
+
+    private final SystemBarsManager systemBarsManager;
+    private final BarCommandScheduler scheduler;
+
+    // All guarded by lock. Both themes are set together; null = not following.
+    private final Object lock = new Object();
+    private BarTheme lightTheme;
+    private BarTheme darkTheme;
+    // Mode whose theme was last applied
+    private int appliedMode = MODE_UNKNOWN;
+
+    private Listener listener;
+
+    public SystemThemeFollower(SystemBarsManager systemBarsManager, BarCommandScheduler scheduler) {
+        this.systemBarsManager = systemBarsManager;
+        this.scheduler = scheduler;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public static boolean isDark(Configuration configuration) {
+        return (configuration.uiMode & Configuration.UI_MODE_NIGHT_MASK) == Configuration.UI_MODE_NIGHT_YES;
+    }
+
+    /**
+     * Start following the system mode and apply the theme for the current one.
+     * The change is committed with the next frame, like any other style call.
+     */
+    public void follow(BarTheme light, BarTheme dark, Configuration current) {
+        synchronized (lock) {
+            lightTheme = light;
+            darkTheme = dark;
+            boolean isDark = isDark(current);
+            appliedMode = isDark ? MODE_DARK : MODE_LIGHT;
+            systemBarsManager.applyTheme(isDark ? dark : light, null);
+        }
+    }
+
+    /**
+     * Stop following; the current bars are left as they are.
+     */
+    public void stop() {
+        synchronized (lock) {
+            lightTheme = null;
+            darkTheme = null;
+            appliedMode = MODE_UNKNOWN;
+        }
+    }
+
+    /**
+     * Apply the other theme if the configuration change flipped the night mode, and commit
+     * it in this pass. Other configuration changes (rotation, resize) do nothing here.
+     */
+    public void onConfigurationChanged(Configuration newConfig) {
+        boolean isDark = isDark(newConfig);
+        synchronized (lock) {
+            BarTheme theme = isDark ? darkTheme : lightTheme;
+            int mode = isDark ? MODE_DARK : MODE_LIGHT;
+            if (theme == null || mode == appliedMode) return;
+
+            appliedMode = mode;
+            systemBarsManager.applyTheme(theme, null);
+        }
+        scheduler.commitNow();
+
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "System theme changed: " + (isDark ? "dark" : "light"));
+        }
+        if (listener != null) {
+            listener.onSystemThemeChanged(isDark);
+        }
+    }
+}
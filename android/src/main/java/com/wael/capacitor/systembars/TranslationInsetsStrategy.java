@@ -0,0 +1,34 @@
+package com.wael.capacitor.systembars;
+
+import android.view.View;
+
+/**
+ * TranslationInsetsStrategy - Moves the WebView below the status bar and away from a
+ * side cutout or navigation bar with a render-only translation; never lays out.
+ *
+ * The WebView keeps its full size, so the translation pushes a band of the page
+ * off-screen: the bottom top + bottom px (the moved amount plus the navigation bar) and,
+ * in landscape, the left or right inset on the opposite side. No view state can bring
+ * that band back; only the page can, by reserving it with the --asb-* CSS variables. The
+ * plugin therefore refuses this strategy unless injectCssInsets is on.
+ */
+public class TranslationInsetsStrategy implements InsetsStrategy {
+
+    @Override
+    public String getName() {
+        return TRANSLATION;
+    }
+
+    @Override
+    public boolean apply(View view, int left, int top, int right, int bottom) {
+        // A left inset moves the view right, a right inset moves it left
+        int x = left - right;
+        if (view.getTranslationX() != x) {
+            view.setTranslationX(x);
+        }
+        if (view.getTranslationY() != top) {
+            view.setTranslationY(top);
+        }
+        return false;
+    }
+}
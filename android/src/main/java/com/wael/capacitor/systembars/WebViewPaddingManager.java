@@ -1,93 +1,236 @@
 package com.wael.capacitor.systembars;
 
 import android.content.res.Resources;
-import android.os.Build;
-import android.util.DisplayMetrics;
+import android.os.Trace;
 import android.util.Log;
+import android.view.ViewTreeObserver;
 import android.webkit.WebView;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
 
 /**
- * WebViewPaddingManager - Manages WebView padding for Android < 35 ONLY.
+ * WebViewPaddingManager - Manages WebView padding for the legacy architecture ONLY.
  *
- * On Android < 35: Top padding pushes content below the status bar overlay.
- * On Android 35+: the plugin's base inset listener applies WebView margins,
- *   so no padding is needed here.
+ * Legacy (Android < 35): Top padding pushes content below the status bar overlay.
+ * Edge-to-edge (Android 35+, or 30-34 with unifiedEdgeToEdge - see EdgeToEdgeMode): the
+ *   plugin's base inset listener applies WebView margins, so no padding is needed here.
+ *
+ * Bar heights come from the real window insets (ignoring visibility, so fullscreen does
+ * not zero them) and are cached per configuration in a BarHeightCache. After a
+ * rotation, density change or fold the padding is applied straight from the cache; a
+ * configuration seen for the first time is measured on the next pre-draw. Each measurement
+ * is also handed to the InsetsListener, which publishes the getInsets() snapshot.
  */
 public class WebViewPaddingManager {
 
+    public interface InsetsListener {
+        void onInsetsMeasured(WindowInsetsCompat insets);
+    }
+
     private static final String TAG = "WebViewPaddingManager";
+    private static final String TRACE_MEASURE = "AndroidSystemBars:measureBarHeights";
+
+    // Last resort when neither insets nor framework dimensions are available (dp)
+    private static final int FALLBACK_STATUS_BAR_DP = 24;
+    private static final int FALLBACK_NAVIGATION_BAR_DP = 48;
 
     private final WebView webView;
-    private int statusBarHeight = 0;
-    private int navigationBarHeight = 0;
+    private final BarCommandScheduler scheduler;
+    private final InsetsStrategy padding = new PaddingInsetsStrategy();
+
+    // Main thread only
+    private final BarHeightCache heightCache = new BarHeightCache();
+
+    // Read by initialize() on the plugin thread
+    private volatile int statusBarHeight = 0;
+    private volatile int navigationBarHeight = 0;
+
+    private boolean paddingApplied = false;
+    private boolean measurePending = false;
+    private InsetsListener insetsListener;
+
+    private final ViewTreeObserver.OnPreDrawListener measureOnPreDraw = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            ViewTreeObserver observer = webView.getViewTreeObserver();
+            if (observer.isAlive()) {
+                observer.removeOnPreDrawListener(this);
+            }
+            measurePending = false;
+
+            Trace.beginSection(TRACE_MEASURE);
+            try {
+                // The strategy skips the layout if the measured height matches the applied one
+                if (measure() && paddingApplied && padding.apply(webView, 0, statusBarHeight, 0, 0)) {
+                    scheduler.getStats().recordLayoutPass();
+                }
+            } finally {
+                Trace.endSection();
+            }
+            return true;
+        }
+    };
 
-    public WebViewPaddingManager(WebView webView) {
+    public WebViewPaddingManager(WebView webView, BarCommandScheduler scheduler) {
         this.webView = webView;
-        this.statusBarHeight = calculateStatusBarHeight();
-        this.navigationBarHeight = calculateNavigationBarHeight();
+        this.scheduler = scheduler;
 
-        Log.d(TAG, "Calculated bar heights: statusBar=" + statusBarHeight
-                + "px, navigationBar=" + navigationBarHeight + "px");
+        if (!measure()) {
+            estimateHeights();
+        }
+        // The WebView may not have received its first insets yet; confirm after layout
+        measureOnNextDraw();
+
+        if (DebugLog.isEnabled()) {
+            Log.d(TAG, "Bar heights: statusBar=" + statusBarHeight
+                    + "px, navigationBar=" + navigationBarHeight + "px");
+        }
     }
 
-    private int calculateStatusBarHeight() {
+    /**
+     * Receive the root insets on every measurement (main thread).
+     */
+    public void setInsetsListener(InsetsListener listener) {
+        insetsListener = listener;
+    }
+
+    /**
+     * Without insets (detached WebView, or API < 23 where root insets are unavailable) fall
+     * back to the framework dimensions once. These are never cached.
+     */
+    private void estimateHeights() {
         Resources resources = webView.getResources();
-        int resourceId = resources.getIdentifier("status_bar_height", "dimen", "android");
+        float density = resources.getDisplayMetrics().density;
 
-        if (resourceId > 0) {
-            return resources.getDimensionPixelSize(resourceId);
-        }
+        int statusId = resources.getIdentifier("status_bar_height", "dimen", "android");
+        statusBarHeight = statusId > 0
+                ? resources.getDimensionPixelSize(statusId)
+                : Math.round(FALLBACK_STATUS_BAR_DP * density);
 
-        DisplayMetrics metrics = resources.getDisplayMetrics();
-        return (int) (24 * metrics.density);
+        int navigationId = resources.getIdentifier("navigation_bar_height", "dimen", "android");
+        navigationBarHeight = navigationId > 0
+                ? resources.getDimensionPixelSize(navigationId)
+                : Math.round(FALLBACK_NAVIGATION_BAR_DP * density);
     }
 
-    private int calculateNavigationBarHeight() {
-        Resources resources = webView.getResources();
-        int resourceId = resources.getIdentifier("navigation_bar_height", "dimen", "android");
+    /**
+     * Take the heights for the current configuration from the cache. On a miss, keep the
+     * current values and measure once the new configuration has been laid out.
+     */
+    private boolean useCachedHeights() {
+        int[] heights = heightCache.get(currentKey());
+        if (heights == null) return false;
+
+        statusBarHeight = heights[0];
+        navigationBarHeight = heights[1];
+        return true;
+    }
 
-        if (resourceId > 0) {
-            return resources.getDimensionPixelSize(resourceId);
+    /**
+     * Read the bar heights from the root window insets and cache them for the current
+     * configuration. Returns false if the WebView has no insets yet.
+     */
+    private boolean measure() {
+        WindowInsetsCompat insets = ViewCompat.getRootWindowInsets(webView);
+        if (insets == null) return false;
+
+        Insets status = insets.getInsetsIgnoringVisibility(WindowInsetsCompat.Type.statusBars());
+        Insets navigation = insets.getInsetsIgnoringVisibility(WindowInsetsCompat.Type.navigationBars());
+        heightCache.put(currentKey(), status.top, navigation.bottom);
+        statusBarHeight = status.top;
+        navigationBarHeight = navigation.bottom;
+        if (insetsListener != null) {
+            insetsListener.onInsetsMeasured(insets);
         }
+        return true;
+    }
+
+    private void measureOnNextDraw() {
+        if (measurePending) return;
 
-        DisplayMetrics metrics = resources.getDisplayMetrics();
-        return (int) (48 * metrics.density);
+        ViewTreeObserver observer = webView.getViewTreeObserver();
+        if (observer.isAlive()) {
+            measurePending = true;
+            observer.addOnPreDrawListener(measureOnPreDraw);
+        }
+    }
+
+    private long currentKey() {
+        return BarHeightCache.key(webView.getResources().getConfiguration());
     }
 
     /**
      * Apply padding to WebView.
-     * Android 35+: No-op (base inset listener handles margins).
-     * Android < 35: Top-only padding for status bar overlay.
+     * Edge-to-edge: No-op (base inset listener handles margins).
+     * Legacy: Top-only padding for status bar overlay.
      */
     public void applyPadding() {
-        if (Build.VERSION.SDK_INT >= 35) {
-            Log.d(TAG, "Android 35+: Skipping padding (base inset listener handles margins)");
+        if (EdgeToEdgeMode.isActive()) {
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "Edge-to-edge: Skipping padding (base inset listener handles margins)");
+            }
             return;
         }
 
-        webView.post(() -> {
-            Log.d(TAG, "Applying legacy padding: top=" + statusBarHeight);
-            webView.setPadding(0, statusBarHeight, 0, 0);
-            webView.requestLayout();
-            webView.invalidate();
+        scheduler.submit(BarCommandScheduler.Slot.WEBVIEW_PADDING, () -> {
+            if (!useCachedHeights() || insetsListener != null) {
+                // Unknown configuration: apply the last heights now, correct after layout.
+                // The listener also needs the bar visibility after a fullscreen exit.
+                measureOnNextDraw();
+            }
+
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "Applying legacy padding: top=" + statusBarHeight);
+            }
+            paddingApplied = true;
+            if (padding.apply(webView, 0, statusBarHeight, 0, 0)) {
+                scheduler.getStats().recordLayoutPass();
+            }
         });
     }
 
+    /**
+     * Configuration change and lifecycle pass (legacy, main thread): re-apply the padding
+     * for the current configuration only if the WebView's padding differs from it. Returns
+     * true if it had drifted (or the bar heights changed).
+     */
+    boolean correctPadding() {
+        if (EdgeToEdgeMode.isActive() || !paddingApplied) return false;
+
+        if (!useCachedHeights()) {
+            measureOnNextDraw();
+        }
+        if (!padding.apply(webView, 0, statusBarHeight, 0, 0)) return false;
+
+        scheduler.getStats().recordLayoutPass();
+        return true;
+    }
+
     /**
      * Remove padding (for fullscreen mode).
-     * Android 35+: No-op (base inset listener handles margins).
+     * Edge-to-edge: No-op (base inset listener handles margins).
      */
     public void removePadding() {
-        if (Build.VERSION.SDK_INT >= 35) {
-            Log.d(TAG, "Android 35+: Skipping removePadding (base inset listener handles margins)");
+        if (EdgeToEdgeMode.isActive()) {
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "Edge-to-edge: Skipping removePadding (base inset listener handles margins)");
+            }
             return;
         }
 
-        webView.post(() -> {
-            Log.d(TAG, "Removing all padding");
-            webView.setPadding(0, 0, 0, 0);
-            webView.requestLayout();
-            webView.invalidate();
+        scheduler.submit(BarCommandScheduler.Slot.WEBVIEW_PADDING, () -> {
+            if (DebugLog.isEnabled()) {
+                Log.d(TAG, "Removing all padding");
+            }
+            paddingApplied = false;
+            if (padding.clear(webView)) {
+                scheduler.getStats().recordLayoutPass();
+            }
+            if (insetsListener != null) {
+                // Publish the hidden bars once the fullscreen layout is done
+                measureOnNextDraw();
+            }
         });
     }
 
@@ -0,0 +1,211 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.ViewGroup;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Pixels painted per frame by the bar background drawable on a 1080x2400 window with
+ * 120 px / 60 px bars, its side bands in landscape, and the window color fill.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class BarBackgroundDrawableTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int TOP = 120;
+    private static final int BOTTOM = 60;
+    private static final int SIDE = 132;
+
+    private static final int STATUS_COLOR = 0xFF112233;
+    private static final int NAV_COLOR = 0xFFFFFFFF;
+    private static final int WINDOW_COLOR = 0xFF445566;
+
+    /**
+     * Sums the area of every fill per color; nothing is rasterized.
+     */
+    private static final class PixelCountingCanvas extends Canvas {
+        final Map<Integer, Long> paintedPixels = new HashMap<>();
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+            long area = (long) Math.max(0f, right - left) * (long) Math.max(0f, bottom - top);
+            paintedPixels.merge(paint.getColor(), area, Long::sum);
+        }
+
+        @Override
+        public void drawRect(Rect rect, Paint paint) {
+            drawRect(rect.left, rect.top, rect.right, rect.bottom, paint);
+        }
+
+        long total() {
+            long total = 0;
+            for (long pixels : paintedPixels.values()) {
+                total += pixels;
+            }
+            return total;
+        }
+
+        long of(int color) {
+            return paintedPixels.getOrDefault(color, 0L);
+        }
+    }
+
+    /**
+     * Counts invalidations.
+     */
+    private static final class InvalidationCounter implements Drawable.Callback {
+        int invalidations = 0;
+
+        @Override
+        public void invalidateDrawable(Drawable who) {
+            invalidations++;
+        }
+
+        @Override
+        public void scheduleDrawable(Drawable who, Runnable what, long when) {}
+
+        @Override
+        public void unscheduleDrawable(Drawable who, Runnable what) {}
+    }
+
+    private BarBackgroundDrawable drawable;
+    private InvalidationCounter callback;
+
+    @Before
+    public void setUp() {
+        drawable = new BarBackgroundDrawable(Color.TRANSPARENT);
+        drawable.setBounds(0, 0, WIDTH, HEIGHT);
+        drawable.setBarInsets(0, TOP, 0, BOTTOM, false, false);
+        drawable.setStatusColor(STATUS_COLOR);
+        drawable.setNavColor(NAV_COLOR);
+        callback = new InvalidationCounter();
+        drawable.setCallback(callback);
+    }
+
+    private PixelCountingCanvas paint() {
+        PixelCountingCanvas canvas = new PixelCountingCanvas();
+        drawable.draw(canvas);
+        return canvas;
+    }
+
+    @Test
+    public void paintsOnlyTheBarBandsPerFrame() {
+        PixelCountingCanvas canvas = paint();
+
+        assertEquals((long) WIDTH * TOP, canvas.of(STATUS_COLOR));
+        assertEquals((long) WIDTH * BOTTOM, canvas.of(NAV_COLOR));
+        assertEquals((long) WIDTH * (TOP + BOTTOM), canvas.total());
+    }
+
+    @Test
+    public void sideNavigationBarGetsTheNavigationColor() {
+        // Landscape, 3-button navigation on the right, cutout on the left
+        drawable.setBounds(0, 0, HEIGHT, WIDTH);
+        drawable.setBarInsets(SIDE, TOP, SIDE, 0, false, true);
+
+        PixelCountingCanvas canvas = paint();
+
+        long sideHeight = WIDTH - TOP;
+        assertEquals((long) HEIGHT * TOP + SIDE * sideHeight, canvas.of(STATUS_COLOR));
+        assertEquals(SIDE * sideHeight, canvas.of(NAV_COLOR));
+    }
+
+    @Test
+    public void bandsNeverOverlap() {
+        drawable.setBarInsets(SIDE, TOP, SIDE, BOTTOM, true, false);
+
+        long sides = 2L * SIDE * (HEIGHT - TOP - BOTTOM);
+        assertEquals((long) WIDTH * (TOP + BOTTOM) + sides, paint().total());
+    }
+
+    @Test
+    public void windowColorFillsOnlyTheAreaBetweenTheBands() {
+        drawable.setBarInsets(SIDE, TOP, SIDE, BOTTOM, true, false);
+        drawable.setFillColor(WINDOW_COLOR);
+
+        PixelCountingCanvas canvas = paint();
+
+        assertEquals((long) (WIDTH - 2 * SIDE) * (HEIGHT - TOP - BOTTOM), canvas.of(WINDOW_COLOR));
+        assertEquals((long) WIDTH * HEIGHT, canvas.total());
+    }
+
+    @Test
+    public void transparentBarsPaintNothing() {
+        drawable.setStatusColor(Color.TRANSPARENT);
+        drawable.setNavColor(Color.TRANSPARENT);
+
+        assertEquals(0, paint().total());
+    }
+
+    @Test
+    public void onlyChangesInvalidate() {
+        drawable.setStatusColor(Color.RED);
+        drawable.setNavColor(Color.BLUE);
+        assertEquals(2, callback.invalidations);
+
+        // Same color: no invalidation
+        drawable.setNavColor(Color.BLUE);
+        assertEquals(2, callback.invalidations);
+
+        assertTrue(drawable.setBarInsets(0, TOP, 0, BOTTOM + 40, false, false));
+        assertEquals(3, callback.invalidations);
+        assertFalse(drawable.setBarInsets(0, TOP, 0, BOTTOM + 40, false, false));
+        assertEquals(3, callback.invalidations);
+    }
+
+    @Test
+    public void managerDrawsBarsWithoutExtraViews() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ViewGroup contentView = activity.findViewById(android.R.id.content);
+        BarCommandScheduler scheduler = new BarCommandScheduler();
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        manager.setDrawableBarBackground(true);
+        manager.initialize();
+
+        manager.setStatusBarStyle("DARK", "#112233");
+        manager.setNavigationBarStyle("LIGHT", "#FFFFFF");
+        scheduler.commitNow();
+
+        assertEquals(0, contentView.getChildCount());
+        Drawable background = activity.getWindow().getDecorView().getBackground();
+        assertTrue(background instanceof BarBackgroundDrawable);
+        assertEquals(STATUS_COLOR, ((BarBackgroundDrawable) background).getStatusColor());
+        assertEquals(NAV_COLOR, ((BarBackgroundDrawable) background).getNavColor());
+    }
+
+    @Test
+    public void managerPaintsOnlyAnExplicitWindowColor() throws Exception {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        BarCommandScheduler scheduler = new BarCommandScheduler();
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        manager.setDrawableBarBackground(true);
+        manager.initialize();
+
+        // The status color is not used as the fill
+        manager.setStatusBarStyle("DARK", "#112233");
+        scheduler.commitNow();
+        BarBackgroundDrawable background = (BarBackgroundDrawable) activity.getWindow().getDecorView().getBackground();
+        assertEquals(Color.TRANSPARENT, background.getFillColor());
+
+        manager.applyTheme(manager.parseTheme(new JSONObject().put("windowBackground", "#445566")), null);
+        scheduler.commitNow();
+        assertEquals(WINDOW_COLOR, background.getFillColor());
+    }
+}
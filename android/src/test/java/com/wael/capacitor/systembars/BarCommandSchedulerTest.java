@@ -0,0 +1,214 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Pending work is coalesced per slot and committed in submission order; a commit listener
+ * fires once the work it was submitted with has run, and carries that work's failure only.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class BarCommandSchedulerTest {
+
+    private final BarCommandScheduler scheduler = new BarCommandScheduler();
+    private final List<BarCommandScheduler.CommitResult> results = new ArrayList<>();
+
+    @Test
+    public void laterSubmissionToTheSameSlotWins() throws Exception {
+        List<String> ran = new ArrayList<>();
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add("first"));
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add("second"));
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add("third"));
+        assertTrue(ran.isEmpty());
+
+        scheduler.commitNow();
+
+        assertEquals(List.of("third"), ran);
+        assertEquals(2, scheduler.getStats().toJSObject().getLong("coalescedSubmissions"));
+    }
+
+    @Test
+    public void slotsCommitInSubmissionOrder() {
+        List<BarCommandScheduler.Slot> ran = new ArrayList<>();
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add(BarCommandScheduler.Slot.BAR_STATE));
+        scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, () -> ran.add(BarCommandScheduler.Slot.FULLSCREEN));
+        scheduler.submit(BarCommandScheduler.Slot.WEBVIEW_PADDING,
+                () -> ran.add(BarCommandScheduler.Slot.WEBVIEW_PADDING));
+        // Resubmitting moves the slot to the end of the batch
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add(BarCommandScheduler.Slot.BAR_STATE));
+
+        scheduler.commitNow();
+
+        assertEquals(List.of(BarCommandScheduler.Slot.FULLSCREEN, BarCommandScheduler.Slot.WEBVIEW_PADDING,
+                BarCommandScheduler.Slot.BAR_STATE), ran);
+    }
+
+    @Test
+    public void workSubmittedDuringACommitRunsInTheSameCommit() {
+        List<String> ran = new ArrayList<>();
+        scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, () -> {
+            ran.add("fullscreen");
+            scheduler.submit(BarCommandScheduler.Slot.SYSTEM_UI_FLAGS, () -> ran.add("flags"));
+        });
+
+        scheduler.commitNow();
+
+        assertEquals(List.of("fullscreen", "flags"), ran);
+    }
+
+    @Test
+    public void cancelledSlotDoesNotRun() {
+        List<String> ran = new ArrayList<>();
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add("bars"));
+        scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, () -> ran.add("fullscreen"));
+        scheduler.cancel(BarCommandScheduler.Slot.BAR_STATE);
+
+        scheduler.commitNow();
+
+        assertEquals(List.of("fullscreen"), ran);
+    }
+
+    @Test
+    public void listenerFiresAfterItsWorkRan() {
+        boolean[] ran = new boolean[1];
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran[0] = true, false, result -> {
+            assertTrue(ran[0]);
+            results.add(result);
+        });
+        assertTrue(results.isEmpty());
+
+        scheduler.commitNow();
+
+        assertEquals(1, results.size());
+        assertNull(results.get(0).error);
+        assertEquals(-1, results.get(0).frameLatencyNanos);
+    }
+
+    @Test
+    public void failureOfTheAwaitedWorkIsReported() {
+        scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, () -> {
+            throw new IllegalStateException("boom");
+        }, false, results::add);
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> { }, false, results::add);
+
+        scheduler.commitNow();
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).error instanceof IllegalStateException);
+        assertNull(results.get(1).error);
+    }
+
+    @Test
+    public void listenerIsNotSettledByALaterCommitOfTheSameSlot() {
+        // The submitting call's work commits before the call gets to register anything
+        scheduler.runAwaitingCommit(BarCommandScheduler.Slot.BAR_STATE, false, results::add, () -> {
+            scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> { });
+            scheduler.commitNow();
+        });
+        assertEquals(1, results.size());
+
+        // Another call's failing work to the same slot belongs to that call only
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> {
+            throw new IllegalStateException("boom");
+        });
+        scheduler.commitNow();
+
+        assertEquals(1, results.size());
+        assertNull(results.get(0).error);
+    }
+
+    @Test
+    public void listenerIsNotSettledByAnEarlierCommitOfTheSameSlot() {
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> { });
+        scheduler.commitNow();
+
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> {
+            throw new IllegalStateException("boom");
+        }, false, results::add);
+        assertTrue(results.isEmpty());
+
+        scheduler.commitNow();
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void replacedWorkReportsTheWorkThatReplacedIt() {
+        List<String> ran = new ArrayList<>();
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> ran.add("first"), false, results::add);
+        scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        scheduler.commitNow();
+
+        assertTrue(ran.isEmpty());
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void runAwaitingCommitAttachesOnlyToTheAwaitedSlot() {
+        scheduler.runAwaitingCommit(BarCommandScheduler.Slot.FULLSCREEN, false, results::add, () -> {
+            scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> {
+                throw new IllegalStateException("boom");
+            });
+            scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, () -> { });
+        });
+
+        scheduler.commitNow();
+
+        assertEquals(1, results.size());
+        assertNull(results.get(0).error);
+    }
+
+    @Test
+    public void callThatSubmitsNothingReportsZeroTimings() {
+        scheduler.runAwaitingCommit(BarCommandScheduler.Slot.INSETS_STRATEGY, false, results::add, () -> { });
+        assertTrue(results.isEmpty());
+
+        scheduler.commitNow();
+
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).queueLatencyNanos);
+        assertEquals(0, results.get(0).applyDurationNanos);
+        assertNull(results.get(0).error);
+    }
+
+    @Test
+    public void cancelledWorkReportsZeroTimings() {
+        scheduler.submit(BarCommandScheduler.Slot.FULLSCREEN, () -> fail("cancelled"), false, results::add);
+        scheduler.cancel(BarCommandScheduler.Slot.FULLSCREEN);
+
+        scheduler.commitNow();
+
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).applyDurationNanos);
+        assertNull(results.get(0).error);
+    }
+
+    @Test
+    public void failedSubmitterNeverNotifies() {
+        try {
+            scheduler.runAwaitingCommit(BarCommandScheduler.Slot.BAR_STATE, false, results::add, () -> {
+                scheduler.submit(BarCommandScheduler.Slot.BAR_STATE, () -> { });
+                throw new IllegalArgumentException("bad color");
+            });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // The caller rejects the call itself
+        }
+
+        scheduler.commitNow();
+
+        assertTrue(results.isEmpty());
+    }
+}
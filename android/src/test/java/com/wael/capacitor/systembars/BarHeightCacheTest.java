@@ -0,0 +1,111 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.content.res.Configuration;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Bar heights are cached per orientation, density and window size, and only those
+ * fields select the entry.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BarHeightCacheTest {
+
+    private final BarHeightCache cache = new BarHeightCache();
+
+    private static Configuration configuration(int orientation, int densityDpi, int widthDp, int heightDp) {
+        Configuration config = new Configuration();
+        config.orientation = orientation;
+        config.densityDpi = densityDpi;
+        config.screenWidthDp = widthDp;
+        config.screenHeightDp = heightDp;
+        return config;
+    }
+
+    private static final Configuration PORTRAIT = configuration(Configuration.ORIENTATION_PORTRAIT, 420, 411, 914);
+    private static final Configuration LANDSCAPE = configuration(Configuration.ORIENTATION_LANDSCAPE, 420, 914, 411);
+
+    @Test
+    public void measuredConfigurationHits() {
+        cache.put(BarHeightCache.key(PORTRAIT), 63, 126);
+
+        int[] heights = cache.get(BarHeightCache.key(configuration(Configuration.ORIENTATION_PORTRAIT, 420, 411, 914)));
+        assertArrayEquals(new int[] { 63, 126 }, heights);
+    }
+
+    @Test
+    public void configurationChangeMissesUntilMeasured() {
+        cache.put(BarHeightCache.key(PORTRAIT), 63, 126);
+
+        // Rotation: the portrait heights must not be reused
+        assertNull(cache.get(BarHeightCache.key(LANDSCAPE)));
+
+        cache.put(BarHeightCache.key(LANDSCAPE), 63, 0);
+        assertArrayEquals(new int[] { 63, 0 }, cache.get(BarHeightCache.key(LANDSCAPE)));
+        // Rotating back is served from the cache
+        assertArrayEquals(new int[] { 63, 126 }, cache.get(BarHeightCache.key(PORTRAIT)));
+    }
+
+    @Test
+    public void unrelatedConfigurationFieldsKeepTheEntry() {
+        cache.put(BarHeightCache.key(PORTRAIT), 63, 126);
+
+        Configuration nightAndLargeFont = configuration(Configuration.ORIENTATION_PORTRAIT, 420, 411, 914);
+        nightAndLargeFont.uiMode = Configuration.UI_MODE_NIGHT_YES;
+        nightAndLargeFont.fontScale = 1.3f;
+
+        assertArrayEquals(new int[] { 63, 126 }, cache.get(BarHeightCache.key(nightAndLargeFont)));
+    }
+
+    @Test
+    public void eachSizingFieldChangesTheKey() {
+        Configuration[] configurations = {
+                PORTRAIT,
+                LANDSCAPE,
+                // Same size, other orientation value
+                configuration(Configuration.ORIENTATION_LANDSCAPE, 420, 411, 914),
+                // Display size / density change
+                configuration(Configuration.ORIENTATION_PORTRAIT, 560, 411, 914),
+                // Fold / multi-window resize in one dimension
+                configuration(Configuration.ORIENTATION_PORTRAIT, 420, 673, 914),
+                configuration(Configuration.ORIENTATION_PORTRAIT, 420, 411, 841),
+                // Fields shifted into each other's range must not alias
+                configuration(0, 0, 0, 420),
+                configuration(0, 0, 420, 0),
+                configuration(0, 420, 0, 0),
+                configuration(1, 0, 0, 0),
+                configuration(0, 0, 0, 1),
+                // Largest values each field can take
+                configuration(0xFF, 0xFFFF, 0xFFFF, 0xFFFF),
+                configuration(0, 0xFFFF, 0xFFFF, 0xFFFF),
+        };
+
+        Set<Long> keys = new HashSet<>();
+        for (Configuration config : configurations) {
+            assertTrue("Key collision for " + config, keys.add(BarHeightCache.key(config)));
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedConfigurationIsEvicted() {
+        for (int i = 0; i < BarHeightCache.MAX_CONFIGURATIONS; i++) {
+            cache.put(BarHeightCache.key(configuration(Configuration.ORIENTATION_PORTRAIT, 420, 400 + i, 914)), i, i);
+        }
+        // Touch the oldest so the second oldest goes first
+        assertNotNull(cache.get(BarHeightCache.key(configuration(Configuration.ORIENTATION_PORTRAIT, 420, 400, 914))));
+
+        cache.put(BarHeightCache.key(LANDSCAPE), 63, 0);
+
+        assertEquals(BarHeightCache.MAX_CONFIGURATIONS, cache.size());
+        assertNotNull(cache.get(BarHeightCache.key(configuration(Configuration.ORIENTATION_PORTRAIT, 420, 400, 914))));
+        assertNull(cache.get(BarHeightCache.key(configuration(Configuration.ORIENTATION_PORTRAIT, 420, 401, 914))));
+        assertNotNull(cache.get(BarHeightCache.key(LANDSCAPE)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BarStateStoreTest {
+
+    @Test
+    public void roundTripsStylesAndColors() {
+        SystemBarsState state = SystemBarsState.INITIAL
+                .withStatusIcons(SystemBarsState.ICONS_LIGHT)
+                .withNavIcons(SystemBarsState.ICONS_DARK)
+                .withStatusColor(0xFF121212)
+                .withNavColor(0x80FFFFFF)
+                .withWindowColor(0xFF202020);
+
+        byte[] record = BarStateStore.encode(state);
+        assertEquals(BarStateStore.RECORD_SIZE, record.length);
+
+        SystemBarsState decoded = BarStateStore.decode(record);
+        assertNotNull(decoded);
+        assertEquals(SystemBarsState.ICONS_LIGHT, decoded.getStatusIcons());
+        assertEquals(SystemBarsState.ICONS_DARK, decoded.getNavIcons());
+        assertTrue(decoded.hasStatusColor());
+        assertTrue(decoded.hasNavColor());
+        assertEquals(0xFF121212, decoded.getStatusColor());
+        assertEquals(0x80FFFFFF, decoded.getNavColor());
+        assertTrue(decoded.hasWindowColor());
+        assertEquals(0xFF202020, decoded.getWindowColor());
+        assertEquals(0, decoded.diff(state));
+    }
+
+    @Test
+    public void unsetColorsStayUnset() {
+        SystemBarsState state = SystemBarsState.INITIAL.withStatusIcons(SystemBarsState.ICONS_DARK);
+
+        SystemBarsState decoded = BarStateStore.decode(BarStateStore.encode(state));
+        assertNotNull(decoded);
+        assertFalse(decoded.hasStatusColor());
+        assertFalse(decoded.hasNavColor());
+        assertFalse(decoded.hasWindowColor());
+        assertEquals(SystemBarsState.ICONS_UNSET, decoded.getNavIcons());
+    }
+
+    @Test
+    public void windowColorIsStoredOnItsOwn() {
+        SystemBarsState state = SystemBarsState.INITIAL.withWindowColor(0xFF000000);
+
+        SystemBarsState decoded = BarStateStore.decode(BarStateStore.encode(state));
+        assertNotNull(decoded);
+        assertTrue(decoded.hasWindowColor());
+        assertEquals(0xFF000000, decoded.getWindowColor());
+        assertFalse(decoded.hasStatusColor());
+        assertFalse(decoded.hasNavColor());
+    }
+
+    @Test
+    public void visibilityAndFullscreenAreNotPersisted() {
+        SystemBarsState state = SystemBarsState.INITIAL
+                .withStatusVisible(false)
+                .withFullscreenMode(SystemBarsState.FULLSCREEN_IMMERSIVE);
+
+        SystemBarsState decoded = BarStateStore.decode(BarStateStore.encode(state));
+        assertNotNull(decoded);
+        assertTrue(decoded.isStatusVisible());
+        assertEquals(SystemBarsState.FULLSCREEN_OFF, decoded.getFullscreenMode());
+    }
+
+    @Test
+    public void rejectsInvalidRecords() {
+        assertNull(BarStateStore.decode(null));
+        assertNull(BarStateStore.decode(new byte[3]));
+
+        byte[] record = BarStateStore.encode(SystemBarsState.INITIAL);
+        record[0] = 99; // unknown format version
+        assertNull(BarStateStore.decode(record));
+
+        record = BarStateStore.encode(SystemBarsState.INITIAL);
+        record[1] = 7; // not an icon constant
+        assertNull(BarStateStore.decode(record));
+
+        // Version 1 records (12 bytes, no window color) are dropped, not migrated
+        byte[] versionOne = new byte[12];
+        versionOne[0] = 1;
+        assertNull(BarStateStore.decode(versionOne));
+        record = BarStateStore.encode(SystemBarsState.INITIAL);
+        record[0] = 1;
+        assertNull(BarStateStore.decode(record));
+    }
+}
@@ -0,0 +1,129 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.Window;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Themes are parsed once and applied from their packed values. Runs on the legacy-flags
+ * branch, where both bar colors can be read back from the window.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BarThemeTest {
+
+    private BarCommandScheduler scheduler;
+    private SystemBarsManager manager;
+    private Window window;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        window = activity.getWindow();
+        scheduler = new BarCommandScheduler();
+        manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+    }
+
+    private BarTheme theme(String json) throws Exception {
+        return manager.parseTheme(new JSONObject(json));
+    }
+
+    private int windowBackgroundColor() {
+        return ((ColorDrawable) window.getDecorView().getBackground()).getColor();
+    }
+
+    @Test
+    public void parsesIntoPackedValues() throws Exception {
+        BarTheme brand = theme("{statusBar: {style: 'DARK', color: '#112233'},"
+                + " navigationBar: {color: 'white'}, windowBackground: '#000000'}");
+
+        assertEquals(SystemBarsState.ICONS_LIGHT, brand.getStatusIcons());
+        assertEquals(SystemBarsState.ICONS_UNSET, brand.getNavIcons());
+        assertEquals(Color.parseColor("#112233"), brand.getStatusColor());
+        assertEquals(Color.WHITE, brand.getNavColor());
+        assertEquals(Color.BLACK, brand.getWindowColor());
+        assertEquals(SystemBarsState.FIELD_STATUS_ICONS | SystemBarsState.FIELD_STATUS_COLOR
+                | SystemBarsState.FIELD_NAV_COLOR | SystemBarsState.FIELD_WINDOW_COLOR, brand.getFields());
+    }
+
+    @Test
+    public void invalidColorIsRejectedAtParse() throws Exception {
+        try {
+            theme("{navigationBar: {color: 'not-a-color'}}");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertEquals("Invalid navigationBar.color: not-a-color", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void nullValuesAreUnset() throws Exception {
+        BarTheme theme = theme("{statusBar: {style: null, color: null},"
+                + " navigationBar: {style: 'LIGHT', color: null}, windowBackground: null}");
+
+        assertEquals(SystemBarsState.ICONS_UNSET, theme.getStatusIcons());
+        assertEquals(SystemBarsState.FIELD_NAV_ICONS, theme.getFields());
+    }
+
+    @Test
+    public void appliesBothBarsAndTheWindowBackground() throws Exception {
+        manager.applyTheme(theme("{statusBar: {style: 'DARK', color: '#112233'},"
+                + " navigationBar: {style: 'LIGHT', color: '#FFFFFF'}, windowBackground: '#000000'}"), null);
+        scheduler.commitNow();
+
+        assertEquals(Color.parseColor("#112233"), window.getStatusBarColor());
+        assertEquals(Color.WHITE, window.getNavigationBarColor());
+        assertEquals(Color.BLACK, windowBackgroundColor());
+        assertEquals(0, manager.correctDrift());
+    }
+
+    @Test
+    public void windowBackgroundFollowsTheStatusColorWithoutOverride() throws Exception {
+        BarTheme brand = theme("{statusBar: {color: '#112233'}, windowBackground: '#000000'}");
+        BarTheme light = theme("{statusBar: {style: 'LIGHT', color: '#FAFAFA'}}");
+
+        manager.applyTheme(brand, null);
+        scheduler.commitNow();
+        manager.applyTheme(light, null);
+        scheduler.commitNow();
+
+        assertEquals(Color.parseColor("#FAFAFA"), window.getStatusBarColor());
+        assertEquals(Color.parseColor("#FAFAFA"), windowBackgroundColor());
+    }
+
+    @Test
+    public void unsetPartsKeepTheirCurrentValue() throws Exception {
+        manager.setNavigationBarStyle("LIGHT", "#FFFFFF");
+        scheduler.commitNow();
+
+        manager.applyTheme(theme("{statusBar: {color: '#112233'}}"), null);
+        scheduler.commitNow();
+
+        assertEquals(Color.parseColor("#112233"), window.getStatusBarColor());
+        assertEquals(Color.WHITE, window.getNavigationBarColor());
+    }
+
+    @Test
+    public void reapplyingTheCurrentThemeIsSkipped() throws Exception {
+        BarTheme dark = theme("{statusBar: {style: 'DARK', color: '#121212'}, navigationBar: {color: '#121212'}}");
+        manager.applyTheme(dark, null);
+        scheduler.commitNow();
+        long applied = manager.getReconcileStats().getLong("appliedOperations");
+
+        manager.applyTheme(dark, null);
+        scheduler.commitNow();
+
+        assertEquals(applied, manager.getReconcileStats().getLong("appliedOperations"));
+    }
+}
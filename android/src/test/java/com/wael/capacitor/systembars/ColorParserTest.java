@@ -0,0 +1,64 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ColorParserTest {
+
+    private final ColorParser parser = new ColorParser();
+
+    @Test
+    public void parsesHexForms() {
+        assertEquals(0xFFFFFFFF, parser.parse("#fff"));
+        assertEquals(0xFF112233, parser.parse("#123"));
+        assertEquals(0xFFFF0000, parser.parse("#FF0000"));
+        assertEquals(0x80FF0000, parser.parse("#80FF0000"));
+    }
+
+    @Test
+    public void parsesRgbFunctions() {
+        assertEquals(0xFFFF0000, parser.parse("rgb(255, 0, 0)"));
+        assertEquals(0xFF010203, parser.parse("rgb(1 2 3)"));
+        assertEquals(0x800000FF, parser.parse("rgba(0,0,255,0.5)"));
+        assertEquals(0x80FF0000, parser.parse("rgb(100% 0% 0% / 50%)"));
+    }
+
+    @Test
+    public void parsesHslFunctions() {
+        assertEquals(0xFF00FF00, parser.parse("hsl(120, 100%, 50%)"));
+        assertEquals(0xFF808080, parser.parse("hsl(0, 0%, 50%)"));
+        assertEquals(0x400000FF, parser.parse("hsla(240deg 100% 50% / 0.25)"));
+    }
+
+    @Test
+    public void parsesCssNamedColorsCaseInsensitively() {
+        assertEquals(0xFF663399, parser.parse("RebeccaPurple"));
+        assertEquals(0xFF008000, parser.parse("green"));
+        assertEquals(0xFF808080, parser.parse("grey"));
+        assertEquals(0x00000000, parser.parse("transparent"));
+    }
+
+    @Test
+    public void rejectsInvalidColors() {
+        String[] invalid = { "", "#ff", "#gggggg", "rgb(1,2)", "rgb(1,2,3,)", "notacolor", "rgb(1,2,3", "hsl()" };
+        for (String color : invalid) {
+            try {
+                parser.parse(color);
+                fail("Expected IllegalArgumentException for '" + color + "'");
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void cacheIsBoundedAndKeepsReturningCorrectValues() {
+        ColorParser small = new ColorParser(2);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0xFF000000 | i, small.parse(String.format("#%06x", i)));
+        }
+        assertEquals(0xFF000009, small.parse("#000009"));
+        assertEquals(0xFF000000, small.parse("#000000"));
+    }
+}
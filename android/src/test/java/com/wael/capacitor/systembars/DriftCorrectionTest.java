@@ -0,0 +1,67 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.view.View;
+import android.view.Window;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * The lifecycle pass re-applies only the fields the window lost. Runs on the legacy-flags
+ * branch, where bar colors and icon appearance can be read back from the window.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DriftCorrectionTest {
+
+    private BarCommandScheduler scheduler;
+    private SystemBarsManager manager;
+    private Window window;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        window = activity.getWindow();
+        scheduler = new BarCommandScheduler();
+        manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+
+        manager.setStatusBarStyle("DARK", "#112233");
+        manager.setNavigationBarStyle("LIGHT", "#FFFFFF");
+        scheduler.commitNow();
+    }
+
+    @Test
+    public void nothingDriftedCorrectsNothing() {
+        assertEquals(0, manager.correctDrift());
+    }
+
+    @Test
+    public void onlyTheDriftedColorIsReapplied() {
+        window.setStatusBarColor(Color.BLACK);
+
+        assertEquals(1, manager.correctDrift());
+        assertEquals(Color.parseColor("#112233"), window.getStatusBarColor());
+        assertEquals(0, manager.correctDrift());
+    }
+
+    @Test
+    public void resetFlagsAreReappliedTogether() {
+        // Something cleared all system UI flags: layout-stable and the light nav appearance
+        window.getDecorView().setSystemUiVisibility(0);
+
+        assertEquals(2, manager.correctDrift());
+        // Both land in the commit's single flag write
+        scheduler.commitNow();
+        int flags = window.getDecorView().getSystemUiVisibility();
+        assertTrue((flags & View.SYSTEM_UI_FLAG_LAYOUT_STABLE) != 0);
+        assertTrue((flags & View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR) != 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import com.getcapacitor.JSObject;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * The ring buffer keeps the newest CAPACITY events in order and decodes them on dump.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FlightRecorderTest {
+
+    private final FlightRecorder recorder = new FlightRecorder();
+
+    @Test
+    public void wrapsAroundKeepingTheNewestEvents() throws Exception {
+        int total = FlightRecorder.CAPACITY + 10;
+        for (int i = 0; i < total; i++) {
+            recorder.record(FlightRecorder.OP_APPLY_VISIBILITY, FlightRecorder.BAR_STATUS, i & 1);
+        }
+
+        JSObject dump = recorder.dump();
+        JSONArray events = dump.getJSONArray("events");
+
+        assertEquals(total, dump.getLong("recorded"));
+        assertEquals(FlightRecorder.CAPACITY, events.length());
+        assertEquals(10, events.getJSONObject(0).getLong("seq"));
+        assertEquals(total - 1, events.getJSONObject(events.length() - 1).getLong("seq"));
+    }
+
+    @Test
+    public void decodesColorsAndInsets() throws Exception {
+        recorder.record(FlightRecorder.OP_APPLY_COLOR, FlightRecorder.BAR_NAVIGATION, 0, 0xFF112233, 0);
+        recorder.record(FlightRecorder.OP_INSETS, FlightRecorder.BAR_BOTH, 1, 0,
+                FlightRecorder.packInsets(0, 24, 0, 48));
+
+        JSONArray events = recorder.dump().getJSONArray("events");
+
+        JSONObject color = events.getJSONObject(0);
+        assertEquals("APPLY_COLOR", color.getString("op"));
+        assertEquals("navigation", color.getString("bar"));
+        assertEquals("#FF112233", color.getString("color"));
+
+        JSONObject insets = events.getJSONObject(1);
+        assertEquals("INSETS", insets.getString("op"));
+        assertEquals(24, insets.getInt("top"));
+        assertEquals(48, insets.getInt("bottom"));
+        assertTrue(insets.getBoolean("statusBarVisible"));
+        assertFalse(insets.getBoolean("navigationBarVisible"));
+    }
+
+    @Test
+    public void decodesFullscreenTransitions() throws Exception {
+        recorder.record(FlightRecorder.OP_FULLSCREEN, FlightRecorder.BAR_BOTH,
+                FullscreenState.NORMAL.ordinal() << 8 | FullscreenState.LEAN.ordinal());
+
+        JSONObject event = recorder.dump().getJSONArray("events").getJSONObject(0);
+
+        assertEquals("NORMAL", event.getString("from"));
+        assertEquals("LEAN", event.getString("to"));
+    }
+
+    @Test
+    public void concurrentDumpsNeverMixTwoRecords() throws Exception {
+        Thread writer = new Thread(() -> {
+            // Every record has four equal insets; a torn read would mix two records
+            for (int i = 0; i < 200_000; i++) {
+                int value = i & 0xFFFF;
+                recorder.record(FlightRecorder.OP_INSETS, FlightRecorder.BAR_BOTH, 3, 0,
+                        FlightRecorder.packInsets(value, value, value, value));
+            }
+        });
+        writer.start();
+
+        while (writer.isAlive()) {
+            JSONArray events = recorder.dump().getJSONArray("events");
+            for (int i = 0; i < events.length(); i++) {
+                JSONObject event = events.getJSONObject(i);
+                int left = event.getInt("left");
+                assertEquals(left, event.getInt("top"));
+                assertEquals(left, event.getInt("right"));
+                assertEquals(left, event.getInt("bottom"));
+            }
+        }
+        writer.join();
+    }
+}
@@ -0,0 +1,133 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.webkit.WebView;
+import androidx.core.view.WindowInsetsCompat;
+import java.time.Duration;
+import org.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * The fullscreen exit restore must run exactly once: on the first visible-bars dispatch
+ * or pre-draw, or on the timeout when neither arrives.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class FullscreenRestoreTest {
+
+    private Activity activity;
+    private View decorView;
+    private int restores;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        decorView = activity.getWindow().getDecorView();
+        restores = 0;
+    }
+
+    private FullscreenRestore startRestore() {
+        FullscreenRestore restore = new FullscreenRestore(decorView, new FlightRecorder(), () -> restores++);
+        restore.start();
+        return restore;
+    }
+
+    @Test
+    public void preDrawRestoresOnceAndCancelsTimeout() {
+        FullscreenRestore restore = startRestore();
+
+        restore.onPreDraw();
+        restore.onPreDraw();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FullscreenRestore.TIMEOUT_MS * 2));
+
+        assertEquals(1, restores);
+    }
+
+    @Test
+    public void timeoutRestoresWhenNoFrameArrives() {
+        startRestore();
+        assertEquals(0, restores);
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FullscreenRestore.TIMEOUT_MS));
+
+        assertEquals(1, restores);
+    }
+
+    @Test
+    public void cancelledRestoreNeverRuns() {
+        FullscreenRestore restore = startRestore();
+        restore.cancel();
+
+        restore.onPreDraw();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FullscreenRestore.TIMEOUT_MS * 2));
+
+        assertEquals(0, restores);
+    }
+
+    @Test
+    @Config(sdk = 35)
+    public void waitsForDispatchWithVisibleBars() {
+        FullscreenRestore restore = startRestore();
+
+        restore.onInsetsDispatched(new WindowInsetsCompat.Builder()
+                .setVisible(WindowInsetsCompat.Type.statusBars(), false)
+                .build());
+        assertEquals(0, restores);
+
+        restore.onInsetsDispatched(new WindowInsetsCompat.Builder()
+                .setVisible(WindowInsetsCompat.Type.statusBars(), true)
+                .build());
+        restore.onInsetsDispatched(new WindowInsetsCompat.Builder()
+                .setVisible(WindowInsetsCompat.Type.statusBars(), true)
+                .build());
+
+        assertEquals(1, restores);
+    }
+
+    @Test
+    @Config(sdk = 35)
+    public void exitWritesTheRestoreStylesOnce() throws Exception {
+        WebView webView = new WebView(activity);
+        activity.setContentView(webView);
+        BarCommandScheduler scheduler = new BarCommandScheduler();
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+        FullscreenManager fullscreen = new FullscreenManager(activity, manager,
+                new WebViewPaddingManager(webView, scheduler), scheduler);
+        fullscreen.setWebView(webView);
+        fullscreen.installBaseInsetsListener();
+
+        manager.setStatusBarStyle("DARK", "#112233");
+        manager.setNavigationBarStyle("DARK", "#112233");
+        fullscreen.enterFullscreen("IMMERSIVE");
+        scheduler.commitNow();
+        long before = scheduler.getFlightRecorder().getRecordedCount();
+
+        fullscreen.exitFullscreen("LIGHT", "#FFFFFF", "LIGHT", "#FFFFFF");
+        scheduler.commitNow();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FullscreenRestore.TIMEOUT_MS));
+        assertEquals(FullscreenState.NORMAL, fullscreen.getState());
+
+        // One icon and one color write per bar, all from the restore
+        JSONArray events = scheduler.getFlightRecorder().dump().getJSONArray("events");
+        int styleWrites = 0;
+        for (int i = 0; i < events.length(); i++) {
+            if (events.getJSONObject(i).getLong("seq") < before) continue;
+            String op = events.getJSONObject(i).getString("op");
+            if (op.equals("APPLY_ICONS") || op.equals("APPLY_COLOR")) {
+                styleWrites++;
+            }
+        }
+        assertEquals(4, styleWrites);
+    }
+}
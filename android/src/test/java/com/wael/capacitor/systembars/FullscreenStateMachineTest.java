@@ -0,0 +1,106 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.webkit.WebView;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Fullscreen request bursts collapse to their final target, and a burst returning to
+ * the current state touches nothing. Runs on the legacy-flags branch, where the applied
+ * fullscreen is visible in the decor view's system UI flags.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class FullscreenStateMachineTest {
+
+    private BarCommandScheduler scheduler;
+    private FullscreenManager fullscreen;
+    private View decorView;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        decorView = activity.getWindow().getDecorView();
+        scheduler = new BarCommandScheduler();
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        WebViewPaddingManager padding = new WebViewPaddingManager(new WebView(activity), scheduler);
+        fullscreen = new FullscreenManager(activity, manager, padding, scheduler);
+    }
+
+    private boolean barsHidden() {
+        return (decorView.getSystemUiVisibility() & View.SYSTEM_UI_FLAG_FULLSCREEN) != 0;
+    }
+
+    @Test
+    public void burstCollapsesToFinalTarget() {
+        fullscreen.enterFullscreen("IMMERSIVE");
+        fullscreen.exitFullscreen();
+        fullscreen.enterFullscreen("LEAN");
+        assertEquals(FullscreenState.ENTERING, fullscreen.getState());
+        assertTrue(fullscreen.isFullscreenActive());
+
+        scheduler.commitNow();
+
+        assertEquals(FullscreenState.LEAN, fullscreen.getState());
+        assertTrue(barsHidden());
+        assertTrue((decorView.getSystemUiVisibility() & View.SYSTEM_UI_FLAG_IMMERSIVE) != 0);
+        assertEquals(0, decorView.getSystemUiVisibility() & View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY);
+    }
+
+    @Test
+    public void burstBackToCurrentStateRunsNoTransition() {
+        fullscreen.enterFullscreen("IMMERSIVE");
+        fullscreen.exitFullscreen("DEFAULT", null, null, null);
+        fullscreen.enterFullscreen("IMMERSIVE");
+        fullscreen.exitFullscreen(null, null, null, null);
+        assertEquals(FullscreenState.NORMAL, fullscreen.getState());
+
+        scheduler.commitNow();
+
+        assertEquals(FullscreenState.NORMAL, fullscreen.getState());
+        assertFalse(barsHidden());
+    }
+
+    @Test
+    public void exitStaysExitingUntilStylesAreRestored() {
+        fullscreen.enterFullscreen("IMMERSIVE");
+        scheduler.commitNow();
+        assertEquals(FullscreenState.IMMERSIVE, fullscreen.getState());
+
+        fullscreen.exitFullscreen();
+        scheduler.commitNow();
+        assertFalse(barsHidden());
+        assertEquals(FullscreenState.EXITING, fullscreen.getState());
+        assertFalse(fullscreen.isFullscreenActive());
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FullscreenRestore.TIMEOUT_MS));
+
+        assertEquals(FullscreenState.NORMAL, fullscreen.getState());
+    }
+
+    @Test
+    public void enterDuringExitCancelsTheRestore() {
+        fullscreen.enterFullscreen("IMMERSIVE");
+        scheduler.commitNow();
+        fullscreen.exitFullscreen();
+        scheduler.commitNow();
+
+        fullscreen.enterFullscreen("IMMERSIVE");
+        scheduler.commitNow();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(FullscreenRestore.TIMEOUT_MS));
+
+        assertEquals(FullscreenState.IMMERSIVE, fullscreen.getState());
+        assertTrue(barsHidden());
+    }
+}
@@ -0,0 +1,66 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import androidx.core.graphics.Insets;
+import androidx.core.view.WindowInsetsCompat;
+import com.getcapacitor.JSObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * getInsets() serves only published snapshots, and only a real change bumps the version.
+ * Runs on the legacy path, where the snapshot is published from outside the inset listeners.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class InsetsSnapshotTest {
+
+    private SystemBarsManager manager;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        manager = new SystemBarsManager(activity, new BarCommandScheduler());
+    }
+
+    private static WindowInsetsCompat insets(int top, int bottom) {
+        return new WindowInsetsCompat.Builder()
+                .setInsets(WindowInsetsCompat.Type.systemBars(), Insets.of(0, top, 0, bottom))
+                .build();
+    }
+
+    @Test
+    public void nothingIsServedBeforeThePublish() {
+        assertNull(manager.getInsets(-1));
+        assertEquals(0, manager.getInsetsVersion());
+    }
+
+    @Test
+    public void readInsetsReportsThePublishedVersion() throws Exception {
+        JSObject result = manager.readInsets(-1);
+
+        // Version 0 only if the window had no insets to publish
+        assertEquals(manager.getInsetsVersion(), result.getLong("version"));
+    }
+
+    @Test
+    public void onlyChangedValuesBumpTheVersion() throws Exception {
+        manager.publishInsets(insets(24, 48));
+        long version = manager.getInsetsVersion();
+        assertTrue(version > 0);
+
+        manager.publishInsets(insets(24, 48));
+        assertEquals(version, manager.getInsetsVersion());
+        assertTrue(manager.getInsets(version).getBoolean("unchanged"));
+
+        manager.publishInsets(insets(0, 48));
+        assertEquals(version + 1, manager.getInsetsVersion());
+        assertEquals(0, manager.getInsets(version).getInt("top"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.webkit.WebView;
+import android.widget.FrameLayout;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Every InsetsStrategy must leave the WebView alone when a dispatch carries the insets
+ * it already applied, including when driven by FullscreenManager's base inset listener.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class InsetsStrategyTest {
+
+    private static final String[] STRATEGIES = {
+            InsetsStrategy.MARGINS, InsetsStrategy.PADDING, InsetsStrategy.TRANSLATION, InsetsStrategy.CSS
+    };
+
+    private LayoutCountingView view;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        FrameLayout parent = new FrameLayout(context);
+        view = new LayoutCountingView(context);
+        parent.addView(view, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        view.layoutRequests = 0;
+    }
+
+    @Test
+    public void forNameFallsBackToMargins() {
+        for (String name : STRATEGIES) {
+            assertEquals(name, InsetsStrategy.forName(name).getName());
+        }
+        assertEquals(InsetsStrategy.MARGINS, InsetsStrategy.forName("bogus").getName());
+        assertEquals(InsetsStrategy.MARGINS, InsetsStrategy.forName(null).getName());
+    }
+
+    @Test
+    public void unchangedInsetsRequestNoLayout() {
+        for (String name : STRATEGIES) {
+            InsetsStrategy strategy = InsetsStrategy.forName(name);
+            strategy.apply(view, 0, 96, 0, 48);
+            view.layoutRequests = 0;
+
+            strategy.apply(view, 0, 96, 0, 48);
+            strategy.apply(view, 0, 96, 0, 48);
+
+            assertEquals(name, 0, view.layoutRequests);
+            strategy.clear(view);
+        }
+    }
+
+    @Test
+    public void changedInsetsRequestLayoutForLayoutStrategies() {
+        InsetsStrategy margins = InsetsStrategy.forName(InsetsStrategy.MARGINS);
+        margins.apply(view, 0, 96, 0, 48);
+        assertTrue(view.layoutRequests > 0);
+
+        FrameLayout.LayoutParams lp = (FrameLayout.LayoutParams) view.getLayoutParams();
+        assertEquals(96, lp.topMargin);
+        assertEquals(48, lp.bottomMargin);
+
+        margins.clear(view);
+        view.layoutRequests = 0;
+
+        InsetsStrategy padding = InsetsStrategy.forName(InsetsStrategy.PADDING);
+        padding.apply(view, 0, 96, 0, 48);
+        assertTrue(view.layoutRequests > 0);
+        assertEquals(96, view.getPaddingTop());
+        assertEquals(48, view.getPaddingBottom());
+    }
+
+    @Test
+    public void translationAndCssNeverRequestLayout() {
+        InsetsStrategy translation = InsetsStrategy.forName(InsetsStrategy.TRANSLATION);
+        translation.apply(view, 0, 96, 0, 48);
+        assertEquals(96f, view.getTranslationY(), 0f);
+        translation.clear(view);
+        assertEquals(0f, view.getTranslationY(), 0f);
+
+        // Landscape: a left inset moves the view right, a right inset moves it left
+        translation.apply(view, 132, 0, 0, 0);
+        assertEquals(132f, view.getTranslationX(), 0f);
+        translation.apply(view, 0, 0, 132, 0);
+        assertEquals(-132f, view.getTranslationX(), 0f);
+        translation.clear(view);
+        assertEquals(0f, view.getTranslationX(), 0f);
+
+        InsetsStrategy.forName(InsetsStrategy.CSS).apply(view, 0, 96, 0, 48);
+
+        assertEquals(0, view.layoutRequests);
+    }
+
+    @Test
+    public void repeatedDispatchThroughBaseListenerRequestsNoLayout() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        LayoutCountingWebView webView = new LayoutCountingWebView(activity);
+        activity.setContentView(webView, new ViewGroup.MarginLayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        BarCommandScheduler scheduler = new BarCommandScheduler();
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+        FullscreenManager fullscreenManager = new FullscreenManager(activity, manager,
+                new WebViewPaddingManager(webView, scheduler), scheduler);
+        fullscreenManager.setWebView(webView);
+        fullscreenManager.installBaseInsetsListener();
+
+        WindowInsetsCompat insets = new WindowInsetsCompat.Builder()
+                .setInsets(WindowInsetsCompat.Type.statusBars(), Insets.of(0, 96, 0, 0))
+                .setInsets(WindowInsetsCompat.Type.navigationBars(), Insets.of(0, 0, 0, 48))
+                .build();
+
+        webView.layoutRequests = 0;
+        ViewCompat.dispatchApplyWindowInsets(webView, insets);
+        assertTrue(webView.layoutRequests > 0);
+        ViewGroup.MarginLayoutParams lp = (ViewGroup.MarginLayoutParams) webView.getLayoutParams();
+        assertEquals(96, lp.topMargin);
+        assertEquals(48, lp.bottomMargin);
+
+        webView.layoutRequests = 0;
+        for (int i = 0; i < 5; i++) {
+            ViewCompat.dispatchApplyWindowInsets(webView, insets);
+        }
+        assertEquals(0, webView.layoutRequests);
+    }
+
+    private static class LayoutCountingView extends View {
+        int layoutRequests;
+
+        LayoutCountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+    }
+
+    private static class LayoutCountingWebView extends WebView {
+        int layoutRequests;
+
+        LayoutCountingWebView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.view.View;
+import org.junit.Test;
+
+public class LegacySystemUiFlagsTest {
+
+    private static final int[] ICONS = {
+            SystemBarsState.ICONS_UNSET, SystemBarsState.ICONS_DARK, SystemBarsState.ICONS_LIGHT
+    };
+    private static final int[] MODES = {
+            SystemBarsState.FULLSCREEN_OFF, SystemBarsState.FULLSCREEN_IMMERSIVE, SystemBarsState.FULLSCREEN_LEAN
+    };
+    private static final int ALL_FIELDS = SystemBarsState.FIELD_STATUS_ICONS | SystemBarsState.FIELD_NAV_ICONS
+            | SystemBarsState.FIELD_STATUS_VISIBLE | SystemBarsState.FIELD_NAV_VISIBLE
+            | SystemBarsState.FIELD_FULLSCREEN;
+
+    // Flags the plugin never composes; must survive every write
+    private static final int APP_FLAGS = View.SYSTEM_UI_FLAG_LOW_PROFILE;
+
+    private static SystemBarsState state(int statusIcons, int navIcons, boolean statusVisible,
+            boolean navVisible, int mode) {
+        return SystemBarsState.INITIAL
+                .withStatusIcons(statusIcons)
+                .withNavIcons(navIcons)
+                .withStatusVisible(statusVisible)
+                .withNavVisible(navVisible)
+                .withFullscreenMode(mode);
+    }
+
+    private static boolean has(int flags, int flag) {
+        return (flags & flag) == flag;
+    }
+
+    @Test
+    public void composesEveryCombination() {
+        for (int statusIcons : ICONS) {
+            for (int navIcons : ICONS) {
+                for (int visibility = 0; visibility < 4; visibility++) {
+                    for (int mode : MODES) {
+                        boolean statusVisible = (visibility & 1) != 0;
+                        boolean navVisible = (visibility & 2) != 0;
+                        boolean fullscreen = mode != SystemBarsState.FULLSCREEN_OFF;
+                        SystemBarsState state = state(statusIcons, navIcons, statusVisible, navVisible, mode);
+                        String combination = statusIcons + "/" + navIcons + "/" + visibility + "/" + mode;
+
+                        // All flags start set, so every owned one must be decided by the state
+                        int flags = LegacySystemUiFlags.merge(~0, state, ALL_FIELDS, 29);
+
+                        assertTrue(combination, has(flags, View.SYSTEM_UI_FLAG_LAYOUT_STABLE));
+                        assertTrue(combination, has(flags, APP_FLAGS));
+                        // Unset icons keep whatever the decor view had
+                        assertEquals(combination, statusIcons != SystemBarsState.ICONS_LIGHT,
+                                has(flags, View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR));
+                        assertEquals(combination, navIcons != SystemBarsState.ICONS_LIGHT,
+                                has(flags, View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR));
+                        assertEquals(combination, !statusVisible || fullscreen,
+                                has(flags, View.SYSTEM_UI_FLAG_FULLSCREEN));
+                        assertEquals(combination, !navVisible || fullscreen,
+                                has(flags, View.SYSTEM_UI_FLAG_HIDE_NAVIGATION));
+                        assertEquals(combination, fullscreen,
+                                has(flags, View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
+                                        | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION));
+                        assertEquals(combination, mode == SystemBarsState.FULLSCREEN_IMMERSIVE,
+                                has(flags, View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY));
+                        assertEquals(combination, mode == SystemBarsState.FULLSCREEN_LEAN,
+                                has(flags, View.SYSTEM_UI_FLAG_IMMERSIVE));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fieldsNeverAppliedAreLeftAlone() {
+        SystemBarsState hidden = state(SystemBarsState.ICONS_DARK, SystemBarsState.ICONS_DARK, false, false,
+                SystemBarsState.FULLSCREEN_OFF);
+
+        int flags = LegacySystemUiFlags.merge(APP_FLAGS, hidden, SystemBarsState.FIELD_STATUS_ICONS, 29);
+
+        assertEquals(APP_FLAGS | View.SYSTEM_UI_FLAG_LAYOUT_STABLE | View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR, flags);
+    }
+
+    @Test
+    public void lightAppearanceFlagsFollowTheApiLevel() {
+        SystemBarsState dark = state(SystemBarsState.ICONS_DARK, SystemBarsState.ICONS_DARK, true, true,
+                SystemBarsState.FULLSCREEN_OFF);
+
+        assertEquals(View.SYSTEM_UI_FLAG_LAYOUT_STABLE, LegacySystemUiFlags.merge(0, dark, ALL_FIELDS, 22));
+        assertEquals(View.SYSTEM_UI_FLAG_LAYOUT_STABLE | View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR,
+                LegacySystemUiFlags.merge(0, dark, ALL_FIELDS, 25));
+        assertTrue(has(LegacySystemUiFlags.merge(0, dark, ALL_FIELDS, 26), View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR));
+    }
+
+    @Test
+    public void exitingFullscreenClearsOnlyFullscreenFlags() {
+        SystemBarsState immersive = state(SystemBarsState.ICONS_LIGHT, SystemBarsState.ICONS_DARK, false, false,
+                SystemBarsState.FULLSCREEN_IMMERSIVE);
+        int inFullscreen = LegacySystemUiFlags.merge(APP_FLAGS, immersive, ALL_FIELDS, 29);
+
+        SystemBarsState exited = immersive.withStatusVisible(true).withNavVisible(true)
+                .withFullscreenMode(SystemBarsState.FULLSCREEN_OFF);
+        int afterExit = LegacySystemUiFlags.merge(inFullscreen, exited, ALL_FIELDS, 29);
+
+        assertEquals(APP_FLAGS | View.SYSTEM_UI_FLAG_LAYOUT_STABLE | View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR,
+                afterExit);
+    }
+}
@@ -0,0 +1,81 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PerformanceStatsTest {
+
+    private static final long US = 1000;
+
+    private final PerformanceStats.Histogram histogram = new PerformanceStats.Histogram();
+
+    private long bucketBoundOf(long nanos) {
+        PerformanceStats.Histogram single = new PerformanceStats.Histogram();
+        single.record(nanos);
+        return single.percentileMicros(1.0);
+    }
+
+    @Test
+    public void durationsLandInPowerOfTwoBuckets() {
+        // Bucket i holds [2^(i-1), 2^i) us and reports 2^i; below 1 us reports 1
+        assertEquals(1, bucketBoundOf(0));
+        assertEquals(1, bucketBoundOf(999));
+        assertEquals(2, bucketBoundOf(1 * US));
+        assertEquals(4, bucketBoundOf(2 * US));
+        assertEquals(4, bucketBoundOf(3 * US));
+        assertEquals(8, bucketBoundOf(4 * US));
+        assertEquals(1024, bucketBoundOf(1000 * US));
+        assertEquals(2048, bucketBoundOf(1024 * US));
+    }
+
+    @Test
+    public void negativeDurationsCountAsZero() {
+        histogram.record(-5 * US);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(1, histogram.percentileMicros(0.5));
+    }
+
+    @Test
+    public void longDurationsShareTheOpenEndedBucket() {
+        long lastBound = 1L << 19;
+        assertEquals(lastBound, bucketBoundOf(600_000 * US));
+        assertEquals(lastBound, bucketBoundOf(60_000_000 * US));
+    }
+
+    @Test
+    public void percentilesPickTheBucketContainingTheRank() {
+        for (int i = 0; i < 90; i++) {
+            histogram.record(10 * US);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1000 * US);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(16, histogram.percentileMicros(0.50));
+        assertEquals(16, histogram.percentileMicros(0.90));
+        assertEquals(1024, histogram.percentileMicros(0.91));
+        assertEquals(1024, histogram.percentileMicros(0.99));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        assertEquals(0, histogram.percentileMicros(0.5));
+        assertEquals(0, histogram.percentileMicros(0.99));
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        histogram.record(10 * US);
+        histogram.record(1000 * US);
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileMicros(0.99));
+        histogram.record(3 * US);
+        assertEquals(4, histogram.percentileMicros(0.99));
+    }
+}
@@ -0,0 +1,73 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ScrollLinkedBarColorTest {
+
+    private static final int BLACK = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+    private static final int RED = 0xFFFF0000;
+    private static final int BLUE = 0xFF0000FF;
+
+    private static ScrollLinkedBarColor.Lut lut(float[] offsets, int[] colors) {
+        return new ScrollLinkedBarColor.Lut(ScrollLinkedBarColor.buildLut(offsets, colors),
+                offsets[0], offsets[offsets.length - 1], ScrollLinkedBarColor.SOURCE_MESSAGE);
+    }
+
+    @Test
+    public void tableInterpolatesBetweenTwoStops() {
+        // 256 entries over 0..255 px: one channel step per entry
+        int[] table = ScrollLinkedBarColor.buildLut(new float[] { 0, 255 }, new int[] { BLACK, WHITE });
+
+        assertEquals(256, table.length);
+        for (int i = 0; i < table.length; i++) {
+            assertEquals(0xFF000000 | i << 16 | i << 8 | i, table[i]);
+        }
+    }
+
+    @Test
+    public void innerStopIsHitExactly() {
+        // Entry 85 maps to 100 px, the middle stop
+        int[] table = ScrollLinkedBarColor.buildLut(new float[] { 0, 100, 300 }, new int[] { BLACK, RED, BLUE });
+
+        assertEquals(BLACK, table[0]);
+        assertEquals(RED, table[85]);
+        assertEquals(BLUE, table[255]);
+        // Between the outer stops only red and blue mix
+        assertEquals(0, (table[170] >> 8) & 0xFF);
+    }
+
+    @Test
+    public void singleStopFillsTheTable() {
+        int[] table = ScrollLinkedBarColor.buildLut(new float[] { 40 }, new int[] { RED });
+
+        for (int color : table) {
+            assertEquals(RED, color);
+        }
+        assertEquals(RED, lut(new float[] { 40 }, new int[] { RED }).colorAt(1000));
+    }
+
+    @Test
+    public void offsetsOutsideTheRangeClamp() {
+        ScrollLinkedBarColor.Lut lut = lut(new float[] { 50, 150 }, new int[] { BLACK, WHITE });
+
+        assertEquals(BLACK, lut.colorAt(-20));
+        assertEquals(BLACK, lut.colorAt(50));
+        assertEquals(WHITE, lut.colorAt(150));
+        assertEquals(WHITE, lut.colorAt(10_000));
+    }
+
+    @Test
+    public void offsetsMapToTheirTableEntry() {
+        float[] offsets = { 0, 100 };
+        int[] colors = { BLACK, WHITE };
+        int[] table = ScrollLinkedBarColor.buildLut(offsets, colors);
+        ScrollLinkedBarColor.Lut lut = lut(offsets, colors);
+
+        assertEquals(table[127], lut.colorAt(50));
+        assertEquals(table[63], lut.colorAt(25));
+        assertEquals(table[254], lut.colorAt(99.9f));
+    }
+}
@@ -0,0 +1,92 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SystemBarsStateTest {
+
+    private static final int RED = 0xFFFF0000;
+    private static final int BLUE = 0xFF0000FF;
+
+    private static final SystemBarsState STYLED = SystemBarsState.INITIAL
+            .withStatusIcons(SystemBarsState.ICONS_LIGHT)
+            .withNavIcons(SystemBarsState.ICONS_DARK)
+            .withStatusColor(RED)
+            .withNavColor(BLUE);
+
+    @Test
+    public void identicalStatesDiffToNothing() {
+        assertEquals(0, STYLED.diff(STYLED));
+        assertEquals(0, SystemBarsState.INITIAL.diff(SystemBarsState.INITIAL));
+    }
+
+    @Test
+    public void settingTheCurrentValueIsANoOp() {
+        // Same instance back, so the reconciler sees no change and skips the commit
+        assertSame(STYLED, STYLED.withStatusIcons(SystemBarsState.ICONS_LIGHT));
+        assertSame(STYLED, STYLED.withNavIcons(SystemBarsState.ICONS_DARK));
+        assertSame(STYLED, STYLED.withStatusColor(RED));
+        assertSame(STYLED, STYLED.withNavColor(BLUE));
+        assertSame(STYLED, STYLED.withStatusVisible(true));
+        assertSame(STYLED, STYLED.withNavVisible(true));
+        assertSame(STYLED, STYLED.withFullscreenMode(SystemBarsState.FULLSCREEN_OFF));
+        assertSame(STYLED, STYLED.withoutWindowColor());
+    }
+
+    @Test
+    public void eachFieldIsReportedOnItsOwn() {
+        assertEquals(SystemBarsState.FIELD_STATUS_ICONS,
+                STYLED.withStatusIcons(SystemBarsState.ICONS_DARK).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_NAV_ICONS,
+                STYLED.withNavIcons(SystemBarsState.ICONS_LIGHT).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_STATUS_COLOR, STYLED.withStatusColor(BLUE).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_NAV_COLOR, STYLED.withNavColor(RED).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_WINDOW_COLOR, STYLED.withWindowColor(RED).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_STATUS_VISIBLE, STYLED.withStatusVisible(false).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_NAV_VISIBLE, STYLED.withNavVisible(false).diff(STYLED));
+        assertEquals(SystemBarsState.FIELD_FULLSCREEN,
+                STYLED.withFullscreenMode(SystemBarsState.FULLSCREEN_LEAN).diff(STYLED));
+    }
+
+    @Test
+    public void combinedChangesAreReportedTogether() {
+        SystemBarsState desired = STYLED
+                .withStatusIcons(SystemBarsState.ICONS_DARK)
+                .withNavColor(RED)
+                .withNavVisible(false);
+
+        assertEquals(SystemBarsState.FIELD_STATUS_ICONS | SystemBarsState.FIELD_NAV_COLOR
+                | SystemBarsState.FIELD_NAV_VISIBLE, desired.diff(STYLED));
+    }
+
+    @Test
+    public void unsetStylesNeverCountAsAChange() {
+        // Nothing desired: whatever was applied stays
+        assertEquals(0, SystemBarsState.INITIAL.diff(STYLED));
+        assertEquals(0, STYLED.withoutStyles().diff(STYLED));
+    }
+
+    @Test
+    public void firstColorIsAChangeEvenIfItMatchesTheDefault() {
+        // Packed 0 is also the default value; only the mask says whether it was set
+        assertEquals(SystemBarsState.FIELD_STATUS_COLOR,
+                SystemBarsState.INITIAL.withStatusColor(0).diff(SystemBarsState.INITIAL));
+    }
+
+    @Test
+    public void droppingTheWindowColorIsAChange() {
+        SystemBarsState themed = STYLED.withWindowColor(RED);
+
+        assertEquals(SystemBarsState.FIELD_WINDOW_COLOR, STYLED.diff(themed));
+    }
+
+    @Test
+    public void forgottenFieldsAreReportedAgain() {
+        int fields = SystemBarsState.FIELD_STATUS_COLOR | SystemBarsState.FIELD_NAV_ICONS
+                | SystemBarsState.FIELD_STATUS_VISIBLE;
+
+        assertEquals(fields, STYLED.diff(STYLED.withoutFields(fields)));
+        assertSame(STYLED, STYLED.withoutFields(0));
+    }
+}
@@ -0,0 +1,103 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+import android.graphics.Color;
+import android.view.Window;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * A night mode flip applies the matching theme inside the configuration change, before
+ * any frame, and only then notifies. Runs on the legacy-flags branch, where the bar
+ * colors can be read back from the window.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SystemThemeFollowerTest {
+
+    private static final int LIGHT_COLOR = 0xFFFAFAFA;
+    private static final int DARK_COLOR = 0xFF121212;
+
+    private BarCommandScheduler scheduler;
+    private SystemBarsManager manager;
+    private SystemThemeFollower follower;
+    private Window window;
+    private final List<Boolean> notified = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        window = activity.getWindow();
+        scheduler = new BarCommandScheduler();
+        manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+        follower = new SystemThemeFollower(manager, scheduler);
+        follower.setListener(notified::add);
+
+        BarTheme light = manager.parseTheme(new JSONObject(
+                "{statusBar: {style: 'LIGHT', color: '#FAFAFA'}, navigationBar: {style: 'LIGHT', color: '#FAFAFA'}}"));
+        BarTheme dark = manager.parseTheme(new JSONObject(
+                "{statusBar: {style: 'DARK', color: '#121212'}, navigationBar: {style: 'DARK', color: '#121212'}}"));
+        follower.follow(light, dark, configuration(false));
+        scheduler.commitNow();
+    }
+
+    private static Configuration configuration(boolean dark) {
+        Configuration configuration = new Configuration();
+        configuration.uiMode = Configuration.UI_MODE_TYPE_NORMAL
+                | (dark ? Configuration.UI_MODE_NIGHT_YES : Configuration.UI_MODE_NIGHT_NO);
+        return configuration;
+    }
+
+    @Test
+    public void followAppliesTheCurrentMode() {
+        assertEquals(LIGHT_COLOR, window.getStatusBarColor());
+        assertEquals(LIGHT_COLOR, window.getNavigationBarColor());
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    public void nightModeFlipIsCommittedInTheSamePass() {
+        follower.onConfigurationChanged(configuration(true));
+
+        // No frame in between: already on the window
+        assertEquals(DARK_COLOR, window.getStatusBarColor());
+        assertEquals(DARK_COLOR, window.getNavigationBarColor());
+        assertEquals(1, notified.size());
+        assertTrue(notified.get(0));
+
+        follower.onConfigurationChanged(configuration(false));
+        assertEquals(LIGHT_COLOR, window.getStatusBarColor());
+        assertFalse(notified.get(1));
+    }
+
+    @Test
+    public void otherConfigurationChangesAreIgnored() {
+        Configuration rotated = configuration(false);
+        rotated.orientation = Configuration.ORIENTATION_LANDSCAPE;
+
+        follower.onConfigurationChanged(rotated);
+
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    public void stopLeavesTheBarsAlone() {
+        follower.stop();
+
+        follower.onConfigurationChanged(configuration(true));
+
+        assertEquals(LIGHT_COLOR, window.getStatusBarColor());
+        assertTrue(notified.isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package com.wael.capacitor.systembars;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.webkit.WebView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * With unifiedEdgeToEdge, API 30-34 runs the edge-to-edge architecture: colors go to the
+ * background views instead of the window, and fullscreen never pads the WebView.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+public class UnifiedEdgeToEdgeTest {
+
+    private Activity activity;
+    private Window window;
+    private ViewGroup contentView;
+    private BarCommandScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        window = activity.getWindow();
+        contentView = activity.findViewById(android.R.id.content);
+        scheduler = new BarCommandScheduler();
+    }
+
+    @After
+    public void tearDown() {
+        EdgeToEdgeMode.setUnifiedFrom30(false);
+    }
+
+    @Test
+    public void legacyArchitectureByDefault() {
+        assertFalse(EdgeToEdgeMode.isActive());
+
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+        manager.setStatusBarStyle("DARK", "#112233");
+        scheduler.commitNow();
+
+        assertEquals(0, contentView.getChildCount());
+        assertEquals(Color.parseColor("#112233"), window.getStatusBarColor());
+    }
+
+    @Test
+    public void colorsGoToTheBackgroundViews() {
+        EdgeToEdgeMode.setUnifiedFrom30(true);
+        assertTrue(EdgeToEdgeMode.isActive());
+
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        manager.initialize();
+        manager.setStatusBarStyle("DARK", "#112233");
+        scheduler.commitNow();
+
+        assertEquals(2, contentView.getChildCount());
+        ColorDrawable statusBackground = (ColorDrawable) contentView.getChildAt(0).getBackground();
+        assertEquals(Color.parseColor("#112233"), statusBackground.getColor());
+        assertEquals(Color.TRANSPARENT, window.getStatusBarColor());
+        assertEquals(Color.TRANSPARENT, window.getNavigationBarColor());
+    }
+
+    @Test
+    public void fullscreenNeverPadsTheWebView() {
+        EdgeToEdgeMode.setUnifiedFrom30(true);
+
+        WebView webView = new WebView(activity);
+        SystemBarsManager manager = new SystemBarsManager(activity, scheduler);
+        WebViewPaddingManager padding = new WebViewPaddingManager(webView, scheduler);
+        FullscreenManager fullscreen = new FullscreenManager(activity, manager, padding, scheduler);
+        fullscreen.setWebView(webView);
+        manager.initialize();
+        padding.applyPadding();
+
+        fullscreen.enterFullscreen("IMMERSIVE");
+        scheduler.commitNow();
+        assertEquals(FullscreenState.IMMERSIVE, fullscreen.getState());
+        assertEquals(0, webView.getPaddingTop());
+
+        fullscreen.exitFullscreen();
+        scheduler.commitNow();
+        assertFalse(fullscreen.isFullscreenActive());
+        assertEquals(0, webView.getPaddingTop());
+    }
+}
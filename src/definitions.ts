@@ -1,3 +1,5 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
 export interface AndroidSystemBarsPlugin {
   /**
    * Initialize plugin and get device info
@@ -10,70 +12,96 @@ export interface AndroidSystemBarsPlugin {
    * Set both status bar AND navigation bar style/color in one call
    * This is the recommended method for most use cases
    */
-  setSystemBarsStyle(options: SetSystemBarsStyleOptions): Promise<void>;
+  setSystemBarsStyle(options: SetSystemBarsStyleOptions): Promise<CommitResult | void>;
+
+  // === THEMES ===
+
+  /**
+   * Register themes by id. Each theme is parsed once, natively; an invalid color rejects
+   * the call and registers none of them. Registering an existing id replaces it.
+   */
+  registerThemes(themes: Record<string, BarThemeDefinition>): Promise<void>;
+
+  /**
+   * Apply a registered theme by id, without any color parsing.
+   * Rejects if the id was never registered.
+   */
+  applyTheme(options: ApplyThemeOptions): Promise<CommitResult | void>;
+
+  /**
+   * Swap between a light and a dark theme natively whenever the system dark mode changes.
+   * The theme for the current mode is applied right away. Also available as the
+   * `systemThemes` plugin config option (inline definitions only).
+   */
+  followSystemTheme(options: FollowSystemThemeOptions): Promise<CommitResult | void>;
+
+  /**
+   * Stop following the system dark mode. The current bars are left as they are.
+   */
+  stopFollowingSystemTheme(): Promise<void>;
 
   // === INDIVIDUAL BAR CONTROL ===
 
   /**
    * Set ONLY status bar style and color
    */
-  setStatusBarStyle(options: SetStatusBarStyleOptions): Promise<void>;
+  setStatusBarStyle(options: SetStatusBarStyleOptions): Promise<CommitResult | void>;
 
   /**
    * Set ONLY navigation bar style and color
    */
-  setNavigationBarStyle(options: SetNavigationBarStyleOptions): Promise<void>;
+  setNavigationBarStyle(options: SetNavigationBarStyleOptions): Promise<CommitResult | void>;
 
   // === STATUS BAR VISIBILITY ===
 
   /**
    * Hide status bar
    */
-  hideStatusBar(): Promise<void>;
+  hideStatusBar(options?: CommitOptions): Promise<CommitResult | void>;
 
   /**
    * Show status bar
    */
-  showStatusBar(): Promise<void>;
+  showStatusBar(options?: CommitOptions): Promise<CommitResult | void>;
 
   // === NAVIGATION BAR VISIBILITY ===
 
   /**
    * Hide navigation bar
    */
-  hideNavigationBar(): Promise<void>;
+  hideNavigationBar(options?: CommitOptions): Promise<CommitResult | void>;
 
   /**
    * Show navigation bar
    */
-  showNavigationBar(): Promise<void>;
+  showNavigationBar(options?: CommitOptions): Promise<CommitResult | void>;
 
   // === FULLSCREEN MODE ===
 
   /**
    * Enter fullscreen mode (hides both status and navigation bars)
    */
-  enterFullscreen(options: EnterFullscreenOptions): Promise<void>;
+  enterFullscreen(options: EnterFullscreenOptions): Promise<CommitResult | void>;
 
   /**
    * Exit fullscreen mode and restore system bars
    */
-  exitFullscreen(options?: ExitFullscreenOptions): Promise<void>;
+  exitFullscreen(options?: ExitFullscreenOptions): Promise<CommitResult | void>;
 
   /**
-   * Check if fullscreen mode is currently active
+   * Check if fullscreen mode is currently active (or being entered), and the exact state
    */
-  isFullscreenActive(): Promise<{ active: boolean }>;
+  isFullscreenActive(): Promise<FullscreenStatusResult>;
 
   /**
    * Force exit fullscreen mode (emergency fallback)
    */
-  forceExitFullscreen(): Promise<void>;
+  forceExitFullscreen(options?: CommitOptions): Promise<CommitResult | void>;
 
   // === ADVANCED FEATURES ===
 
   /**
-   * Set overlay mode (Android 35+ only)
+   * Set overlay mode (Android 35+, or 11+ with unifiedEdgeToEdge)
    */
   setOverlay(options: SetOverlayOptions): Promise<void>;
 
@@ -82,25 +110,109 @@ export interface AndroidSystemBarsPlugin {
    */
   getInsets(): Promise<InsetsResult>;
 
+  /**
+   * Get current window insets information, or only `{ unchanged: true, version }`
+   * when the insets have not changed since the given version
+   */
+  getInsets(options: GetInsetsOptions): Promise<InsetsResult | InsetsUnchangedResult>;
+
+  /**
+   * Tint the status bar from the scroll position with a gradient registered once.
+   * Native code precomputes a color lookup table; scroll updates need no plugin call.
+   * With source 'message', report the offset of your scroll container with
+   * `reportScrollOffset(y)` (or `window.AndroidSystemBarsScroll.onScroll(y)`); this
+   * source needs `scrollLinkedStatusBar: true` in the plugin config and rejects otherwise.
+   */
+  setScrollLinkedStatusBar(options: ScrollLinkedStatusBarOptions): Promise<CommitResult | void>;
+
+  /**
+   * Leave scroll-linked mode and restore the regular status bar color
+   */
+  clearScrollLinkedStatusBar(options?: CommitOptions): Promise<CommitResult | void>;
+
+  /**
+   * Configure the insetsChanged event (throttling)
+   */
+  setInsetsEventOptions(options: InsetsEventOptions): Promise<void>;
+
+  /**
+   * Choose how the system bar insets are applied to the WebView (Android 35+).
+   * Also available as the `insetsStrategy` plugin config option. Default: 'margins'.
+   * Rejects 'translation' when the injectCssInsets plugin config is off.
+   */
+  setInsetsStrategy(options: InsetsStrategyOptions): Promise<CommitResult | void>;
+
+  /**
+   * Keep the WebView above the keyboard and slide it in step with the keyboard animation
+   * (Android 35+). The WebView is translated while the keyboard moves and resized once.
+   * Also available as the `animateKeyboardInsets` plugin config option. Default: disabled
+   */
+  setKeyboardInsetsAnimation(options: KeyboardInsetsAnimationOptions): Promise<CommitResult | void>;
+
+  /**
+   * Listen for inset changes (rotation, fold, bar visibility).
+   * Fires only when the dp values or bar visibility actually change.
+   *
+   * Android 35+ only, and API 30-34 with the `unifiedEdgeToEdge` plugin config: the event
+   * is emitted from the edge-to-edge inset listeners, which the legacy architecture does
+   * not install. Elsewhere it never fires; call getInsets() instead.
+   */
+  addListener(
+    eventName: 'insetsChanged',
+    listenerFunc: (insets: InsetsResult) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Fires after followSystemTheme() has applied the theme for a new system dark mode.
+   */
+  addListener(
+    eventName: 'systemThemeChanged',
+    listenerFunc: (event: SystemThemeChangedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Remove all listeners for this plugin
+   */
+  removeAllListeners(): Promise<void>;
+
+  /**
+   * Get reconciler counters: window operations applied vs. no-op requests skipped
+   * because the bar already had the requested style, color or visibility
+   */
+  getReconcileStats(): Promise<ReconcileStatsResult>;
+
+  /**
+   * Counters and latency histograms for every bar operation, for field sampling.
+   * Bar operations also emit Systrace/Perfetto sections named "AndroidSystemBars:*".
+   */
+  getPerformanceStats(options?: PerformanceStatsOptions): Promise<PerformanceStatsResult>;
+
+  /**
+   * The last system bar events (style requests, applied changes, insets, fullscreen
+   * transitions, lifecycle re-applies), oldest first. Recorded in a fixed-size native
+   * ring buffer that is always on; attach the dump to bug reports.
+   */
+  dumpDiagnostics(): Promise<DiagnosticsResult>;
+
   // === DEPRECATED METHODS (for backward compatibility) ===
 
   /**
    * @deprecated Use setStatusBarStyle() instead
    * Set status bar style and color
    */
-  setStyle(options: SetStatusBarStyleOptions): Promise<void>;
+  setStyle(options: SetStatusBarStyleOptions): Promise<CommitResult | void>;
 
   /**
    * @deprecated Use hideStatusBar() instead
    * Hide status bar
    */
-  hide(): Promise<void>;
+  hide(options?: CommitOptions): Promise<CommitResult | void>;
 
   /**
    * @deprecated Use showStatusBar() instead
    * Show status bar
    */
-  show(): Promise<void>;
+  show(options?: CommitOptions): Promise<CommitResult | void>;
 }
 
 export interface InitializeResult {
@@ -116,6 +228,7 @@ export interface InitializeResult {
 
   /**
    * Whether device supports edge-to-edge natively
+   * (Android 35+, or Android 30+ with the `unifiedEdgeToEdge` plugin config)
    */
   supportsEdgeToEdge: boolean;
 
@@ -135,9 +248,50 @@ export interface InitializeResult {
   navigationBarHeight: number;
 }
 
+// === COMMIT TRACKING ===
+
+/**
+ * By default a bar method resolves as soon as the change is queued; it is applied on
+ * the next frame. Opt in to resolve only once it has actually been applied.
+ */
+export interface CommitOptions {
+  /**
+   * Resolve with a CommitResult after the change has been applied on the UI thread,
+   * and reject if applying it failed. Default: false
+   */
+  awaitCommit?: boolean;
+
+  /**
+   * Like awaitCommit, but resolve at the following frame, once the frame showing the
+   * change has been produced. Default: false
+   */
+  awaitNextFrame?: boolean;
+}
+
+/**
+ * Returned when awaitCommit or awaitNextFrame is set. Timings are 0 when the call had
+ * nothing to apply (e.g. Android-version no-ops).
+ */
+export interface CommitResult {
+  /**
+   * Time from the call until the UI thread started applying it, in microseconds
+   */
+  queueLatencyUs: number;
+
+  /**
+   * UI-thread time spent applying the change, in microseconds
+   */
+  applyDurationUs: number;
+
+  /**
+   * Time from the apply to the following frame, in microseconds (awaitNextFrame only)
+   */
+  frameLatencyUs?: number;
+}
+
 // === UNIFIED SYSTEM BARS ===
 
-export interface SetSystemBarsStyleOptions {
+export interface SetSystemBarsStyleOptions extends CommitOptions {
   /**
    * Status bar configuration
    */
@@ -165,44 +319,145 @@ export interface SetSystemBarsStyleOptions {
    * If specified, overrides individual statusBar/navigationBar color
    */
   color?: string;
+
+  /**
+   * Animate the color change of both bars (Android 35+, or 11+ with unifiedEdgeToEdge)
+   */
+  transition?: BarTransitionOptions;
+}
+
+// === THEMES ===
+
+export interface BarThemeDefinition {
+  /**
+   * Status bar style and color. Omitted parts keep their current value.
+   */
+  statusBar?: {
+    style?: 'LIGHT' | 'DARK' | 'DEFAULT';
+    color?: string;
+  };
+
+  /**
+   * Navigation bar style and color. Omitted parts keep their current value.
+   */
+  navigationBar?: {
+    style?: 'LIGHT' | 'DARK' | 'DEFAULT';
+    color?: string;
+  };
+
+  /**
+   * Window background color behind the WebView.
+   * Default: follows the status bar color (not painted with `barBackground: "drawable"`)
+   */
+  windowBackground?: string;
+}
+
+export interface ApplyThemeOptions extends CommitOptions {
+  /**
+   * Id passed to registerThemes()
+   */
+  id: string;
+
+  /**
+   * Animate the color change of both bars (Android 35+, or 11+ with unifiedEdgeToEdge)
+   */
+  transition?: BarTransitionOptions;
+}
+
+export interface FollowSystemThemeOptions extends CommitOptions {
+  /**
+   * Theme for light mode: a registered theme id or an inline definition
+   */
+  light: string | BarThemeDefinition;
+
+  /**
+   * Theme for dark mode: a registered theme id or an inline definition
+   */
+  dark: string | BarThemeDefinition;
+}
+
+export interface SystemThemeChangedEvent {
+  /**
+   * Whether the system is now in dark mode
+   */
+  dark: boolean;
+}
+
+export interface BarTransitionOptions {
+  /**
+   * Animation duration in milliseconds (capped at 5000). 0 applies immediately.
+   */
+  durationMs: number;
+
+  /**
+   * Easing curve. Default: 'ease-in-out'
+   */
+  easing?: 'linear' | 'ease-in' | 'ease-out' | 'ease-in-out';
 }
 
 // === INDIVIDUAL BAR CONTROL ===
 
-export interface SetStatusBarStyleOptions {
+export interface SetStatusBarStyleOptions extends CommitOptions {
   /**
    * Status bar style
    */
   style: 'LIGHT' | 'DARK' | 'DEFAULT';
 
   /**
-   * Status bar background color (hex format: #RRGGBB or #AARRGGBB)
+   * Status bar background color: #RGB, #RRGGBB, #AARRGGBB, rgb()/rgba(), hsl()/hsla() or a CSS color name
    */
   color?: string;
+
+  /**
+   * Animate the color change (Android 35+, or 11+ with unifiedEdgeToEdge)
+   */
+  transition?: BarTransitionOptions;
 }
 
-export interface SetNavigationBarStyleOptions {
+export interface SetNavigationBarStyleOptions extends CommitOptions {
   /**
    * Navigation bar style
    */
   style: 'LIGHT' | 'DARK' | 'DEFAULT';
 
   /**
-   * Navigation bar background color (hex format: #RRGGBB or #AARRGGBB)
+   * Navigation bar background color: #RGB, #RRGGBB, #AARRGGBB, rgb()/rgba(), hsl()/hsla() or a CSS color name
    */
   color?: string;
+
+  /**
+   * Animate the color change (Android 35+, or 11+ with unifiedEdgeToEdge)
+   */
+  transition?: BarTransitionOptions;
 }
 
 // === FULLSCREEN MODE ===
 
-export interface EnterFullscreenOptions {
+export interface EnterFullscreenOptions extends CommitOptions {
   /**
    * Fullscreen mode type
    */
   mode: 'IMMERSIVE' | 'LEAN';
 }
 
-export interface ExitFullscreenOptions {
+/**
+ * - 'NORMAL': bars shown, no transition pending
+ * - 'ENTERING': fullscreen requested, not committed yet
+ * - 'IMMERSIVE' / 'LEAN': fullscreen
+ * - 'EXITING': exit requested; the restored styles are applied once the bars are visible
+ */
+export type FullscreenState = 'NORMAL' | 'ENTERING' | 'IMMERSIVE' | 'LEAN' | 'EXITING';
+
+export interface FullscreenStatusResult {
+  /**
+   * true while ENTERING, IMMERSIVE or LEAN
+   */
+  active: boolean;
+
+  state: FullscreenState;
+}
+
+export interface ExitFullscreenOptions extends CommitOptions {
   /**
    * System bars configuration to restore after exiting fullscreen
    * If not provided, will restore to system default
@@ -240,11 +495,88 @@ export interface ExitFullscreenOptions {
 
 export interface SetOverlayOptions {
   /**
-   * Whether to enable overlay mode (Android 35+ only)
+   * Whether to enable overlay mode (Android 35+, or 11+ with unifiedEdgeToEdge)
    */
   overlay: boolean;
 }
 
+export interface ScrollGradientStop {
+  /**
+   * Scroll offset in CSS px
+   */
+  offset: number;
+
+  /**
+   * Status bar color at this offset
+   */
+  color: string;
+}
+
+export interface ScrollLinkedStatusBarOptions extends CommitOptions {
+  /**
+   * Color stops, ascending by offset. Offsets outside the range clamp to the first/last color.
+   */
+  stops: ScrollGradientStop[];
+
+  /**
+   * Scroll signal: 'webview' follows the WebView's own (document) scroll position,
+   * 'message' takes offsets reported from JS (requires the `scrollLinkedStatusBar`
+   * plugin config). Default: 'message'
+   */
+  source?: 'webview' | 'message';
+}
+
+/**
+ * - 'margins': the WebView is shrunk by layout margins; bar colors show around it
+ * - 'padding': the WebView stays full size and its content is padded
+ * - 'translation': the WebView is moved below the status bar (and away from a side inset)
+ *   without relayout. It keeps its full size, so the bottom --asb-inset-top +
+ *   --asb-inset-bottom of the page (and in landscape a band on the opposite side) is
+ *   off-screen and must be reserved by the page. Requires injectCssInsets
+ * - 'css': the WebView stays edge-to-edge; the page uses the --asb-* variables or env()
+ */
+export type InsetsStrategyName = 'margins' | 'padding' | 'translation' | 'css';
+
+export interface InsetsStrategyOptions extends CommitOptions {
+  strategy: InsetsStrategyName;
+}
+
+export interface KeyboardInsetsAnimationOptions extends CommitOptions {
+  /**
+   * Whether the WebView follows the keyboard
+   */
+  enabled: boolean;
+}
+
+export interface InsetsEventOptions {
+  /**
+   * Minimum interval between two insetsChanged events in milliseconds.
+   * Changes inside the window are coalesced into one event with the latest values.
+   * Default: 0 (every change is delivered immediately)
+   */
+  throttleMs?: number;
+}
+
+export interface GetInsetsOptions {
+  /**
+   * Version from a previous result. If the insets have not changed since,
+   * the call returns `{ unchanged: true, version }` instead of the full result.
+   */
+  ifNewerThan?: number;
+}
+
+export interface InsetsUnchangedResult {
+  /**
+   * Always true: the caller's version is current
+   */
+  unchanged: true;
+
+  /**
+   * Current insets version
+   */
+  version: number;
+}
+
 export interface InsetsResult {
   /**
    * Top inset (status bar area)
@@ -275,4 +607,128 @@ export interface InsetsResult {
    * Whether navigation bar is visible
    */
   navigationBarVisible: boolean;
+
+  /**
+   * Insets version; increases every time the native values change.
+   * 0 until the first inset dispatch has been observed.
+   */
+  version: number;
+}
+
+export interface PerformanceStatsOptions {
+  /**
+   * Reset all counters and histograms after reading them, including the reconciler's
+   * appliedOperations/skippedOperations (also reported by getReconcileStats()).
+   * Default: false
+   */
+  reset?: boolean;
+}
+
+/**
+ * Latency histogram. Percentiles are bucket upper bounds (power-of-two microseconds).
+ */
+export interface LatencyHistogram {
+  count: number;
+  meanUs: number;
+  p50Us: number;
+  p95Us: number;
+  p99Us: number;
+  maxUs: number;
+}
+
+export interface PerformanceStatsResult extends ReconcileStatsResult {
+  /**
+   * Time from the bridge call to the UI-thread commit of the operation
+   */
+  commitLatency: LatencyHistogram;
+
+  /**
+   * UI-thread time per operation kind (e.g. BAR_STATE, FULLSCREEN, WEBVIEW_PADDING)
+   */
+  uiThreadTime: { [operation: string]: LatencyHistogram };
+
+  /**
+   * Calls replaced by a later call before they were committed
+   */
+  coalescedSubmissions: number;
+
+  /**
+   * Insets dispatches handled by the plugin's listeners
+   */
+  insetsDispatches: number;
+
+  /**
+   * Layout passes the plugin triggered (WebView margins/padding, bar background views)
+   */
+  layoutPasses: number;
+
+  /**
+   * Debounced re-application passes after resume / configuration changes
+   */
+  lifecyclePasses: number;
+
+  /**
+   * Fields those passes found changed behind the plugin's back (icon appearance, bar
+   * colors, visibility, WebView margins, fullscreen) and re-applied
+   */
+  driftCorrections: number;
+}
+
+export interface DiagnosticsEvent {
+  /**
+   * Position in the recording; gaps mean older events were overwritten
+   */
+  seq: number;
+
+  /**
+   * STYLE_REQUEST, APPLY_ICONS, APPLY_COLOR, APPLY_VISIBILITY, INSETS, FULLSCREEN,
+   * RESTORE, LIFECYCLE, COMMIT_FAILED or DRIFT_CORRECTED
+   */
+  op: string;
+
+  bar: 'none' | 'status' | 'navigation' | 'both';
+
+  /**
+   * Milliseconds between the event and the dump
+   */
+  ageMs: number;
+
+  /**
+   * Native thread id that recorded the event
+   */
+  thread: number;
+
+  mainThread: boolean;
+
+  /**
+   * Op-specific fields, e.g. `icons`, `color` (#AARRGGBB), `visible`, `top`/`bottom`/
+   * `left`/`right` (dp), `from`/`to`, `trigger`, `event`, `slot`, `corrections`
+   */
+  [field: string]: string | number | boolean;
+}
+
+export interface DiagnosticsResult {
+  /**
+   * Events kept by the ring buffer
+   */
+  capacity: number;
+
+  /**
+   * Events recorded since the plugin loaded
+   */
+  recorded: number;
+
+  events: DiagnosticsEvent[];
+}
+
+export interface ReconcileStatsResult {
+  /**
+   * Window / insets controller / background view operations actually performed
+   */
+  appliedOperations: number;
+
+  /**
+   * Requested operations skipped because the value was already applied
+   */
+  skippedOperations: number;
 }
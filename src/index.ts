@@ -6,5 +6,13 @@ const AndroidSystemBars = registerPlugin<AndroidSystemBarsPlugin>('AndroidSystem
   web: () => import('./web').then((m) => new m.AndroidSystemBarsWeb()),
 });
 
+/**
+ * Report the scroll offset (CSS px) for setScrollLinkedStatusBar({ source: 'message' }).
+ * Goes straight to the native lookup table - no plugin call, safe to call on every scroll event.
+ */
+const reportScrollOffset = (offset: number): void => {
+  (window as any).AndroidSystemBarsScroll?.onScroll(offset);
+};
+
 export * from './definitions';
-export { AndroidSystemBars };
+export { AndroidSystemBars, reportScrollOffset };
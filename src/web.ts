@@ -4,12 +4,25 @@ import type {
   AndroidSystemBarsPlugin,
   InitializeResult,
   SetSystemBarsStyleOptions,
+  BarThemeDefinition,
+  ApplyThemeOptions,
+  FollowSystemThemeOptions,
   SetStatusBarStyleOptions,
   EnterFullscreenOptions,
   ExitFullscreenOptions,
   SetOverlayOptions,
   InsetsResult,
   SetNavigationBarStyleOptions,
+  ReconcileStatsResult,
+  InsetsEventOptions,
+  GetInsetsOptions,
+  ScrollLinkedStatusBarOptions,
+  KeyboardInsetsAnimationOptions,
+  InsetsStrategyOptions,
+  PerformanceStatsOptions,
+  PerformanceStatsResult,
+  FullscreenStatusResult,
+  DiagnosticsResult,
 } from './definitions';
 
 export class AndroidSystemBarsWeb extends WebPlugin implements AndroidSystemBarsPlugin {
@@ -32,6 +45,28 @@ export class AndroidSystemBarsWeb extends WebPlugin implements AndroidSystemBars
     // Web platforms don't have native system bars
   }
 
+  // === THEMES ===
+
+  async registerThemes(themes: Record<string, BarThemeDefinition>): Promise<void> {
+    console.log('AndroidSystemBars.registerThemes called on web platform', themes);
+    // Web platforms don't have native system bars
+  }
+
+  async applyTheme(options: ApplyThemeOptions): Promise<void> {
+    console.log('AndroidSystemBars.applyTheme called on web platform', options);
+    // Web platforms don't have native system bars
+  }
+
+  async followSystemTheme(options: FollowSystemThemeOptions): Promise<void> {
+    console.log('AndroidSystemBars.followSystemTheme called on web platform', options);
+    // Web platforms don't have native system bars
+  }
+
+  async stopFollowingSystemTheme(): Promise<void> {
+    console.log('AndroidSystemBars.stopFollowingSystemTheme called on web platform');
+    // Web platforms don't have native system bars
+  }
+
   // === INDIVIDUAL BAR CONTROL ===
 
   async setStatusBarStyle(options: SetStatusBarStyleOptions): Promise<void> {
@@ -92,10 +127,10 @@ export class AndroidSystemBarsWeb extends WebPlugin implements AndroidSystemBars
     }
   }
 
-  async isFullscreenActive(): Promise<{ active: boolean }> {
+  async isFullscreenActive(): Promise<FullscreenStatusResult> {
     // For web, check if document is in fullscreen mode
     const active = !!document.fullscreenElement;
-    return { active };
+    return { active, state: active ? 'IMMERSIVE' : 'NORMAL' };
   }
 
   async forceExitFullscreen(): Promise<void> {
@@ -115,7 +150,7 @@ export class AndroidSystemBarsWeb extends WebPlugin implements AndroidSystemBars
     // Not applicable for web
   }
 
-  async getInsets(): Promise<InsetsResult> {
+  async getInsets(_options?: GetInsetsOptions): Promise<InsetsResult> {
     // Web implementation - return default values
     return {
       top: 0,
@@ -124,6 +159,66 @@ export class AndroidSystemBarsWeb extends WebPlugin implements AndroidSystemBars
       right: 0,
       statusBarVisible: false,
       navigationBarVisible: false,
+      version: 0,
+    };
+  }
+
+  async setScrollLinkedStatusBar(options: ScrollLinkedStatusBarOptions): Promise<void> {
+    console.log('AndroidSystemBars.setScrollLinkedStatusBar called on web platform', options);
+    // Web platforms don't have native system bars
+  }
+
+  async clearScrollLinkedStatusBar(): Promise<void> {
+    console.log('AndroidSystemBars.clearScrollLinkedStatusBar called on web platform');
+    // Web platforms don't have native system bars
+  }
+
+  async setInsetsStrategy(options: InsetsStrategyOptions): Promise<void> {
+    console.log('AndroidSystemBars.setInsetsStrategy called on web platform', options);
+    // Web platforms don't have native system bars
+  }
+
+  async setKeyboardInsetsAnimation(options: KeyboardInsetsAnimationOptions): Promise<void> {
+    console.log('AndroidSystemBars.setKeyboardInsetsAnimation called on web platform', options);
+    // Web platforms don't have a native keyboard inset
+  }
+
+  async setInsetsEventOptions(options: InsetsEventOptions): Promise<void> {
+    console.log('AndroidSystemBars.setInsetsEventOptions called on web platform', options);
+    // Web platforms never emit insetsChanged
+  }
+
+  async getReconcileStats(): Promise<ReconcileStatsResult> {
+    // Web implementation - nothing is reconciled
+    return {
+      appliedOperations: 0,
+      skippedOperations: 0,
+    };
+  }
+
+  async getPerformanceStats(options?: PerformanceStatsOptions): Promise<PerformanceStatsResult> {
+    console.log('AndroidSystemBars.getPerformanceStats called on web platform', options);
+    // Web implementation - no native operations to measure
+    const emptyHistogram = { count: 0, meanUs: 0, p50Us: 0, p95Us: 0, p99Us: 0, maxUs: 0 };
+    return {
+      commitLatency: emptyHistogram,
+      uiThreadTime: {},
+      coalescedSubmissions: 0,
+      insetsDispatches: 0,
+      layoutPasses: 0,
+      lifecyclePasses: 0,
+      driftCorrections: 0,
+      appliedOperations: 0,
+      skippedOperations: 0,
+    };
+  }
+
+  async dumpDiagnostics(): Promise<DiagnosticsResult> {
+    // Web implementation - nothing is recorded
+    return {
+      capacity: 0,
+      recorded: 0,
+      events: [],
     };
   }
 